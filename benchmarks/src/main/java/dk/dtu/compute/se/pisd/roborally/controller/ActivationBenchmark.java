@@ -0,0 +1,91 @@
+package dk.dtu.compute.se.pisd.roborally.controller;
+
+import dk.dtu.compute.se.pisd.roborally.model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the activation phase, i.e. the registers of all robots on the
+ * advanced board executed card by card by {@link GameController#executeStep()},
+ * including the field actions at the end of each register. The last register
+ * is not executed, since completing it ends the round with
+ * {@link GameController#startProgrammingPhase()}, which deals new cards; so
+ * one operation is the execution of the first {@link #REGISTERS} registers.
+ * The programs are fixed for the whole trial so that runs are reproducible.
+ *
+ * The robots need to be put back to their start positions before each
+ * execution; since this set up per invocation has an overhead which is not
+ * small compared to one execution, each invocation executes a batch of
+ * {@link #BATCH} games.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ActivationBenchmark {
+
+    static final int BATCH = 64;
+
+    static final int REGISTERS = Player.NO_REGISTERS - 1;
+
+    @Param({"2", "4", "6"})
+    public int players;
+
+    private GameController[] games;
+
+    private Command[][] programs;
+
+    @Setup(Level.Trial)
+    public void createGames() {
+        games = new GameController[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            games[i] = Fixtures.createGame(BoardFactory.ADVANCED_BOARD_NAME, players);
+        }
+
+        // LEFT_OR_RIGHT is excluded since it would stop the activation phase
+        // and wait for the player's interaction
+        Command[] commands = {Command.FORWARD, Command.RIGHT, Command.LEFT,
+                Command.FAST_FORWARD, Command.U_TURN, Command.BACKWARDS};
+        SplittableRandom random = new SplittableRandom(42);
+        programs = new Command[players][Player.NO_REGISTERS];
+        for (int i = 0; i < players; i++) {
+            for (int j = 0; j < Player.NO_REGISTERS; j++) {
+                programs[i][j] = commands[random.nextInt(commands.length)];
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void programRobots() {
+        for (GameController gameController : games) {
+            Board board = gameController.board;
+            Fixtures.resetPlayers(board);
+            for (int i = 0; i < players; i++) {
+                Player player = board.getPlayer(i);
+                for (int j = 0; j < Player.NO_REGISTERS; j++) {
+                    player.getProgramField(j).setCard(new CommandCard(programs[i][j]));
+                }
+            }
+            gameController.finishProgrammingPhase();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int executePrograms() {
+        int result = 0;
+        for (GameController gameController : games) {
+            Board board = gameController.board;
+            while (board.getPhase() == Phase.ACTIVATION && board.getStep() < REGISTERS) {
+                gameController.executeStep();
+            }
+            result += board.getCounter();
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,70 @@
+package dk.dtu.compute.se.pisd.roborally.controller;
+
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link GameController#executeFieldActions()} on the advanced board
+ * with six robots standing on conveyor belts (and one of them next to a
+ * checkpoint), which is what happens at the end of every register.
+ *
+ * The field actions move the robots, so they need to be put back before
+ * each execution. One execution takes only a few hundred nanoseconds, which
+ * is not much more than the overhead of a set up per invocation; so each
+ * invocation executes the field actions on a batch of {@link #BATCH} games,
+ * which are all put back before the invocation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class FieldActionBenchmark {
+
+    static final int BATCH = 256;
+
+    private static final int[][] POSITIONS = {
+            {0, 6}, {3, 4}, {9, 3}, {11, 6}, {13, 3}, {13, 5}
+    };
+
+    private GameController[] games;
+
+    @Setup(Level.Trial)
+    public void createGames() {
+        games = new GameController[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            games[i] = Fixtures.createGame(BoardFactory.ADVANCED_BOARD_NAME, POSITIONS.length);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void placeRobots() {
+        for (GameController gameController : games) {
+            Board board = gameController.board;
+            for (int i = 0; i < board.getPlayersNumber(); i++) {
+                board.getPlayer(i).setSpace(null);
+            }
+            for (int i = 0; i < board.getPlayersNumber(); i++) {
+                Player player = board.getPlayer(i);
+                player.setSpace(board.getSpace(POSITIONS[i][0], POSITIONS[i][1]));
+                player.setCheckpointsReached(0);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int executeFieldActions() {
+        int result = 0;
+        for (GameController gameController : games) {
+            gameController.executeFieldActions();
+            result += gameController.board.getPlayer(0).getSpace().y;
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,39 @@
+package dk.dtu.compute.se.pisd.roborally.controller;
+
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Heading;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+
+/**
+ * Shared set up for the benchmarks, placing the players in the same way
+ * as the {@link AppController} does for a new game.
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static GameController createGame(String boardName, int players) {
+        Board board = BoardFactory.getInstance().createBoard(boardName);
+        GameController gameController = new GameController(board);
+        for (int i = 0; i < players; i++) {
+            Player player = new Player(board, "red", "Player " + (i + 1));
+            board.addPlayer(player);
+        }
+        resetPlayers(board);
+        return gameController;
+    }
+
+    static void resetPlayers(Board board) {
+        for (int i = 0; i < board.getPlayersNumber(); i++) {
+            board.getPlayer(i).setSpace(null);
+        }
+        for (int i = 0; i < board.getPlayersNumber(); i++) {
+            Player player = board.getPlayer(i);
+            player.setSpace(board.getSpace(i % board.width, i));
+            player.setHeading(Heading.SOUTH);
+            player.setCheckpointsReached(0);
+        }
+    }
+
+}
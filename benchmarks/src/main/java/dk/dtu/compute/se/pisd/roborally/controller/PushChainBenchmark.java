@@ -0,0 +1,63 @@
+package dk.dtu.compute.se.pisd.roborally.controller;
+
+import dk.dtu.compute.se.pisd.roborally.exceptions.ImpossibleMoveException;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Heading;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import dk.dtu.compute.se.pisd.roborally.model.Space;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link GameController#moveToSpace(Player, Space, Heading)} pushing
+ * a chain of robots standing next to each other. The chain is pushed east
+ * by its first robot and back west by its last robot in turns, so that the
+ * board state stays the same over two invocations.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PushChainBenchmark {
+
+    /**
+     * The number of robots in the chain including the pushing robot.
+     */
+    @Param({"2", "3", "4", "5", "6"})
+    public int robots;
+
+    private GameController gameController;
+
+    private Player first;
+    private Player last;
+
+    private boolean eastward;
+
+    @Setup(Level.Trial)
+    public void createChain() {
+        Board board = new Board(20, 3);
+        gameController = new GameController(board);
+        for (int i = 0; i < robots; i++) {
+            Player player = new Player(board, "red", "Player " + (i + 1));
+            board.addPlayer(player);
+            player.setSpace(board.getSpace(5 + i, 1));
+        }
+        first = board.getPlayer(0);
+        last = board.getPlayer(robots - 1);
+        eastward = true;
+    }
+
+    @Benchmark
+    public Space pushChain() throws ImpossibleMoveException {
+        Player pusher = eastward ? first : last;
+        Heading heading = eastward ? Heading.EAST : Heading.WEST;
+        Space target = gameController.board.getNeighbour(pusher.getSpace(), heading);
+        gameController.moveToSpace(pusher, target, heading);
+        eastward = !eastward;
+        return pusher.getSpace();
+    }
+
+}
@@ -0,0 +1,32 @@
+package dk.dtu.compute.se.pisd.roborally.fileaccess;
+
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link LoadBoard#loadBoard(String)} for the board which is
+ * shipped as a JSON resource, once with the parsed board in the cache
+ * and once parsing the resource again each time.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class LoadBoardBenchmark {
+
+    @Benchmark
+    public Board loadDefaultBoard() {
+        return LoadBoard.loadBoard("defaultboard");
+    }
+
+    @Benchmark
+    public Board loadDefaultBoardUncached() {
+        LoadBoard.clearCache();
+        return LoadBoard.loadBoard("defaultboard");
+    }
+
+}
@@ -0,0 +1,44 @@
+package dk.dtu.compute.se.pisd.roborally.model;
+
+import dk.dtu.compute.se.pisd.roborally.controller.BoardFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Board#getNeighbour(Space, Heading)} for all spaces and
+ * headings of the advanced board, which has some walls. A single operation
+ * consists of all 4 * 15 * 8 = 480 neighbour computations.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class NeighbourBenchmark {
+
+    private Board board;
+
+    private Heading[] headings;
+
+    @Setup(Level.Trial)
+    public void createBoard() {
+        board = BoardFactory.getInstance().createBoard("advanced");
+        headings = Heading.values();
+    }
+
+    @Benchmark
+    public void getNeighbour(Blackhole blackhole) {
+        for (int x = 0; x < board.width; x++) {
+            for (int y = 0; y < board.height; y++) {
+                Space space = board.getSpace(x, y);
+                for (Heading heading : headings) {
+                    blackhole.consume(board.getNeighbour(space, heading));
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+package dk.dtu.compute.se.pisd.roborally.planner;
+
+import dk.dtu.compute.se.pisd.roborally.controller.BoardFactory;
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.CardDealer;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time for programming all robots of a game with the
+ * {@link ProgramSearch}, i.e. one search per player on freshly dealt cards,
+ * with and without a transposition table.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ProgramSearchBenchmark {
+
+    @Param({"2", "6"})
+    public int players;
+
+    @Param({"true", "false"})
+    public boolean table;
+
+    private GameController gameController;
+
+    private ProgramSearch search;
+
+    @Setup(Level.Trial)
+    public void createGame() {
+        Board board = BoardFactory.getInstance().createBoard("advanced");
+        board.setCardDealer(new CardDealer(4711L));
+        gameController = new GameController(board);
+        for (int i = 0; i < players; i++) {
+            Player player = new Player(board, "red", "Player " + (i + 1));
+            board.addPlayer(player);
+            player.setSpace(board.getSpace(i % board.width, i));
+        }
+        search = new ProgramSearch(DistanceFields.of(board), ForkJoinPool.commonPool(),
+                table ? new TranspositionTable(ProgramSearch.TABLE_SIZE) : null);
+    }
+
+    @Setup(Level.Invocation)
+    public void dealCards() {
+        gameController.startProgrammingPhase();
+    }
+
+    @Benchmark
+    public long searchAllPlayers() {
+        Board board = gameController.board;
+        long score = 0;
+        for (int i = 0; i < board.getPlayersNumber(); i++) {
+            score += search.search(board.getPlayer(i)).score;
+        }
+        return score;
+    }
+
+}
@@ -21,7 +21,10 @@
  */
 package dk.dtu.compute.se.pisd.designpatterns.observer;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.WeakHashMap;
 
@@ -45,6 +48,18 @@ public abstract class Subject {
 	// that these observers are implicitly removed, when the observers
 	// would be garbage (if not for these references)!
 
+	/**
+	 * The batch of the current thread: the nesting depth of
+	 * {@link #beginBatch()} calls and the subjects which changed
+	 * during the batch (in the order of their first change).
+	 */
+	private static final class Batch {
+		private int depth = 0;
+		private final Set<Subject> pending = new LinkedHashSet<>();
+	}
+
+	private static final ThreadLocal<Batch> batch = ThreadLocal.withInitial(Batch::new);
+
 	/**
 	 * These methods allow an observer to register with the subject
 	 * for update notifications when the subject changes.
@@ -71,9 +86,56 @@ public abstract class Subject {
 	 * relevant for the observer).
 	 */
 	final protected void notifyChange() {
+		if (observers.isEmpty()) {
+			// headless games (e.g. simulations) do not have any observers,
+			// so we do not even need to create an iterator
+			return;
+		}
+		Batch current = batch.get();
+		if (current.depth > 0) {
+			current.pending.add(this);
+		} else {
+			notifyObservers();
+		}
+	}
+
+	private void notifyObservers() {
 		for (Observer observer: observers) {
 			observer.update(this);
 		}
 	}
 
+	/**
+	 * Starts a batch of changes for the current thread. Until the matching
+	 * call of {@link #endBatch()}, changes of subjects made by this thread
+	 * are not sent to the observers right away; instead, every subject that
+	 * changed notifies its observers exactly once at the end of the batch.
+	 * Batches can be nested; the notifications are sent at the end of the
+	 * outermost batch. Calls of this method should always be matched by
+	 * a call of {@link #endBatch()} in a finally block.
+	 */
+	public static void beginBatch() {
+		batch.get().depth++;
+	}
+
+	/**
+	 * Ends a batch of changes started by {@link #beginBatch()}. If this
+	 * ends the outermost batch, all subjects which changed during the
+	 * batch notify their observers (once each). Changes made by observers
+	 * while being notified are sent immediately.
+	 */
+	public static void endBatch() {
+		Batch current = batch.get();
+		if (current.depth <= 0) {
+			throw new IllegalStateException("endBatch() without matching beginBatch()");
+		}
+		if (--current.depth == 0 && !current.pending.isEmpty()) {
+			List<Subject> changed = new ArrayList<>(current.pending);
+			current.pending.clear();
+			for (Subject subject: changed) {
+				subject.notifyObservers();
+			}
+		}
+	}
+
 }
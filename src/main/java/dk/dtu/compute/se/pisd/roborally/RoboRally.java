@@ -23,6 +23,7 @@ package dk.dtu.compute.se.pisd.roborally;
 
 import dk.dtu.compute.se.pisd.roborally.controller.AppController;
 import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
 import dk.dtu.compute.se.pisd.roborally.view.BoardView;
 import dk.dtu.compute.se.pisd.roborally.view.RoboRallyMenuBar;
 import javafx.application.Application;
@@ -41,6 +42,12 @@ public class RoboRally extends Application {
 
     private static final int MIN_APP_WIDTH = 600;
 
+    /**
+     * Boards with at least this many spaces are drawn on a board canvas
+     * (see {@link #useBoardCanvas(Board)}).
+     */
+    private static final int BOARD_CANVAS_SPACES = 400;
+
     private Stage stage;
     private BorderPane boardRoot;
     // private RoboRallyMenuBar menuBar;
@@ -85,7 +92,7 @@ public class RoboRally extends Application {
         BoardView boardView = null;
         if (gameController != null) {
             // create and add view for new board
-            boardView = new BoardView(gameController);
+            boardView = new BoardView(gameController, useBoardCanvas(gameController.board));
             boardRoot.setCenter(boardView);
         }
 
@@ -93,6 +100,25 @@ public class RoboRally extends Application {
         return boardView;
     }
 
+    /**
+     * Returns whether the board should be drawn on a board canvas. This
+     * can be chosen with the system property <code>roborally.renderer</code>
+     * (<code>canvas</code> or <code>spaces</code>); by default, large boards
+     * are drawn on a canvas, since one node per space makes them slow.
+     *
+     * @param board the board
+     * @return true if the board should be drawn on a board canvas
+     */
+    private static boolean useBoardCanvas(Board board) {
+        String renderer = System.getProperty("roborally.renderer");
+        if ("canvas".equals(renderer)) {
+            return true;
+        } else if ("spaces".equals(renderer)) {
+            return false;
+        }
+        return board.width * board.height >= BOARD_CANVAS_SPACES;
+    }
+
     @Override
     public void stop() throws Exception {
         super.stop();
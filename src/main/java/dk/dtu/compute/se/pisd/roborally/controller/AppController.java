@@ -24,6 +24,10 @@ package dk.dtu.compute.se.pisd.roborally.controller;
 import dk.dtu.compute.se.pisd.designpatterns.observer.Observer;
 import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
 import dk.dtu.compute.se.pisd.roborally.RoboRally;
+import dk.dtu.compute.se.pisd.roborally.dal.GameEventLog;
+import dk.dtu.compute.se.pisd.roborally.dal.GameInDB;
+import dk.dtu.compute.se.pisd.roborally.dal.IRepository;
+import dk.dtu.compute.se.pisd.roborally.dal.RepositoryAccess;
 import dk.dtu.compute.se.pisd.roborally.model.Board;
 import dk.dtu.compute.se.pisd.roborally.model.Player;
 import dk.dtu.compute.se.pisd.roborally.view.BoardView;
@@ -51,10 +55,16 @@ public class AppController implements Observer {
     final private List<Integer> PLAYER_NUMBER_OPTIONS = Arrays.asList(2, 3, 4, 5, 6);
     final private List<String> PLAYER_COLORS = Arrays.asList("red", "green", "blue", "orange", "grey", "magenta");
 
+    // how long stopping a game waits for the updates written behind
+    final private static long FLUSH_TIMEOUT_MILLIS = 5000;
+
     final private RoboRally roboRally;
 
     private GameController gameController;
 
+    // the event log of the current game, null if it cannot be saved
+    private GameEventLog eventLog;
+
     public AppController(@NotNull RoboRally roboRally) {
         this.roboRally = roboRally;
     }
@@ -98,24 +108,92 @@ public class AppController implements Observer {
 
             // START PROGRAMMING PHASE
             gameController.startProgrammingPhase();
+            openEventLog();
             BoardView boardView = roboRally.createBoardView(gameController);
             gameController.setBoardView(boardView);
 
         }
     }
 
+    /**
+     * Saves the current game: since the game is in the database already and
+     * its events are appended to its event log while it is played, only the
+     * events which are not handed over to the database yet need to be.
+     */
     public void saveGame() {
-        // Not part of assignment
+        if (eventLog != null) {
+            eventLog.flush();
+        }
     }
 
+    /**
+     * Loads a game from the database, i.e. its last snapshot with the events
+     * after it replayed, and continues its event log.
+     */
     public void loadGame() {
-        // Not part of assignment
-        // for now, we just create a new game
-        if (gameController == null) {
+        if (gameController != null) {
+            return;
+        }
+        IRepository repository;
+        List<GameInDB> games;
+        try {
+            repository = RepositoryAccess.getRepository();
+            games = repository.getGames();
+        } catch (RuntimeException e) {
+            showDatabaseError(e);
+            return;
+        }
+        if (games.isEmpty()) {
+            // there is nothing to load, so we create a new game
             newGame();
+            return;
+        }
+
+        ChoiceDialog<GameInDB> gameDialog = new ChoiceDialog<>(games.get(0), games);
+        gameDialog.setTitle("Load game");
+        gameDialog.setHeaderText("Select game");
+        Optional<GameInDB> result = gameDialog.showAndWait();
+        if (result.isPresent()) {
+            Board board = repository.loadGameFromDB(result.get().id);
+            if (board == null) {
+                showDatabaseError(null);
+                return;
+            }
+            gameController = new GameController(board);
+            openEventLog();
+            BoardView boardView = roboRally.createBoardView(gameController);
+            gameController.setBoardView(boardView);
         }
     }
 
+    /**
+     * Opens the event log of the current game, creating the game in the
+     * database first if it is not there yet, and attaches the log to the
+     * events of the game. Without a database, the game is played without
+     * being saved.
+     */
+    private void openEventLog() {
+        Board board = gameController.board;
+        eventLog = null;
+        try {
+            IRepository repository = RepositoryAccess.getRepository();
+            if (board.getGameId() != null || repository.createGameInDB(board)) {
+                eventLog = repository.openEventLog(board);
+                gameController.addEventListener(eventLog);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("The game cannot be saved, since the database is not available: " + e.getMessage());
+        }
+    }
+
+    private void showDatabaseError(Exception e) {
+        Alert alert = new Alert(AlertType.ERROR);
+        alert.setTitle("Load game");
+        alert.setContentText("The game could not be loaded from the database"
+                + (e != null ? ": " + e.getMessage() : "."));
+        alert.showAndWait();
+    }
+
     /**
      * Stop playing the current game, giving the user the option to save
      * the game or to cancel stopping the game. The method returns true
@@ -127,11 +205,21 @@ public class AppController implements Observer {
      */
     public boolean stopGame() {
         if (gameController != null) {
+            gameController.closeGameLoop();
 
             // here we save the game (without asking the user).
             saveGame();
+            // and make sure that all updates written behind are in the DB,
+            // but do not wait forever for a database which does not answer
+            if (!RepositoryAccess.flush(FLUSH_TIMEOUT_MILLIS)) {
+                Alert alert = new Alert(AlertType.WARNING);
+                alert.setTitle("Saving the game");
+                alert.setContentText("Not all changes of the game could be written to the database yet.");
+                alert.showAndWait();
+            }
 
             gameController = null;
+            eventLog = null;
             roboRally.createBoardView(null);
             return true;
         }
@@ -20,9 +20,10 @@ public class BoardFactory {
 
 
     /**
-     * The single instance of this class, which is lazily instantiated on demand.
+     * The single instance of this class; it is created eagerly, so that
+     * getting it from many threads does not need any locking.
      */
-    static private BoardFactory instance = null;
+    final static private BoardFactory instance = new BoardFactory();
 
     /**
      * Constructor for BoardFactory. It is private in order to make the factory a singleton.
@@ -31,15 +32,11 @@ public class BoardFactory {
     }
 
     /**
-     * Returns the single instance of this factory. The instance is lazily
-     * instantiated when requested for the first time.
+     * Returns the single instance of this factory.
      *
      * @return the single instance of the BoardFactory
      */
     public static BoardFactory getInstance() {
-        if (instance == null) {
-            instance = new BoardFactory();
-        }
         return instance;
     }
 
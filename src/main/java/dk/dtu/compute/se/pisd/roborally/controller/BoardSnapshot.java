@@ -0,0 +1,166 @@
+package dk.dtu.compute.se.pisd.roborally.controller;
+
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.CardDealer;
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.CommandCard;
+import dk.dtu.compute.se.pisd.roborally.model.CommandCardField;
+import dk.dtu.compute.se.pisd.roborally.model.Phase;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import dk.dtu.compute.se.pisd.roborally.planner.BoardGraph;
+import dk.dtu.compute.se.pisd.roborally.planner.GameState;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The complete state of a game at some point in time: the robots (as a
+ * {@link GameState}), the cards in the program and card fields of the
+ * players, the phase, step and current player, the card dealer and the
+ * winner. The layout of the board is not part of the snapshot.
+ *
+ * Snapshots are immutable; so a snapshot taken by the thread which plays a
+ * game can be handed to another thread, typically the JavaFX application
+ * thread, which applies it to a board with the same layout and players
+ * shown by the views (see {@link GameLoop}).
+ */
+public final class BoardSnapshot {
+
+    final private GameState robots;
+
+    final private int[] lastCheckpoints;
+
+    // the commands of the cards in the fields, null for empty fields
+    final private Command[][] program;
+    final private Command[][] cards;
+    final private boolean[][] programVisible;
+    final private boolean[][] cardsVisible;
+
+    final private Phase phase;
+    final private int step;
+    final private boolean stepMode;
+    final private int counter;
+    final private int currentPlayer;
+    final private int winner;
+
+    final private long dealerSeed;
+    final private boolean dealerDeck;
+    final private long dealt;
+
+    private BoardSnapshot(BoardGraph graph, Board board, Player winner) {
+        int players = board.getPlayersNumber();
+        robots = GameState.of(graph, board);
+        lastCheckpoints = new int[players];
+        program = new Command[players][Player.NO_REGISTERS];
+        cards = new Command[players][Player.NO_CARDS];
+        programVisible = new boolean[players][Player.NO_REGISTERS];
+        cardsVisible = new boolean[players][Player.NO_CARDS];
+        for (int i = 0; i < players; i++) {
+            Player player = board.getPlayer(i);
+            lastCheckpoints[i] = player.getLastCheckpoint();
+            for (int j = 0; j < Player.NO_REGISTERS; j++) {
+                program[i][j] = command(player.getProgramField(j));
+                programVisible[i][j] = player.getProgramField(j).isVisible();
+            }
+            for (int j = 0; j < Player.NO_CARDS; j++) {
+                cards[i][j] = command(player.getCardField(j));
+                cardsVisible[i][j] = player.getCardField(j).isVisible();
+            }
+        }
+        phase = board.getPhase();
+        step = board.getStep();
+        stepMode = board.isStepMode();
+        counter = board.getCounter();
+        Player current = board.getCurrentPlayer();
+        currentPlayer = current != null ? board.getPlayerNumber(current) : -1;
+        this.winner = winner != null ? board.getPlayerNumber(winner) : -1;
+        CardDealer dealer = board.getCardDealer();
+        dealerSeed = dealer.getSeed();
+        dealerDeck = dealer.isDeck();
+        dealt = dealer.getDealt();
+    }
+
+    /**
+     * Takes a snapshot of the game of the given game controller.
+     *
+     * @param graph the graph of the board
+     * @param gameController the game controller
+     * @return the snapshot of the game
+     */
+    public static BoardSnapshot of(@NotNull BoardGraph graph, @NotNull GameController gameController) {
+        return new BoardSnapshot(graph, gameController.board, gameController.getWinner());
+    }
+
+    private static Command command(CommandCardField field) {
+        CommandCard card = field.getCard();
+        return card != null ? card.command : null;
+    }
+
+    public GameState getRobots() {
+        return robots;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    public int getStep() {
+        return step;
+    }
+
+    /**
+     * Returns the number of the player who won the game, or -1 if nobody
+     * has won yet.
+     *
+     * @return the number of the winner or -1
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * Changes the game of the given game controller to the state of this
+     * snapshot. Only what differs is changed, so that the observers of the
+     * board are informed about actual changes only. The board must have the
+     * same layout and the same players as the board of the snapshot.
+     *
+     * @param gameController the game controller
+     */
+    public void applyTo(@NotNull GameController gameController) {
+        Board board = gameController.board;
+        robots.applyTo(board);
+        for (int i = 0; i < lastCheckpoints.length; i++) {
+            Player player = board.getPlayer(i);
+            player.setLastCheckpoint(lastCheckpoints[i]);
+            for (int j = 0; j < Player.NO_REGISTERS; j++) {
+                applyTo(player.getProgramField(j), program[i][j], programVisible[i][j]);
+            }
+            for (int j = 0; j < Player.NO_CARDS; j++) {
+                applyTo(player.getCardField(j), cards[i][j], cardsVisible[i][j]);
+            }
+        }
+        board.setPhase(phase);
+        board.setStep(step);
+        board.setStepMode(stepMode);
+        board.setCounter(counter);
+        if (currentPlayer >= 0) {
+            board.setCurrentPlayer(board.getPlayer(currentPlayer));
+        }
+        CardDealer dealer = board.getCardDealer();
+        if (dealer.getSeed() != dealerSeed || dealer.isDeck() != dealerDeck || dealer.getDealt() != dealt) {
+            board.setCardDealer(CardDealer.restore(dealerSeed, dealerDeck, dealt));
+        }
+        if (winner >= 0 && gameController.getWinner() == null) {
+            gameController.handleGameEnd(board.getPlayer(winner));
+        }
+    }
+
+    private static void applyTo(CommandCardField field, Command command, boolean visible) {
+        CommandCard card = field.getCard();
+        if (command == null) {
+            field.setCard(null);
+        } else if (card == null || card.command != command) {
+            field.setCard(new CommandCard(command));
+        }
+        field.setVisible(visible);
+    }
+
+}
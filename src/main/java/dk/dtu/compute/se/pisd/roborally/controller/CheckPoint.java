@@ -40,6 +40,7 @@ public class CheckPoint extends FieldAction {
             if (number == 1 || player.hasReachedCheckpoint(number - 1)) {
                 if (!player.hasReachedCheckpoint(number)) {
                     player.setCheckpointsReached(player.getCheckpointsReached() + 1);
+                    gameController.fireEvent(GameEvent.Type.CHECKPOINT, player, null);
                     // VICTORY DIALOG
                     if (isLast) {
                         gameController.handleGameEnd(player);
@@ -55,4 +56,8 @@ public class CheckPoint extends FieldAction {
     public int getNumber() {
         return number;
     }
+
+    public boolean isLast() {
+        return isLast;
+    }
 } 
\ No newline at end of file
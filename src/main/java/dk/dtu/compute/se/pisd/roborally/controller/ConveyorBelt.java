@@ -23,6 +23,7 @@ package dk.dtu.compute.se.pisd.roborally.controller;
 
 import dk.dtu.compute.se.pisd.roborally.exceptions.ImpossibleMoveException;
 import dk.dtu.compute.se.pisd.roborally.model.Heading;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
 import dk.dtu.compute.se.pisd.roborally.model.Space;
 import org.jetbrains.annotations.NotNull;
 
@@ -68,9 +69,11 @@ public class ConveyorBelt extends FieldAction {
         Heading direction = this.getHeading();
         Space nextSpace = gameController.board.getNeighbour(space, direction);
 
-        if (nextSpace != null) {
+        if (nextSpace != space) { // blocked moves end up on the same space
             try {
-                gameController.moveToSpace(space.getPlayer(), nextSpace, direction);
+                Player player = space.getPlayer();
+                gameController.moveToSpace(player, nextSpace, direction);
+                gameController.fireEvent(GameEvent.Type.CONVEYOR, player, null);
                 return true; // Action successful, player moved
             } catch (ImpossibleMoveException e) {
                 return false; // Movement blocked (wall, out of bounds, etc.)
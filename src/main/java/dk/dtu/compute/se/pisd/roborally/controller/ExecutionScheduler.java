@@ -0,0 +1,97 @@
+package dk.dtu.compute.se.pisd.roborally.controller;
+
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Phase;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Executes the programs of a game register by register, instead of running
+ * all registers at once (see {@link GameController#executePrograms()}),
+ * which makes the robots jump from the start of the round to its end. After
+ * each register, the state of the game is published and the scheduler waits
+ * for the configured time per register before the next register is
+ * executed; so the execution must not run in the JavaFX application thread.
+ *
+ * The {@link GameLoop} executes the programs of its copy of the board with a
+ * scheduler in the thread of the loop, and publishes a {@link BoardSnapshot}
+ * after each register, which is then shown on the board of the views.
+ */
+public class ExecutionScheduler {
+
+    final public static long DEFAULT_REGISTER_MILLIS = 300;
+
+    final private GameController gameController;
+
+    final private Runnable publish;
+
+    private volatile long registerMillis = Long.getLong("roborally.registerMillis", DEFAULT_REGISTER_MILLIS);
+
+    /**
+     * Creates a scheduler for the game of the given controller.
+     *
+     * @param gameController the game controller executing the programs
+     * @param publish called after each register which does not end the
+     *                activation phase, in the thread of the execution
+     */
+    public ExecutionScheduler(@NotNull GameController gameController, @NotNull Runnable publish) {
+        this.gameController = gameController;
+        this.publish = publish;
+    }
+
+    public long getRegisterMillis() {
+        return registerMillis;
+    }
+
+    /**
+     * Sets the time for which each register is shown, i.e. the speed of the
+     * execution of the programs; 0 executes all registers as fast as
+     * possible, and only the final state is shown.
+     *
+     * @param registerMillis the time per register in milliseconds
+     */
+    public void setRegisterMillis(long registerMillis) {
+        if (registerMillis < 0) {
+            throw new IllegalArgumentException("The time per register must not be negative");
+        }
+        this.registerMillis = registerMillis;
+    }
+
+    /**
+     * Executes the registers until the activation phase ends, i.e. at the end
+     * of the round, for an interactive card or at the end of the game. The
+     * state after the last register is not published; this is up to the
+     * caller.
+     *
+     * @throws InterruptedException if the thread was interrupted; the
+     *         remaining registers are not executed then
+     */
+    public void executePrograms() throws InterruptedException {
+        Board board = gameController.board;
+        board.setStepMode(false);
+        while (board.getPhase() == Phase.ACTIVATION) {
+            executeRegister();
+            if (board.getPhase() == Phase.ACTIVATION) {
+                publish.run();
+                long millis = registerMillis;
+                if (millis > 0) {
+                    Thread.sleep(millis);
+                } else if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        }
+    }
+
+    /**
+     * Executes the cards of all players for the current register, and the
+     * field actions at its end.
+     */
+    private void executeRegister() {
+        Board board = gameController.board;
+        int step = board.getStep();
+        do {
+            gameController.executeNextStep(null);
+        } while (board.getPhase() == Phase.ACTIVATION && board.getStep() == step);
+    }
+
+}
@@ -21,11 +21,15 @@
  */
 package dk.dtu.compute.se.pisd.roborally.controller;
 
+import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
 import dk.dtu.compute.se.pisd.roborally.exceptions.ImpossibleMoveException;
 import dk.dtu.compute.se.pisd.roborally.model.*;
 import dk.dtu.compute.se.pisd.roborally.view.BoardView;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 /**
  * ...
  *
@@ -36,6 +40,13 @@ public class GameController {
     private BoardView boardView;
     final public Board board;
 
+    private Player winner;
+
+    private GameLoop gameLoop;
+
+    // listeners may be added by the thread showing the game while a game loop plays it
+    private final List<GameEventListener> eventListeners = new CopyOnWriteArrayList<>();
+
     public GameController(@NotNull Board board) {
         this.board = board;
     }
@@ -44,6 +55,76 @@ public class GameController {
         this.boardView = boardView;
     }
 
+    /**
+     * Returns the loop which plays this game in a thread of its own and
+     * feeds the board of this controller with snapshots, as done by the
+     * views; it is created when it is needed first. Once the loop is
+     * created, the board of this controller is only shown and must not be
+     * changed otherwise.
+     *
+     * @return the game loop of this game
+     */
+    public GameLoop getGameLoop() {
+        if (gameLoop == null) {
+            gameLoop = new GameLoop(this);
+        }
+        return gameLoop;
+    }
+
+    /**
+     * Stops the game loop of this game, if there is one, and shows the
+     * latest state of the game on the board of this controller.
+     */
+    public void closeGameLoop() {
+        if (gameLoop != null) {
+            gameLoop.close();
+            gameLoop = null;
+        }
+    }
+
+    /**
+     * Adds a listener, which from now on is informed about the moves of the
+     * players and the completed registers of this game. If the game is
+     * played by a {@link GameLoop}, the listener is called on the thread of
+     * the loop with the events of the board of the loop.
+     *
+     * @param listener the listener to be added
+     */
+    public void addEventListener(@NotNull GameEventListener listener) {
+        eventListeners.add(listener);
+    }
+
+    public void removeEventListener(@NotNull GameEventListener listener) {
+        eventListeners.remove(listener);
+    }
+
+    /**
+     * Informs the event listeners about an event, which just happened.
+     * If there are no listeners, no event is created at all.
+     *
+     * @param type the type of the event
+     * @param player the player concerned, or {@code null} for a completed register
+     * @param command the executed command for {@link GameEvent.Type#COMMAND}
+     *                events, {@code null} otherwise
+     */
+    void fireEvent(@NotNull GameEvent.Type type, Player player, Command command) {
+        if (!eventListeners.isEmpty()) {
+            forwardEvent(new GameEvent(board, type, player, command));
+        }
+    }
+
+    /**
+     * Informs the event listeners about an event which happened on another
+     * board playing this game, i.e. the board of the {@link GameLoop}.
+     *
+     * @param event the event
+     */
+    void forwardEvent(@NotNull GameEvent event) {
+        for (GameEventListener listener : eventListeners) {
+            listener.onEvent(event);
+        }
+    }
+
     // ASSIGNMENT 4a
     /**
      * Moves the current player to the specified space if it is unoccupied.
@@ -57,6 +138,7 @@ public class GameController {
 
         if (space.getPlayer() == null) {
             currentPlayer.setSpace(space);
+            fireEvent(GameEvent.Type.MOVE, currentPlayer, null);
 
             int currentPlayerNumber = board.getPlayerNumber(currentPlayer);
             int nextPlayerNumber = (currentPlayerNumber + 1) % board.getPlayersNumber();
@@ -82,19 +164,13 @@ public class GameController {
                 }
                 for (int j = 0; j < Player.NO_CARDS; j++) {
                     CommandCardField field = player.getCardField(j);
-                    field.setCard(generateRandomCommandCard());
+                    field.setCard(board.getCardDealer().deal());
                     field.setVisible(true);
                 }
             }
         }
     }
 
-    private CommandCard generateRandomCommandCard() {
-        Command[] commands = Command.values();
-        int random = (int) (Math.random() * commands.length);
-        return new CommandCard(commands[random]);
-    }
-
     public void finishProgrammingPhase() {
         makeProgramFieldsInvisible();
         makeProgramFieldsVisible(0);
@@ -135,7 +211,17 @@ public class GameController {
 
     private void continuePrograms() {
         do {
-            executeNextStep();
+            // The changes of one register are batched, so that the views are
+            // updated only once per register and not for every single move
+            Subject.beginBatch();
+            try {
+                int step = board.getStep();
+                do {
+                    executeNextStep();
+                } while (board.getPhase() == Phase.ACTIVATION && !board.isStepMode() && board.getStep() == step);
+            } finally {
+                Subject.endBatch();
+            }
         } while (board.getPhase() == Phase.ACTIVATION && !board.isStepMode());
     }
 
@@ -248,6 +334,7 @@ public class GameController {
                 default:
                     // DO NOTHING (for now)
             }
+            fireEvent(GameEvent.Type.COMMAND, player, command);
         }
     }
 
@@ -279,10 +366,10 @@ public class GameController {
             throw new ImpossibleMoveException(pusher, space, heading);
         }
 
-        // HANDLE WALLS
+        // HANDLE WALLS: the neighbour table of the board resolves walls and
+        // the edges of the board, blocked moves end up on the same space
         Space currentSpace = pusher.getSpace();
-        Space neighbour = board.getNeighbour(currentSpace, heading);
-        if (neighbour == null || currentSpace.getWalls().contains(heading)) {
+        if (board.getNeighbour(currentSpace, heading) != space) {
             throw new ImpossibleMoveException(pusher, space, heading); // Blocked by a wall
         }
 
@@ -292,7 +379,7 @@ public class GameController {
             Space nextSpace = board.getNeighbour(space, heading);
 
             // Can't push, throw exception
-            if (nextSpace == null || space.getWalls().contains(heading)) {
+            if (nextSpace == space) {
                 throw new ImpossibleMoveException(pusher, space, heading);
             }
 
@@ -302,6 +389,7 @@ public class GameController {
             if (space.getPlayer() != null) {
                 throw new ImpossibleMoveException(pusher, space, heading);
             }
+            fireEvent(GameEvent.Type.PUSH, pushed, null);
         }
 
         pusher.setSpace(space); // Move only if everything succeeded
@@ -330,7 +418,7 @@ public class GameController {
             Heading heading = player.getHeading();
             Space target = board.getNeighbour(space, heading);
 
-            if (target != null) {
+            if (target != space) { // blocked moves end up on the same space
                 try {
                     moveToSpace(player, target, heading);
                     board.setCounter(board.getCounter() + 1); // Increment counter here
@@ -363,7 +451,7 @@ public class GameController {
             Heading heading = player.getHeading().opposite(); // Move in opposite direction
             Space target = board.getNeighbour(space, heading);
 
-            if (target != null) {
+            if (target != space) { // blocked moves end up on the same space
                 try {
                     moveToSpace(player, target, heading);
                     board.setCounter(board.getCounter() + 1); // Increment counter
@@ -474,6 +562,7 @@ public class GameController {
             } else {
                 startProgrammingPhase(); // Restart programming phase
             }
+            fireEvent(GameEvent.Type.REGISTER, null, null);
         }
     }
 
@@ -483,8 +572,21 @@ public class GameController {
      * @param winner the player who won the game
      */
     public void handleGameEnd(Player winner) {
+        if (this.winner == null) {
+            this.winner = winner;
+        }
         if (boardView != null) {
             boardView.showVictoryMessage(winner);
         }
     }
+
+    /**
+     * Returns the player who won the game, i.e. the first player who reached
+     * the last checkpoint; {@code null} if nobody has won yet.
+     *
+     * @return the winner of the game or {@code null}
+     */
+    public Player getWinner() {
+        return winner;
+    }
 }
@@ -0,0 +1,71 @@
+package dk.dtu.compute.se.pisd.roborally.controller;
+
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.Heading;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Something which happened in a game, reported by the {@link GameController}
+ * to its {@link GameEventListener}s right after it happened. Events of
+ * players carry the resulting position, heading and number of reached
+ * checkpoints of the player, so that a game can be reconstructed from a
+ * snapshot by applying the later events in order.
+ *
+ * The board of an event is the board on which it happened; while a game is
+ * played by a {@link GameLoop}, this is the board of the loop and not the
+ * board shown, and it may be read only during the call of the listener.
+ */
+public class GameEvent {
+
+    public enum Type {
+        /** a player executed a command card */
+        COMMAND,
+        /** a player was pushed by another player */
+        PUSH,
+        /** a player was moved by a conveyor belt */
+        CONVEYOR,
+        /** a player reached its next checkpoint */
+        CHECKPOINT,
+        /** a player was moved directly to some space */
+        MOVE,
+        /** a register was completed; there is no player for this event */
+        REGISTER
+    }
+
+    final public Board board;
+
+    final public Type type;
+
+    final public Player player;
+
+    final public Command command;
+
+    final public int x;
+    final public int y;
+    final public Heading heading;
+    final public int checkpoints;
+
+    GameEvent(@NotNull Board board, @NotNull Type type, Player player, Command command) {
+        this.board = board;
+        this.type = type;
+        this.player = player;
+        this.command = command;
+        if (player != null && player.getSpace() != null) {
+            x = player.getSpace().x;
+            y = player.getSpace().y;
+        } else {
+            x = -1;
+            y = -1;
+        }
+        heading = player != null ? player.getHeading() : null;
+        checkpoints = player != null ? player.getCheckpointsReached() : 0;
+    }
+
+    @Override
+    public String toString() {
+        return type + (player != null ? " " + player.getName() + " (" + x + "," + y + "," + heading + ")" : "");
+    }
+
+}
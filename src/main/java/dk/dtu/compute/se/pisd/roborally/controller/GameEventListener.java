@@ -0,0 +1,18 @@
+package dk.dtu.compute.se.pisd.roborally.controller;
+
+/**
+ * A listener for the {@link GameEvent}s of a game.
+ *
+ * @see GameController#addEventListener(GameEventListener)
+ */
+public interface GameEventListener {
+
+    /**
+     * Called by the game controller right after the event happened, on the
+     * thread which changes the game.
+     *
+     * @param event the event
+     */
+    void onEvent(GameEvent event);
+
+}
@@ -0,0 +1,439 @@
+package dk.dtu.compute.se.pisd.roborally.controller;
+
+import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.CommandCardField;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import dk.dtu.compute.se.pisd.roborally.model.Space;
+import dk.dtu.compute.se.pisd.roborally.planner.BoardGraph;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Alert.AlertType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Plays a game in a thread of its own, so that the JavaFX application
+ * thread only shows the game and never waits for the game logic.
+ *
+ * The loop owns a copy of the board shown and a game controller for it; only
+ * the thread of the loop ever changes them. The actions of the user (and of
+ * computer players) are submitted as commands to a queue and executed one
+ * after the other by this thread. After each command, and after each
+ * register while programs are executed by an {@link ExecutionScheduler},
+ * the thread publishes a {@link BoardSnapshot}. An {@link AnimationTimer} applies the latest
+ * snapshot to the board shown, at most with the configured number of frames
+ * per second; snapshots which were published in between are skipped.
+ *
+ * The methods of the loop take the objects of the board shown (fields and
+ * spaces) and look up the corresponding objects of the copy. The
+ * {@link GameEvent}s of the copy are forwarded to the listeners of the game
+ * controller of the board shown, in the thread of the loop.
+ *
+ * A command which fails is reported to the user and the game goes on; after
+ * an {@link Error}, the state of the game cannot be trusted anymore, so the
+ * loop is closed and does not accept commands anymore.
+ */
+public class GameLoop implements AutoCloseable {
+
+    final public static int DEFAULT_MAX_FPS = 60;
+
+    final private GameController gameController;
+
+    final private Board board;
+
+    final private GameController owner;
+
+    final private BoardGraph graph;
+
+    final private ExecutionScheduler scheduler;
+
+    final private BlockingQueue<Runnable> commands = new LinkedBlockingQueue<>();
+
+    // the commands which were submitted, but are not finished yet
+    final private AtomicInteger pending = new AtomicInteger();
+
+    // the latest snapshot, which was not shown yet
+    final private AtomicReference<BoardSnapshot> latest = new AtomicReference<>();
+
+    final private boolean animated;
+
+    private volatile int maxFramesPerSecond = DEFAULT_MAX_FPS;
+
+    private volatile boolean closed = false;
+
+    private volatile Throwable failure;
+
+    private Thread thread;
+
+    private AnimationTimer timer;
+
+    /**
+     * Creates a loop for the game of the given game controller, whose board
+     * is shown by the views. The loop is started when the first command is
+     * submitted.
+     *
+     * @param gameController the game controller of the board shown
+     */
+    public GameLoop(@NotNull GameController gameController) {
+        this(gameController, true);
+    }
+
+    /**
+     * Creates a loop; without animation, the snapshots need to be shown by
+     * calling {@link #showSnapshot()}, which is used directly where there is
+     * no JavaFX application thread, e.g. in tests.
+     */
+    GameLoop(@NotNull GameController gameController, boolean animated) {
+        this.gameController = gameController;
+        this.board = gameController.board;
+        this.animated = animated;
+        this.owner = new GameController(copyBoard(board));
+        this.graph = BoardGraph.of(owner.board);
+        BoardSnapshot.of(graph, gameController).applyTo(owner);
+        owner.addEventListener(gameController::forwardEvent);
+        this.scheduler = new ExecutionScheduler(owner, this::publish);
+    }
+
+    public long getRegisterMillis() {
+        return scheduler.getRegisterMillis();
+    }
+
+    /**
+     * Sets the time for which each register is shown, see
+     * {@link ExecutionScheduler#setRegisterMillis(long)}.
+     *
+     * @param registerMillis the time per register in milliseconds
+     */
+    public void setRegisterMillis(long registerMillis) {
+        scheduler.setRegisterMillis(registerMillis);
+    }
+
+    public int getMaxFramesPerSecond() {
+        return maxFramesPerSecond;
+    }
+
+    public void setMaxFramesPerSecond(int maxFramesPerSecond) {
+        if (maxFramesPerSecond < 1) {
+            throw new IllegalArgumentException("At least one frame per second is needed");
+        }
+        this.maxFramesPerSecond = maxFramesPerSecond;
+    }
+
+    /**
+     * Returns whether there are commands which are not finished yet; until
+     * then, the board shown might not show the latest state of the game.
+     *
+     * @return true if commands are being executed
+     */
+    public boolean isBusy() {
+        return pending.get() > 0;
+    }
+
+    /**
+     * Returns whether the loop is closed, i.e. by {@link #close()} or since
+     * a command ended with an {@link Error}.
+     *
+     * @return true if the loop does not accept commands anymore
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Returns the last failure of a command, if any.
+     *
+     * @return the exception or error of the last failed command, or {@code null}
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    public void finishProgrammingPhase() {
+        submit(GameController::finishProgrammingPhase);
+    }
+
+    /**
+     * Executes the programs like {@link GameController#executePrograms()};
+     * but the state after each register is published and shown for the
+     * configured time per register before the next register is executed
+     * (see {@link ExecutionScheduler}).
+     */
+    public void executePrograms() {
+        submit(owner -> {
+            try {
+                scheduler.executePrograms();
+            } catch (InterruptedException e) {
+                // the loop is closed; the remaining registers are not executed
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    public void executeStep() {
+        submit(GameController::executeStep);
+    }
+
+    public void handleInteractiveCommand(@NotNull Command command) {
+        submit(owner -> owner.handleInteractiveCommand(command));
+    }
+
+    /**
+     * Moves a card between two fields of the board shown, like
+     * {@link GameController#moveCards(CommandCardField, CommandCardField)}.
+     *
+     * @param source the field of the board shown from which the card is moved
+     * @param target the field of the board shown to which the card is moved
+     */
+    public void moveCards(@NotNull CommandCardField source, @NotNull CommandCardField target) {
+        CommandCardField from = getField(source);
+        CommandCardField to = getField(target);
+        if (from != null && to != null) {
+            submit(owner -> owner.moveCards(from, to));
+        }
+    }
+
+    /**
+     * Moves the current player to a space of the board shown, like
+     * {@link GameController#moveCurrentPlayerToSpace(Space)}.
+     *
+     * @param space the space of the board shown
+     */
+    public void moveCurrentPlayerToSpace(@NotNull Space space) {
+        Space target = owner.board.getSpace(space.x, space.y);
+        if (target != null) {
+            submit(owner -> owner.moveCurrentPlayerToSpace(target));
+        }
+    }
+
+    /**
+     * Submits a command, which is executed with the game controller owned by
+     * the loop in the thread of the loop, e.g. the moves of a computer
+     * player. The command must not keep references to the board of the loop
+     * beyond its execution. After the command, a snapshot of the game is
+     * published.
+     *
+     * <p>Listeners for the {@link GameEvent}s of the game are added to the
+     * game controller of the board shown, not by a command.</p>
+     *
+     * @param command the command
+     */
+    public void submit(@NotNull Consumer<GameController> command) {
+        if (closed) {
+            return;
+        }
+        start();
+        pending.incrementAndGet();
+        commands.add(() -> {
+            try {
+                command.accept(owner);
+            } finally {
+                publish();
+                pending.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Maps a field of the board shown to the field of the board of the loop.
+     */
+    private CommandCardField getField(CommandCardField field) {
+        Player player = field.player;
+        if (player == null || player.board != board) {
+            return null;
+        }
+        Player target = owner.board.getPlayer(board.getPlayerNumber(player));
+        for (int i = 0; i < Player.NO_REGISTERS; i++) {
+            if (player.getProgramField(i) == field) {
+                return target.getProgramField(i);
+            }
+        }
+        for (int i = 0; i < Player.NO_CARDS; i++) {
+            if (player.getCardField(i) == field) {
+                return target.getCardField(i);
+            }
+        }
+        return null;
+    }
+
+    private synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        thread = new Thread(this::run, "roborally-game");
+        thread.setDaemon(true);
+        thread.start();
+
+        if (animated) {
+            timer = new AnimationTimer() {
+                private long last = 0;
+
+                @Override
+                public void handle(long now) {
+                    if (now - last >= 1_000_000_000L / maxFramesPerSecond) {
+                        last = now;
+                        showSnapshot();
+                    }
+                }
+            };
+            timer.start();
+        }
+    }
+
+    /**
+     * Executes the submitted commands; runs in the thread of the loop.
+     */
+    private void run() {
+        try {
+            while (!closed) {
+                Runnable command = commands.take();
+                try {
+                    command.run();
+                } catch (RuntimeException e) {
+                    // the rest of the command is dropped, but the game goes on
+                    fail(e);
+                } catch (Throwable e) {
+                    // the state of the game cannot be trusted anymore
+                    closed = true;
+                    dropCommands();
+                    fail(e);
+                }
+            }
+        } catch (InterruptedException e) {
+            // the loop is closed
+        }
+    }
+
+    /**
+     * Drops the submitted commands which were not executed yet.
+     */
+    private void dropCommands() {
+        for (Runnable command = commands.poll(); command != null; command = commands.poll()) {
+            pending.decrementAndGet();
+        }
+    }
+
+    /**
+     * Records a failed command and reports it to the user.
+     */
+    private void fail(Throwable e) {
+        failure = e;
+        if (animated) {
+            boolean stopped = closed;
+            Platform.runLater(() -> {
+                Alert alert = new Alert(AlertType.ERROR);
+                alert.setTitle("RoboRally");
+                alert.setHeaderText(stopped ? "The game was stopped by an error" : "A move of the game failed");
+                alert.setContentText(String.valueOf(e));
+                alert.show();
+            });
+        } else {
+            System.err.println("A command of the game loop failed: " + e);
+        }
+    }
+
+    private void publish() {
+        latest.set(BoardSnapshot.of(graph, owner));
+    }
+
+    /**
+     * Applies the latest snapshot, if there is a new one, to the board shown.
+     * Must be called in the thread owning the board shown, normally the JavaFX
+     * application thread; the animation timer calls this method.
+     *
+     * @return true if a snapshot was applied
+     */
+    public boolean showSnapshot() {
+        BoardSnapshot snapshot = latest.getAndSet(null);
+        if (snapshot == null) {
+            return false;
+        }
+        // the changes of the snapshot are shown all at once
+        Subject.beginBatch();
+        try {
+            snapshot.applyTo(gameController);
+        } finally {
+            Subject.endBatch();
+        }
+        return true;
+    }
+
+    /**
+     * Waits until all submitted commands are finished; the resulting state
+     * still needs to be shown by {@link #showSnapshot()}.
+     *
+     * @param millis the maximal time to wait
+     * @return true if all commands are finished
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public boolean await(long millis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + millis;
+        while (isBusy()) {
+            if (System.currentTimeMillis() >= deadline) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    /**
+     * Stops the loop: the command being executed is interrupted, the other
+     * submitted commands are dropped, and the latest state of the game is
+     * shown on the board. Must be called in the thread owning the board shown.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Thread thread;
+        synchronized (this) {
+            thread = this.thread;
+            if (timer != null) {
+                timer.stop();
+            }
+        }
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        dropCommands();
+        showSnapshot();
+    }
+
+    /**
+     * Creates a board with the same layout and players as the given board,
+     * which does not share any mutable objects with it (the field actions do
+     * not change); the state of the game is not copied.
+     */
+    static Board copyBoard(@NotNull Board board) {
+        Board copy = new Board(board.width, board.height, board.boardName);
+        if (board.getGameId() != null) {
+            copy.setGameId(board.getGameId());
+        }
+        for (int x = 0; x < board.width; x++) {
+            for (int y = 0; y < board.height; y++) {
+                Space space = board.getSpace(x, y);
+                Space target = copy.getSpace(x, y);
+                target.getWalls().addAll(space.getWalls());
+                target.getActions().addAll(space.getActions());
+            }
+        }
+        for (int i = 0; i < board.getPlayersNumber(); i++) {
+            Player player = board.getPlayer(i);
+            copy.addPlayer(new Player(copy, player.getColor(), player.getName()));
+        }
+        return copy;
+    }
+
+}
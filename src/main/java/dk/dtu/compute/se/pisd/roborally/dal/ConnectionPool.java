@@ -0,0 +1,179 @@
+package dk.dtu.compute.se.pisd.roborally.dal;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded pool of database connections. Connections are opened on demand
+ * up to the size of the pool and handed out by {@link #borrow()}; they go back
+ * to the pool when the borrowed {@link PooledConnection} is closed. Each pooled
+ * connection has its own cache of prepared statements.
+ *
+ * Borrowing a connection does not check whether it is still alive, since this
+ * would cost a round trip to the database every time. Instead, the idle
+ * connections are validated periodically by a background thread, and broken
+ * connections are replaced by new ones when needed.
+ */
+class ConnectionPool {
+
+	private static final long BORROW_TIMEOUT = 10;
+
+	private static final int VALIDATION_TIMEOUT = 5;
+
+	private final Connector connector;
+
+	private final int maxSize;
+
+	private final BlockingQueue<PooledConnection> idle;
+
+	private int size = 0;
+
+	private boolean closed = false;
+
+	private final ScheduledExecutorService validator;
+
+	ConnectionPool(Connector connector) {
+		this.connector = connector;
+		this.maxSize = Math.max(1, connector.getPoolSize());
+		this.idle = new LinkedBlockingQueue<>(maxSize);
+
+		validator = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "roborally-db-validator");
+			thread.setDaemon(true);
+			return thread;
+		});
+		int interval = connector.getValidationInterval();
+		if (interval > 0) {
+			validator.scheduleWithFixedDelay(this::validateIdleConnections, interval, interval, TimeUnit.SECONDS);
+		}
+	}
+
+	/**
+	 * Borrows a connection from the pool. If no connection is idle and the pool
+	 * is not full yet, a new connection is opened; otherwise this method waits
+	 * for some other thread to give back its connection. The returned connection
+	 * must be closed after use, which gives it back to the pool.
+	 *
+	 * @return a connection from the pool
+	 * @throws SQLException if no connection could be obtained
+	 */
+	PooledConnection borrow() throws SQLException {
+		PooledConnection pooled = idle.poll();
+		if (pooled != null) {
+			return pooled;
+		}
+
+		if (reserve()) {
+			try {
+				return new PooledConnection(this, connector.createConnection());
+			} catch (SQLException e) {
+				unreserve();
+				throw e;
+			}
+		}
+
+		try {
+			pooled = idle.poll(BORROW_TIMEOUT, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a database connection", e);
+		}
+		if (pooled == null) {
+			throw new SQLException("No database connection available after " + BORROW_TIMEOUT + " seconds");
+		}
+		return pooled;
+	}
+
+	/**
+	 * Gives a connection back to the pool. This is called when a
+	 * {@link PooledConnection} is closed. Connections which are closed
+	 * already or broken are discarded.
+	 *
+	 * @param pooled the connection given back
+	 */
+	void release(PooledConnection pooled) {
+		boolean usable;
+		try {
+			Connection connection = pooled.connection;
+			usable = !connection.isClosed();
+			if (usable && !connection.getAutoCommit()) {
+				// someone forgot to finish the transaction
+				connection.rollback();
+				connection.setAutoCommit(true);
+			}
+		} catch (SQLException e) {
+			usable = false;
+		}
+
+		synchronized (this) {
+			if (usable && !closed && idle.offer(pooled)) {
+				return;
+			}
+		}
+		discard(pooled);
+	}
+
+	private void discard(PooledConnection pooled) {
+		pooled.closeConnection();
+		unreserve();
+	}
+
+	private synchronized boolean reserve() {
+		if (!closed && size < maxSize) {
+			size++;
+			return true;
+		}
+		return false;
+	}
+
+	private synchronized void unreserve() {
+		size--;
+	}
+
+	/**
+	 * Checks the idle connections one after the other and discards the ones
+	 * which are not valid anymore. Connections which are in use at that time
+	 * are not checked.
+	 */
+	private void validateIdleConnections() {
+		int count = idle.size();
+		for (int i = 0; i < count; i++) {
+			PooledConnection pooled = idle.poll();
+			if (pooled == null) {
+				break;
+			}
+			boolean valid;
+			try {
+				valid = pooled.connection.isValid(VALIDATION_TIMEOUT);
+			} catch (SQLException e) {
+				valid = false;
+			}
+			if (valid) {
+				release(pooled);
+			} else {
+				discard(pooled);
+			}
+		}
+	}
+
+	/**
+	 * Closes all idle connections and stops the validation. Connections which
+	 * are in use are closed when they are given back.
+	 */
+	void close() {
+		synchronized (this) {
+			closed = true;
+		}
+		validator.shutdownNow();
+		PooledConnection pooled;
+		while ((pooled = idle.poll()) != null) {
+			discard(pooled);
+		}
+	}
+
+}
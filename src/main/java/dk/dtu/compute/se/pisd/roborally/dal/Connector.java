@@ -46,6 +46,16 @@ class Connector {
 	private static final String  PROP_USERNAME = "USERNAME";
 	private static final String  PROP_PASSWORD = "PASSWORD";
 
+	// optional properties for the connection pool
+	private static final String  PROP_POOL_SIZE = "POOL_SIZE";
+	private static final String  PROP_VALIDATION_INTERVAL = "VALIDATION_INTERVAL";
+
+	// optional property for switching off the write-behind of game updates
+	private static final String  PROP_WRITE_BEHIND = "WRITE_BEHIND";
+
+	private static final int DEFAULT_POOL_SIZE = 4;
+	private static final int DEFAULT_VALIDATION_INTERVAL = 30;
+
 	private static final String PATH_TO_PROPFILE = "properties/db.properties";
 
 	private final String HOST;
@@ -54,10 +64,14 @@ class Connector {
 	private final String USERNAME;
 	private final String PASSWORD;
 
+	private final int POOL_SIZE;
+	private final int VALIDATION_INTERVAL;
+	private final boolean WRITE_BEHIND;
+
     private static final String DELIMITER = ";;";
-    
-    private Connection connection;
-        
+
+    private final String url;
+
     Connector() {
 		try {
 			ClassLoader classLoader = Connector.class.getClassLoader();
@@ -80,16 +94,22 @@ class Connector {
 				throw new RuntimeException(
 						"Database access information are missing, incomplete or wrong in " +
 						"'db.properties' file.");
+
+			POOL_SIZE = Integer.parseInt(properties.getProperty(
+					PROP_POOL_SIZE, String.valueOf(DEFAULT_POOL_SIZE)));
+			VALIDATION_INTERVAL = Integer.parseInt(properties.getProperty(
+					PROP_VALIDATION_INTERVAL, String.valueOf(DEFAULT_VALIDATION_INTERVAL)));
+			WRITE_BEHIND = Boolean.parseBoolean(properties.getProperty(
+					PROP_WRITE_BEHIND, "true"));
 		} catch (IOException | NumberFormatException e ) {
             throw new RuntimeException(e);
         }
 
-        try {
-			// String url = "jdbc:mysql://" + HOST + ":" + PORT + "/" + DATABASE;
-			String url = "jdbc:mysql://" + HOST + ":" + PORT + "/" + DATABASE + "?serverTimezone=UTC";
-			connection = DriverManager.getConnection(url, USERNAME, PASSWORD);
+		// String url = "jdbc:mysql://" + HOST + ":" + PORT + "/" + DATABASE;
+		url = "jdbc:mysql://" + HOST + ":" + PORT + "/" + DATABASE + "?serverTimezone=UTC";
 
-			createDatabaseSchema();
+		try (Connection connection = createConnection()) {
+			createDatabaseSchema(connection);
 		} catch (SQLException e) {
 			// TODO we should try to diagnose and fix some problems here and
 			//      exit in a more graceful way
@@ -97,7 +117,7 @@ class Connector {
 		}
     }
     
-    private void createDatabaseSchema() {
+    private void createDatabaseSchema(Connection connection) {
 
     	String createTablesStatement =
 				IOUtil.readResource("schemas/createschema.sql");
@@ -127,9 +147,29 @@ class Connector {
 			} catch (SQLException e) {}
 		}
     }
-    
-    Connection getConnection() {
-    	return connection; 
-    }
-    
+
+	/**
+	 * Opens a new connection to the database. This is used by the
+	 * {@link ConnectionPool}, which should be used for obtaining
+	 * connections instead of calling this method directly.
+	 *
+	 * @return a new connection to the database
+	 * @throws SQLException if the connection could not be established
+	 */
+	Connection createConnection() throws SQLException {
+		return DriverManager.getConnection(url, USERNAME, PASSWORD);
+	}
+
+	int getPoolSize() {
+		return POOL_SIZE;
+	}
+
+	int getValidationInterval() {
+		return VALIDATION_INTERVAL;
+	}
+
+	boolean isWriteBehind() {
+		return WRITE_BEHIND;
+	}
+
 }
@@ -0,0 +1,24 @@
+package dk.dtu.compute.se.pisd.roborally.dal;
+
+import java.util.List;
+
+/**
+ * Events of one game which are appended to the database together,
+ * possibly followed by a snapshot of the game after the last of them.
+ */
+class EventBatch {
+
+	final public int gameId;
+
+	final public List<EventRecord> events;
+
+	// null if no snapshot is to be taken with this batch
+	final public GameSnapshot snapshot;
+
+	EventBatch(int gameId, List<EventRecord> events, GameSnapshot snapshot) {
+		this.gameId = gameId;
+		this.events = List.copyOf(events);
+		this.snapshot = snapshot;
+	}
+
+}
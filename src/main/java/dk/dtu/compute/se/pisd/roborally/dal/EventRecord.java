@@ -0,0 +1,49 @@
+package dk.dtu.compute.se.pisd.roborally.dal;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameEvent;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+
+/**
+ * One row of the append-only event log of a game: a {@link GameEvent}
+ * together with its sequence number and the phase, step and current
+ * player of the game right after the event, taken from the board on which
+ * the event happened. Values which do not apply to the event (e.g. the
+ * player of a completed register) are -1. The number of cards dealt so far
+ * is recorded too, so that a replayed game continues with the same cards.
+ */
+class EventRecord {
+
+	final public long seq;
+	final public int type;
+
+	final public int playerId;
+	final public int command;
+	final public int positionX;
+	final public int positionY;
+	final public int heading;
+	final public int checkpoints;
+
+	final public int phase;
+	final public int step;
+	final public int currentPlayer;
+	final public long dealerDealt;
+
+	EventRecord(long seq, GameEvent event) {
+		Board game = event.board;
+		this.seq = seq;
+		type = event.type.ordinal();
+
+		playerId = event.player != null ? game.getPlayerNumber(event.player) : -1;
+		command = event.command != null ? event.command.ordinal() : -1;
+		positionX = event.x;
+		positionY = event.y;
+		heading = event.heading != null ? event.heading.ordinal() : -1;
+		checkpoints = event.checkpoints;
+
+		phase = game.getPhase().ordinal();
+		step = game.getStep();
+		currentPlayer = game.getCurrentPlayer() != null ? game.getPlayerNumber(game.getCurrentPlayer()) : -1;
+		dealerDealt = game.getCardDealer().getDealt();
+	}
+
+}
@@ -0,0 +1,114 @@
+package dk.dtu.compute.se.pisd.roborally.dal;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameEvent;
+import dk.dtu.compute.se.pisd.roborally.controller.GameEventListener;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * The append-only event log of a game in the database. Instead of rewriting
+ * the game and all its players on every save, the log is registered as a
+ * {@link GameEventListener} with the game controller and appends each event
+ * as a small row to the database. The events are handed to the repository in
+ * batches; every {@link #SNAPSHOT_INTERVAL} events, a complete snapshot of
+ * the game is written along with them, so that loading a game only needs to
+ * replay the events since the last snapshot.
+ *
+ * If events of the game were lost on the way to the database, the
+ * repository asks for a snapshot (see the constructor); it is then taken
+ * with the next batch, so that the game can be loaded again without the
+ * lost events.
+ *
+ * An event log is obtained from {@link IRepository#openEventLog(Board)} for a
+ * game which is in the database already:
+ * <pre>
+ *     gameController.addEventListener(repository.openEventLog(board));
+ * </pre>
+ * Events which are not handed over yet are handed over by {@link #flush()};
+ * this should be called when the game is saved or stopped. Since this may
+ * happen in another thread than the one playing the game, the log is
+ * synchronized.
+ */
+public class GameEventLog implements GameEventListener {
+
+	static final int BATCH_SIZE = 32;
+
+	static final int SNAPSHOT_INTERVAL = 256;
+
+	private final Board game;
+
+	private final Consumer<EventBatch> appender;
+
+	private final BooleanSupplier snapshotNeeded;
+
+	private long seq;
+
+	private long lastSnapshot;
+
+	private final List<EventRecord> pending = new ArrayList<>();
+
+	/**
+	 * Creates the event log of a game.
+	 *
+	 * @param game the game
+	 * @param lastSeq the sequence number of the last event of the game in the
+	 *                database
+	 * @param appender hands the batches of events over to the repository
+	 * @param snapshotNeeded tells whether a snapshot must be taken with the
+	 *                       next batch, since events of the game were lost;
+	 *                       asked only once per batch
+	 */
+	GameEventLog(@NotNull Board game, long lastSeq, @NotNull Consumer<EventBatch> appender,
+			@NotNull BooleanSupplier snapshotNeeded) {
+		assert game.getGameId() != null;
+		this.game = game;
+		this.seq = lastSeq;
+		this.lastSnapshot = lastSeq;
+		this.appender = appender;
+		this.snapshotNeeded = snapshotNeeded;
+	}
+
+	@Override
+	public synchronized void onEvent(GameEvent event) {
+		// the state after the event is on the board of the event, which is
+		// not the board of the log while the game is played by a game loop
+		pending.add(new EventRecord(++seq, event));
+		boolean full = pending.size() >= BATCH_SIZE;
+		if (seq - lastSnapshot >= SNAPSHOT_INTERVAL || (full && snapshotNeeded.getAsBoolean())) {
+			lastSnapshot = seq;
+			append(new GameSnapshot(event.board, seq));
+		} else if (full) {
+			append(null);
+		}
+	}
+
+	/**
+	 * Hands all pending events over to the repository.
+	 */
+	public synchronized void flush() {
+		if (!pending.isEmpty()) {
+			append(null);
+		}
+	}
+
+	/**
+	 * Returns the sequence number of the last event of this log.
+	 *
+	 * @return the sequence number of the last event
+	 */
+	public synchronized long getSeq() {
+		return seq;
+	}
+
+	private void append(GameSnapshot snapshot) {
+		EventBatch batch = new EventBatch(game.getGameId(), pending, snapshot);
+		pending.clear();
+		appender.accept(batch);
+	}
+
+}
@@ -0,0 +1,81 @@
+package dk.dtu.compute.se.pisd.roborally.dal;
+
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import dk.dtu.compute.se.pisd.roborally.model.Space;
+
+/**
+ * An immutable copy of the part of a game's state which is written by
+ * {@link IRepository#updateGameInDB(Board)}. The copy is taken on the thread
+ * which changes the game, so that it can be written to the database later on
+ * some other thread without looking at the board again.
+ *
+ * A snapshot taken by a {@link GameEventLog} also records the sequence number
+ * of the last event it includes; when the game is loaded, only the events
+ * after that one are replayed.
+ */
+class GameSnapshot {
+
+	final public int gameId;
+	final public int currentPlayer;
+	final public int phase;
+	final public int step;
+	final public long dealerDealt;
+
+	// the sequence number of the last event included, -1 if not known
+	final public long eventSeq;
+
+	final private int[] positionX;
+	final private int[] positionY;
+	final private int[] heading;
+	final private int[] checkpoints;
+
+	GameSnapshot(Board game) {
+		this(game, -1);
+	}
+
+	GameSnapshot(Board game, long eventSeq) {
+		this.eventSeq = eventSeq;
+		gameId = game.getGameId();
+		currentPlayer = game.getPlayerNumber(game.getCurrentPlayer());
+		phase = game.getPhase().ordinal();
+		step = game.getStep();
+		dealerDealt = game.getCardDealer().getDealt();
+
+		int players = game.getPlayersNumber();
+		positionX = new int[players];
+		positionY = new int[players];
+		heading = new int[players];
+		checkpoints = new int[players];
+		for (int i = 0; i < players; i++) {
+			Player player = game.getPlayer(i);
+			Space space = player.getSpace();
+			// players without a space are written at (0,0) as before
+			positionX[i] = space != null ? space.x : 0;
+			positionY[i] = space != null ? space.y : 0;
+			heading[i] = player.getHeading().ordinal();
+			checkpoints[i] = player.getCheckpointsReached();
+		}
+	}
+
+	int getPlayersNumber() {
+		return heading.length;
+	}
+
+	int getPositionX(int player) {
+		return positionX[player];
+	}
+
+	int getPositionY(int player) {
+		return positionY[player];
+	}
+
+	int getHeading(int player) {
+		return heading[player];
+	}
+
+	int getCheckpoints(int player) {
+		return checkpoints[player];
+	}
+
+}
@@ -0,0 +1,39 @@
+package dk.dtu.compute.se.pisd.roborally.dal;
+
+import java.util.Collection;
+
+/**
+ * Writes snapshots and events of games to the database. This is what the
+ * {@link WriteBehindRepository} hands its pending updates to.
+ */
+interface GameWriter {
+
+	/**
+	 * Writes the given snapshots, all in one transaction. There is at most
+	 * one snapshot for each game.
+	 *
+	 * @param snapshots the snapshots to be written
+	 * @return true if all snapshots were written, false if the transaction
+	 *         failed and was rolled back
+	 */
+	boolean updateGamesInDB(Collection<GameSnapshot> snapshots);
+
+	/**
+	 * Appends the events of the given batches to the event log of their
+	 * games and writes the snapshots of the batches, all in one transaction.
+	 *
+	 * @param batches the batches to be written, in the order of their events
+	 * @return true if all batches were written, false if the transaction
+	 *         failed and was rolled back
+	 */
+	boolean appendEventsInDB(Collection<EventBatch> batches);
+
+	/**
+	 * Returns the sequence number of the last event stored for the game.
+	 *
+	 * @param gameId the id of the game
+	 * @return the sequence number of the last event, 0 if there are none
+	 */
+	long getLastEventSeqInDB(int gameId);
+
+}
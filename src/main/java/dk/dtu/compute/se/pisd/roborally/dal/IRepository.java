@@ -41,4 +41,34 @@ public interface IRepository {
 	
 	List<GameInDB> getGames();
 
+	/**
+	 * Opens the event log of a game, which is in the database already.
+	 * The events of the log are appended to the ones stored for the game
+	 * so far.
+	 *
+	 * @param game the game
+	 * @return the event log of the game
+	 */
+	GameEventLog openEventLog(Board game);
+
+	/**
+	 * Waits until all updates of games, which might still be pending,
+	 * are written to the database.
+	 */
+	void flush();
+
+	/**
+	 * Waits until all updates of games, which might still be pending, are
+	 * written to the database, but at most for the given time.
+	 *
+	 * @param timeout the maximum time to wait in milliseconds; 0 means
+	 *                waiting without a time limit
+	 * @return true if all updates were written (or given up), false if the
+	 *         time ran out
+	 */
+	default boolean flush(long timeout) {
+		flush();
+		return true;
+	}
+
 }
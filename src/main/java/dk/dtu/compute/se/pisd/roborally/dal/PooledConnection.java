@@ -0,0 +1,111 @@
+package dk.dtu.compute.se.pisd.roborally.dal;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A connection borrowed from the {@link ConnectionPool} together with the
+ * prepared statements created for it. Since a prepared statement belongs to
+ * the connection it was created for, the statements are cached per connection;
+ * the cache lives as long as the connection. Closing a pooled connection gives
+ * it back to the pool (it does not close the underlying connection).
+ *
+ * A pooled connection must be used by one thread at a time only.
+ */
+class PooledConnection implements AutoCloseable {
+
+	final Connection connection;
+
+	private final ConnectionPool pool;
+
+	private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+	PooledConnection(ConnectionPool pool, Connection connection) {
+		this.pool = pool;
+		this.connection = connection;
+	}
+
+	/**
+	 * Returns a prepared statement for the given SQL statement, which
+	 * is created on first use and then reused.
+	 *
+	 * @param sql the SQL statement
+	 * @return the prepared statement
+	 * @throws SQLException if the statement could not be prepared
+	 */
+	PreparedStatement prepareStatement(String sql) throws SQLException {
+		PreparedStatement ps = statements.get(sql);
+		if (ps == null) {
+			ps = connection.prepareStatement(sql);
+			statements.put(sql, ps);
+		}
+		return ps;
+	}
+
+	/**
+	 * Returns a prepared statement for the given SQL statement, which
+	 * returns generated keys as specified.
+	 *
+	 * @param sql the SQL statement
+	 * @param autoGeneratedKeys whether generated keys are returned
+	 * @return the prepared statement
+	 * @throws SQLException if the statement could not be prepared
+	 */
+	PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+		String key = sql + "#keys=" + autoGeneratedKeys;
+		PreparedStatement ps = statements.get(key);
+		if (ps == null) {
+			ps = connection.prepareStatement(sql, autoGeneratedKeys);
+			statements.put(key, ps);
+		}
+		return ps;
+	}
+
+	/**
+	 * Returns a prepared statement for the given SQL statement, whose
+	 * result sets have the given type and concurrency.
+	 *
+	 * @param sql the SQL statement
+	 * @param resultSetType the type of the result sets
+	 * @param resultSetConcurrency the concurrency of the result sets
+	 * @return the prepared statement
+	 * @throws SQLException if the statement could not be prepared
+	 */
+	PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+		String key = sql + "#type=" + resultSetType + "#concurrency=" + resultSetConcurrency;
+		PreparedStatement ps = statements.get(key);
+		if (ps == null) {
+			ps = connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
+			statements.put(key, ps);
+		}
+		return ps;
+	}
+
+	/**
+	 * Gives this connection back to the pool.
+	 */
+	@Override
+	public void close() {
+		pool.release(this);
+	}
+
+	/**
+	 * Closes the cached statements and the underlying connection. This is
+	 * called by the pool when the connection is discarded.
+	 */
+	void closeConnection() {
+		for (PreparedStatement ps : statements.values()) {
+			try {
+				ps.close();
+			} catch (SQLException e) {}
+		}
+		statements.clear();
+		try {
+			connection.close();
+		} catch (SQLException e) {}
+	}
+
+}
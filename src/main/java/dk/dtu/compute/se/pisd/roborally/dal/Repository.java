@@ -23,15 +23,18 @@ package dk.dtu.compute.se.pisd.roborally.dal;
 
 import dk.dtu.compute.se.pisd.roborally.controller.BoardFactory;
 import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.CardDealer;
 import dk.dtu.compute.se.pisd.roborally.model.Heading;
 import dk.dtu.compute.se.pisd.roborally.model.Phase;
 import dk.dtu.compute.se.pisd.roborally.model.Player;
+import dk.dtu.compute.se.pisd.roborally.model.Space;
 
 import java.sql.*;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * ...
@@ -39,7 +42,7 @@ import java.util.List;
  * @author Ekkart Kindler, ekki@dtu.dk
  *
  */
-class Repository implements IRepository {
+class Repository implements IRepository, GameWriter {
 	
 	private static final String GAME_GAMEID = "gameID";
 
@@ -50,6 +53,14 @@ class Repository implements IRepository {
 	private static final String GAME_PHASE = "phase";
 
 	private static final String GAME_STEP = "step";
+
+	private static final String GAME_EVENTSEQ = "eventSeq";
+
+	private static final String GAME_DEALERSEED = "dealerSeed";
+
+	private static final String GAME_DEALERDECK = "dealerDeck";
+
+	private static final String GAME_DEALERDEALT = "dealerDealt";
 	
 	private static final String PLAYER_PLAYERID = "playerID";
 	
@@ -65,53 +76,44 @@ class Repository implements IRepository {
 
 	private static final String PLAYER_HEADING = "heading";
 
-	private Connector connector;
-	
-	Repository(Connector connector){
-		this.connector = connector;
-	}
+	private static final String PLAYER_CHECKPOINTS = "checkpoints";
 
-	boolean isAlive() {
-		boolean result;
-        try {
-            result = connector.getConnection().isValid(5);
-        } catch (Exception e) {
-			result = false;
-        }
-		if (!result) {
-			List<PreparedStatement> psList = Arrays.asList(
-					select_games_stmt,
-					insert_game_stmt,
-					select_game_stmt,
-					select_players_stmt,
-					select_players_asc_stmt);
-			for (PreparedStatement ps : psList) {
-				if (ps != null) {
-					try {
-						ps.close();
-					} catch (SQLException ex) {}
-				}
-			}
+	private static final String EVENT_SEQ = "seq";
 
-			Connection connection = connector.getConnection();
-			if (connection != null) {
-				try {
-					connection.close();
-				} catch (SQLException ex) {}
-			}
-		}
+	private static final String EVENT_PLAYERID = "playerID";
+
+	private static final String EVENT_POSITION_X = "positionX";
 
-		return result;
-    }
+	private static final String EVENT_POSITION_Y = "positionY";
+
+	private static final String EVENT_HEADING = "heading";
+
+	private static final String EVENT_CHECKPOINTS = "checkpoints";
+
+	private static final String EVENT_PHASE = "phase";
+
+	private static final String EVENT_STEP = "step";
+
+	private static final String EVENT_CURRENTPLAYER = "currentPlayer";
+
+	private static final String EVENT_DEALERDEALT = "dealerDealt";
+
+	private final ConnectionPool pool;
+	
+	Repository(ConnectionPool pool){
+		this.pool = pool;
+	}
 
 	@Override
 	public boolean createGameInDB(Board game) {
 		if (game.getGameId() == null) {
-			Connection connection = connector.getConnection();
+			PooledConnection pooled = null;
 			try {
+				pooled = pool.borrow();
+				Connection connection = pooled.connection;
 				connection.setAutoCommit(false);
 
-				PreparedStatement ps = getInsertGameStatementRGK();
+				PreparedStatement ps = getInsertGameStatementRGK(pooled);
 				// TODO: the name should eventually be set by the user
 				//       for the game and should be then obtained by
 				//       game.getName();
@@ -119,6 +121,10 @@ class Repository implements IRepository {
 				ps.setNull(2, Types.TINYINT); // game.getPlayerNumber(game.getCurrentPlayer())); is inserted after players!
 				ps.setInt(3, game.getPhase().ordinal());
 				ps.setInt(4, game.getStep());
+				CardDealer dealer = game.getCardDealer();
+				ps.setLong(5, dealer.getSeed());
+				ps.setBoolean(6, dealer.isDeck());
+				ps.setLong(7, dealer.getDealt());
 
 				// If you have a foreign key constraint for current players,
 				// the check would need to be temporarily disabled, since
@@ -138,7 +144,7 @@ class Repository implements IRepository {
 				// statement.execute("SET foreign_key_checks = 1");
 				// statement.close();
 
-				createPlayersInDB(game);
+				createPlayersInDB(pooled, game);
 				/* TODO V4a: this method needs to be implemented first
 				createCardFieldsInDB(game);
 				 */
@@ -147,7 +153,7 @@ class Repository implements IRepository {
 				// inserted after the players are created, since MySQL does
 				// not have a per transaction validation, but validates on
 				// a per row basis.
-				ps = getSelectGameStatementU();
+				ps = getSelectGameStatementU(pooled);
 				ps.setInt(1, game.getGameId());
 
 				ResultSet rs = ps.executeQuery();
@@ -166,13 +172,11 @@ class Repository implements IRepository {
 				// TODO error handling
 				e.printStackTrace();
 				System.err.println("Some DB error");
-				
-				try {
-					connection.rollback();
-					connection.setAutoCommit(true);
-				} catch (SQLException e1) {
-					// TODO error handling
-					e1.printStackTrace();
+
+				rollback(pooled);
+			} finally {
+				if (pooled != null) {
+					pooled.close();
 				}
 			}
 		} else {
@@ -184,62 +188,190 @@ class Repository implements IRepository {
 	@Override
 	public boolean updateGameInDB(Board game) {
 		assert game.getGameId() != null;
-		
-		Connection connection = connector.getConnection();
+		return updateGamesInDB(List.of(new GameSnapshot(game)));
+	}
+
+	@Override
+	public boolean updateGamesInDB(Collection<GameSnapshot> snapshots) {
+		PooledConnection pooled = null;
 		try {
+			pooled = pool.borrow();
+			Connection connection = pooled.connection;
 			connection.setAutoCommit(false);
 
-			PreparedStatement ps = getSelectGameStatementU();
-			ps.setInt(1, game.getGameId());
-			
-			ResultSet rs = ps.executeQuery();
-			if (rs.next()) {
-				rs.updateInt(GAME_CURRENTPLAYER, game.getPlayerNumber(game.getCurrentPlayer()));
-				rs.updateInt(GAME_PHASE, game.getPhase().ordinal());
-				rs.updateInt(GAME_STEP, game.getStep());
-				rs.updateRow();
-			} else {
-				// TODO error handling
+			// plain updates by key, sent as batches, instead of reading the
+			// rows with updatable result sets first
+			PreparedStatement gamePS = getUpdateGameStatement(pooled);
+			PreparedStatement playerPS = getUpdatePlayerStatement(pooled);
+			for (GameSnapshot snapshot: snapshots) {
+				addSnapshotToBatch(gamePS, playerPS, snapshot);
 			}
-			rs.close();
-
-			updatePlayersInDB(game);
+			gamePS.executeBatch();
+			playerPS.executeBatch();
+			// TODO error handling/consistency check: check whether all games
+			//      and players were updated
 			/* TODO V4a: this method needs to be implemented first
 			updateCardFieldsInDB(game);
 			*/
 
-            connection.commit();
-            connection.setAutoCommit(true);
+			connection.commit();
+			connection.setAutoCommit(true);
 			return true;
 		} catch (SQLException e) {
 			// TODO error handling
 			e.printStackTrace();
 			System.err.println("Some DB error");
-			
-			try {
-				connection.rollback();
-				connection.setAutoCommit(true);
-			} catch (SQLException e1) {
-				// TODO error handling
-				e1.printStackTrace();
+
+			rollback(pooled);
+		} finally {
+			if (pooled != null) {
+				pooled.close();
 			}
 		}
 
 		return false;
 	}
+
+	private void addSnapshotToBatch(PreparedStatement gamePS, PreparedStatement playerPS, GameSnapshot snapshot)
+			throws SQLException {
+		gamePS.setInt(1, snapshot.currentPlayer);
+		gamePS.setInt(2, snapshot.phase);
+		gamePS.setInt(3, snapshot.step);
+		gamePS.setLong(4, snapshot.dealerDealt);
+		gamePS.setLong(5, snapshot.eventSeq);
+		gamePS.setInt(6, snapshot.gameId);
+		gamePS.addBatch();
+
+		for (int i = 0; i < snapshot.getPlayersNumber(); i++) {
+			playerPS.setInt(1, snapshot.getPositionX(i));
+			playerPS.setInt(2, snapshot.getPositionY(i));
+			playerPS.setInt(3, snapshot.getHeading(i));
+			playerPS.setInt(4, snapshot.getCheckpoints(i));
+			playerPS.setInt(5, snapshot.gameId);
+			playerPS.setInt(6, i);
+			playerPS.addBatch();
+		}
+	}
+
+	@Override
+	public boolean appendEventsInDB(Collection<EventBatch> batches) {
+		PooledConnection pooled = null;
+		try {
+			pooled = pool.borrow();
+			Connection connection = pooled.connection;
+			connection.setAutoCommit(false);
+
+			PreparedStatement eventPS = getInsertEventStatement(pooled);
+			PreparedStatement gamePS = getUpdateGameStatement(pooled);
+			PreparedStatement playerPS = getUpdatePlayerStatement(pooled);
+			boolean snapshots = false;
+			for (EventBatch batch: batches) {
+				for (EventRecord event: batch.events) {
+					eventPS.setInt(1, batch.gameId);
+					eventPS.setLong(2, event.seq);
+					eventPS.setInt(3, event.type);
+					setIntOrNull(eventPS, 4, event.playerId);
+					setIntOrNull(eventPS, 5, event.command);
+					setIntOrNull(eventPS, 6, event.positionX);
+					setIntOrNull(eventPS, 7, event.positionY);
+					setIntOrNull(eventPS, 8, event.heading);
+					eventPS.setInt(9, event.checkpoints);
+					eventPS.setInt(10, event.phase);
+					eventPS.setInt(11, event.step);
+					setIntOrNull(eventPS, 12, event.currentPlayer);
+					eventPS.setLong(13, event.dealerDealt);
+					eventPS.addBatch();
+				}
+				if (batch.snapshot != null) {
+					addSnapshotToBatch(gamePS, playerPS, batch.snapshot);
+					snapshots = true;
+				}
+			}
+			eventPS.executeBatch();
+			if (snapshots) {
+				gamePS.executeBatch();
+				playerPS.executeBatch();
+			}
+
+			connection.commit();
+			connection.setAutoCommit(true);
+			return true;
+		} catch (SQLException e) {
+			// TODO error handling
+			e.printStackTrace();
+			System.err.println("Some DB error");
+
+			rollback(pooled);
+		} finally {
+			if (pooled != null) {
+				pooled.close();
+			}
+		}
+
+		return false;
+	}
+
+	private void setIntOrNull(PreparedStatement ps, int index, int value) throws SQLException {
+		if (value < 0) {
+			ps.setNull(index, Types.INTEGER);
+		} else {
+			ps.setInt(index, value);
+		}
+	}
+
+	@Override
+	public GameEventLog openEventLog(Board game) {
+		assert game.getGameId() != null;
+		// events are appended right away; after a failed append, the log
+		// takes a snapshot with its next batch, which covers the lost events
+		AtomicBoolean lost = new AtomicBoolean(false);
+		return new GameEventLog(game, getLastEventSeqInDB(game.getGameId()), batch -> {
+			if (!appendEventsInDB(List.of(batch))) {
+				lost.set(true);
+			} else if (batch.snapshot != null) {
+				lost.set(false);
+			}
+		}, lost::get);
+	}
+
+	@Override
+	public long getLastEventSeqInDB(int gameId) {
+		try (PooledConnection pooled = pool.borrow()) {
+			PreparedStatement ps = getSelectLastEventStatement(pooled);
+			ps.setInt(1, gameId);
+			ResultSet rs = ps.executeQuery();
+			long seq = 0;
+			if (rs.next()) {
+				seq = rs.getLong(1);
+			}
+			rs.close();
+			return seq;
+		} catch (SQLException e) {
+			// TODO error handling
+			e.printStackTrace();
+			System.err.println("Some DB error");
+		}
+		return 0;
+	}
+
+	@Override
+	public void flush() {
+		// all updates are written synchronously
+	}
 	
 	@Override
 	public Board loadGameFromDB(int id) {
 		Board game;
-		try {
+		try (PooledConnection pooled = pool.borrow()) {
 			// XXX here, we could actually use a simpler statement
 			//     which is not updatable, but we reuse the one from
 			//     above for simplicity
-			PreparedStatement ps = getSelectGameStatementU();
+			PreparedStatement ps = getSelectGameStatementU(pooled);
 			ps.setInt(1, id);
 			
 			ResultSet rs = ps.executeQuery();
 			int playerNo = -1;
+			long eventSeq = 0;
 			if (rs.next()) {
 				// TODO V4b: and we should also store the name of the used game board
 				//      in the database, and load the corresponding board from the
@@ -252,6 +384,12 @@ class Repository implements IRepository {
 				// TODO currently we do not set the games name (needs to be added)
 				game.setPhase(Phase.values()[rs.getInt(GAME_PHASE)]);
 				game.setStep(rs.getInt(GAME_STEP));
+				eventSeq = rs.getLong(GAME_EVENTSEQ);
+				// the same cards are dealt as if the game had not been interrupted
+				game.setCardDealer(CardDealer.restore(
+						rs.getLong(GAME_DEALERSEED),
+						rs.getBoolean(GAME_DEALERDECK),
+						rs.getLong(GAME_DEALERDEALT)));
 			} else {
 				// TODO error handling
 				return null;
@@ -259,7 +397,10 @@ class Repository implements IRepository {
 			rs.close();
 
 			game.setGameId(id);			
-			loadPlayersFromDB(game);
+			loadPlayersFromDB(pooled, game);
+
+			// the snapshot is brought up to date by the events after it
+			playerNo = replayEventsFromDB(pooled, game, eventSeq, playerNo);
 
 			if (playerNo >= 0 && playerNo < game.getPlayersNumber()) {
 				game.setCurrentPlayer(game.getPlayer(playerNo));
@@ -288,8 +429,8 @@ class Repository implements IRepository {
 		//      method that can filter the returned games in order to
 		//      reduce the number of the returned games.
 		List<GameInDB> result = new ArrayList<>();
-		try {
-			PreparedStatement ps = getSelectGameIdsStatement();
+		try (PooledConnection pooled = pool.borrow()) {
+			PreparedStatement ps = getSelectGameIdsStatement(pooled);
 			ResultSet rs = ps.executeQuery();
 			while (rs.next()) {
 				int id = rs.getInt(GAME_GAMEID);
@@ -304,9 +445,9 @@ class Repository implements IRepository {
 		return result;		
 	}
 
-	private void createPlayersInDB(Board game) throws SQLException {
+	private void createPlayersInDB(PooledConnection pooled, Board game) throws SQLException {
 		// TODO code should be more defensive
-		PreparedStatement ps = getSelectPlayersStatementU();
+		PreparedStatement ps = getSelectPlayersStatementU(pooled);
 		ps.setInt(1, game.getGameId());
 		
 		ResultSet rs = ps.executeQuery();
@@ -320,14 +461,15 @@ class Repository implements IRepository {
 			rs.updateInt(PLAYER_POSITION_X, player.getSpace().x);
 			rs.updateInt(PLAYER_POSITION_Y, player.getSpace().y);
 			rs.updateInt(PLAYER_HEADING, player.getHeading().ordinal());
+			rs.updateInt(PLAYER_CHECKPOINTS, player.getCheckpointsReached());
 			rs.insertRow();
 		}
 
 		rs.close();
 	}
 	
-	private void loadPlayersFromDB(Board game) throws SQLException {
-		PreparedStatement ps = getSelectPlayersASCStatement();
+	private void loadPlayersFromDB(PooledConnection pooled, Board game) throws SQLException {
+		PreparedStatement ps = getSelectPlayersASCStatement(pooled);
 		ps.setInt(1, game.getGameId());
 		
 		ResultSet rs = ps.executeQuery();
@@ -346,6 +488,7 @@ class Repository implements IRepository {
 				player.setSpace(game.getSpace(x,y));
 				int heading = rs.getInt(PLAYER_HEADING);
 				player.setHeading(Heading.values()[heading]);
+				player.setCheckpointsReached(rs.getInt(PLAYER_CHECKPOINTS));
 			} else {
 				// TODO error handling
 				System.err.println("Game in DB does not have a player with id " + i +"!");
@@ -354,127 +497,191 @@ class Repository implements IRepository {
 		rs.close();
 	}
 	
-	private void updatePlayersInDB(Board game) throws SQLException {
-		PreparedStatement ps = getSelectPlayersStatementU();
+	/**
+	 * Applies the events of the game after the given sequence number to the
+	 * game in the order they happened. Since the events carry the resulting
+	 * state of their player, applying an event just sets this state. The
+	 * events must follow each other without a gap; otherwise, some events
+	 * were lost and the state of the game cannot be restored.
+	 *
+	 * @param playerNo the number of the current player before the events
+	 * @return the number of the current player after the last event, or -1
+	 *         if the events are broken
+	 */
+	private int replayEventsFromDB(PooledConnection pooled, Board game, long fromSeq, int playerNo)
+			throws SQLException {
+		PreparedStatement ps = getSelectEventsStatement(pooled);
 		ps.setInt(1, game.getGameId());
-		
+		ps.setLong(2, fromSeq);
+
 		ResultSet rs = ps.executeQuery();
+		long seq = fromSeq;
+		long dealt = game.getCardDealer().getDealt();
 		while (rs.next()) {
-			int playerId = rs.getInt(PLAYER_PLAYERID);
-			// TODO should be more defensive
-			Player player = game.getPlayer(playerId);
-			// rs.updateString(PLAYER_NAME, player.getName()); // not needed: player's names does not change
-			rs.updateInt(PLAYER_POSITION_X, player.getSpace().x);
-			rs.updateInt(PLAYER_POSITION_Y, player.getSpace().y);
-			rs.updateInt(PLAYER_HEADING, player.getHeading().ordinal());
-			// TODO error handling
-			// TODO take care of case when number of players changes, etc
-			rs.updateRow();
+			if (rs.getLong(EVENT_SEQ) != ++seq) {
+				System.err.println("Game " + game.getGameId() + " in DB misses the events from " + seq +
+						" on; it cannot be loaded!");
+				rs.close();
+				return -1;
+			}
+			int playerId = rs.getInt(EVENT_PLAYERID);
+			if (!rs.wasNull()) {
+				Player player = game.getPlayer(playerId);
+				if (player == null) {
+					return brokenEvent(rs, game, seq, "player " + playerId);
+				}
+				// a player without a space has no position
+				Integer x = getIntOrNull(rs, EVENT_POSITION_X);
+				Integer y = getIntOrNull(rs, EVENT_POSITION_Y);
+				Space space = x != null && y != null ? game.getSpace(x, y) : null;
+				if (space == null && (x != null || y != null)) {
+					return brokenEvent(rs, game, seq, "position (" + x + "," + y + ")");
+				}
+				Integer heading = getIntOrNull(rs, EVENT_HEADING);
+				if (heading == null || heading < 0 || heading >= Heading.values().length) {
+					return brokenEvent(rs, game, seq, "heading " + heading);
+				}
+				player.setSpace(space);
+				player.setHeading(Heading.values()[heading]);
+				player.setCheckpointsReached(rs.getInt(EVENT_CHECKPOINTS));
+			}
+			int phase = rs.getInt(EVENT_PHASE);
+			if (phase < 0 || phase >= Phase.values().length) {
+				return brokenEvent(rs, game, seq, "phase " + phase);
+			}
+			game.setPhase(Phase.values()[phase]);
+			game.setStep(rs.getInt(EVENT_STEP));
+			int currentPlayer = rs.getInt(EVENT_CURRENTPLAYER);
+			if (!rs.wasNull()) {
+				playerNo = currentPlayer;
+			}
+			dealt = Math.max(dealt, rs.getLong(EVENT_DEALERDEALT));
 		}
 		rs.close();
-		
-		// TODO error handling/consistency check: check whether all players were updated
+
+		CardDealer dealer = game.getCardDealer();
+		dealer.skip(dealt - dealer.getDealt());
+		return playerNo;
 	}
 
-	private static final String SQL_INSERT_GAME =
-			"INSERT INTO Game(name, currentPlayer, phase, step) VALUES (?, ?, ?, ?)";
+	private Integer getIntOrNull(ResultSet rs, String column) throws SQLException {
+		int value = rs.getInt(column);
+		return rs.wasNull() ? null : value;
+	}
 
-	private PreparedStatement insert_game_stmt = null;
+	/**
+	 * Reports an event of the game with an invalid value, which prevents the
+	 * game from being loaded.
+	 *
+	 * @return -1, the result of replaying broken events
+	 */
+	private int brokenEvent(ResultSet rs, Board game, long seq, String value) throws SQLException {
+		System.err.println("Event " + seq + " of game " + game.getGameId() + " in DB has an invalid " + value +
+				"; the game cannot be loaded!");
+		rs.close();
+		return -1;
+	}
 
-	private PreparedStatement getInsertGameStatementRGK() {
-		if (insert_game_stmt == null) {
-			Connection connection = connector.getConnection();
+	private void rollback(PooledConnection pooled) {
+		if (pooled != null) {
 			try {
-				insert_game_stmt = connection.prepareStatement(
-						SQL_INSERT_GAME,
-						Statement.RETURN_GENERATED_KEYS);
-			} catch (SQLException e) {
+				pooled.connection.rollback();
+				pooled.connection.setAutoCommit(true);
+			} catch (SQLException e1) {
 				// TODO error handling
-				e.printStackTrace();
+				e1.printStackTrace();
 			}
 		}
-		return insert_game_stmt;
+	}
+
+	// The prepared statements are cached by the pooled connection they
+	// belong to, so that they are created only once per connection.
+
+	private static final String SQL_INSERT_GAME =
+			"INSERT INTO Game(name, currentPlayer, phase, step, dealerSeed, dealerDeck, dealerDealt) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+	private PreparedStatement getInsertGameStatementRGK(PooledConnection pooled) throws SQLException {
+		return pooled.prepareStatement(
+				SQL_INSERT_GAME,
+				Statement.RETURN_GENERATED_KEYS);
 	}
 
 	private static final String SQL_SELECT_GAME =
 			"SELECT * FROM Game WHERE gameID = ?";
 	
-	private PreparedStatement select_game_stmt = null;
-	
-	private PreparedStatement getSelectGameStatementU() {
-		if (select_game_stmt == null) {
-			Connection connection = connector.getConnection();
-			try {
-				select_game_stmt = connection.prepareStatement(
-						SQL_SELECT_GAME,
-						ResultSet.TYPE_FORWARD_ONLY,
-					    ResultSet.CONCUR_UPDATABLE);
-			} catch (SQLException e) {
-				// TODO error handling
-				e.printStackTrace();
-			}
-		}
-		return select_game_stmt;
+	private PreparedStatement getSelectGameStatementU(PooledConnection pooled) throws SQLException {
+		return pooled.prepareStatement(
+				SQL_SELECT_GAME,
+				ResultSet.TYPE_FORWARD_ONLY,
+				ResultSet.CONCUR_UPDATABLE);
 	}
 		
+	private static final String SQL_UPDATE_GAME =
+			"UPDATE Game SET currentPlayer = ?, phase = ?, step = ?, dealerDealt = ?, eventSeq = GREATEST(eventSeq, ?) WHERE gameID = ?";
+
+	private PreparedStatement getUpdateGameStatement(PooledConnection pooled) throws SQLException {
+		return pooled.prepareStatement(
+				SQL_UPDATE_GAME);
+	}
+
+	private static final String SQL_UPDATE_PLAYER =
+			"UPDATE Player SET positionX = ?, positionY = ?, heading = ?, checkpoints = ? WHERE gameID = ? AND playerID = ?";
+
+	private PreparedStatement getUpdatePlayerStatement(PooledConnection pooled) throws SQLException {
+		return pooled.prepareStatement(
+				SQL_UPDATE_PLAYER);
+	}
+
+	private static final String SQL_INSERT_EVENT =
+			"INSERT INTO GameEvent(gameID, seq, type, playerID, command, positionX, positionY, heading, " +
+			"checkpoints, phase, step, currentPlayer, dealerDealt) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+	private PreparedStatement getInsertEventStatement(PooledConnection pooled) throws SQLException {
+		return pooled.prepareStatement(
+				SQL_INSERT_EVENT);
+	}
+
+	private static final String SQL_SELECT_EVENTS =
+			"SELECT * FROM GameEvent WHERE gameID = ? AND seq > ? ORDER BY seq ASC";
+
+	private PreparedStatement getSelectEventsStatement(PooledConnection pooled) throws SQLException {
+		return pooled.prepareStatement(
+				SQL_SELECT_EVENTS);
+	}
+
+	private static final String SQL_SELECT_LAST_EVENT =
+			"SELECT MAX(seq) FROM GameEvent WHERE gameID = ?";
+
+	private PreparedStatement getSelectLastEventStatement(PooledConnection pooled) throws SQLException {
+		return pooled.prepareStatement(
+				SQL_SELECT_LAST_EVENT);
+	}
+
 	private static final String SQL_SELECT_PLAYERS =
 			"SELECT * FROM Player WHERE gameID = ?";
 
-	private PreparedStatement select_players_stmt = null;
-
-	private PreparedStatement getSelectPlayersStatementU() {
-		if (select_players_stmt == null) {
-			Connection connection = connector.getConnection();
-			try {
-				select_players_stmt = connection.prepareStatement(
-						SQL_SELECT_PLAYERS,
-						ResultSet.TYPE_FORWARD_ONLY,
-						ResultSet.CONCUR_UPDATABLE);
-			} catch (SQLException e) {
-				// TODO error handling
-				e.printStackTrace();
-			}
-		}
-		return select_players_stmt;
+	private PreparedStatement getSelectPlayersStatementU(PooledConnection pooled) throws SQLException {
+		return pooled.prepareStatement(
+				SQL_SELECT_PLAYERS,
+				ResultSet.TYPE_FORWARD_ONLY,
+				ResultSet.CONCUR_UPDATABLE);
 	}
 
 	private static final String SQL_SELECT_PLAYERS_ASC =
 			"SELECT * FROM Player WHERE gameID = ? ORDER BY playerID ASC";
 	
-	private PreparedStatement select_players_asc_stmt = null;
-	
-	private PreparedStatement getSelectPlayersASCStatement() {
-		if (select_players_asc_stmt == null) {
-			Connection connection = connector.getConnection();
-			try {
-				// This statement does not need to be updatable
-				select_players_asc_stmt = connection.prepareStatement(
-						SQL_SELECT_PLAYERS_ASC);
-			} catch (SQLException e) {
-				// TODO error handling
-				e.printStackTrace();
-			}
-		}
-		return select_players_asc_stmt;
+	private PreparedStatement getSelectPlayersASCStatement(PooledConnection pooled) throws SQLException {
+		// This statement does not need to be updatable
+		return pooled.prepareStatement(
+				SQL_SELECT_PLAYERS_ASC);
 	}
 	
 	private static final String SQL_SELECT_GAMES =
 			"SELECT gameID, name FROM Game";
 	
-	private PreparedStatement select_games_stmt = null;
-	
-	private PreparedStatement getSelectGameIdsStatement() {
-		if (select_games_stmt == null) {
-			Connection connection = connector.getConnection();
-			try {
-				select_games_stmt = connection.prepareStatement(
-						SQL_SELECT_GAMES);
-			} catch (SQLException e) {
-				// TODO error handling
-				e.printStackTrace();
-			}
-		}
-		return select_games_stmt;
+	private PreparedStatement getSelectGameIdsStatement(PooledConnection pooled) throws SQLException {
+		return pooled.prepareStatement(
+				SQL_SELECT_GAMES);
 	}
 
 }
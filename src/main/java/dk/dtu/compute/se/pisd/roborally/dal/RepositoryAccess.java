@@ -29,13 +29,60 @@ package dk.dtu.compute.se.pisd.roborally.dal;
  */
 public class RepositoryAccess {
     
-	private static Repository repository;
-	
-	public static IRepository getRepository() {
-		if (repository == null || !repository.isAlive()) {
-			repository = new Repository(new Connector());
+	private static IRepository repository;
+
+	/**
+	 * Returns the repository. The repository is created on first access;
+	 * it obtains its connections from a {@link ConnectionPool}, which
+	 * validates its connections in the background, so that accessing
+	 * the repository does not need a round trip to the database. Unless
+	 * switched off by <code>WRITE_BEHIND=false</code> in the properties,
+	 * updates of games are written behind by a {@link WriteBehindRepository}.
+	 *
+	 * @return the repository
+	 */
+	public static synchronized IRepository getRepository() {
+		if (repository == null) {
+			Connector connector = new Connector();
+			Repository direct = new Repository(new ConnectionPool(connector));
+			if (connector.isWriteBehind()) {
+				repository = new WriteBehindRepository(direct, direct);
+			} else {
+				repository = direct;
+			}
 		}
 		return repository;
 	}
+
+	/**
+	 * Waits until all pending updates of games are written to the database.
+	 * If the repository was not used yet, there is nothing to wait for (and
+	 * no connection to the database is opened).
+	 */
+	public static void flush() {
+		IRepository current;
+		synchronized (RepositoryAccess.class) {
+			current = repository;
+		}
+		if (current != null) {
+			current.flush();
+		}
+	}
+
+	/**
+	 * Waits until all pending updates of games are written to the database,
+	 * but at most for the given time.
+	 *
+	 * @param timeout the maximum time to wait in milliseconds
+	 * @return true if all pending updates were written (or given up), false
+	 *         if the time ran out
+	 */
+	public static boolean flush(long timeout) {
+		IRepository current;
+		synchronized (RepositoryAccess.class) {
+			current = repository;
+		}
+		return current == null || current.flush(timeout);
+	}
 	
 }
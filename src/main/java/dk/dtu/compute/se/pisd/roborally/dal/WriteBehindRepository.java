@@ -0,0 +1,333 @@
+package dk.dtu.compute.se.pisd.roborally.dal;
+
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A repository which writes updates of games behind the back of the caller.
+ * {@link #updateGameInDB(Board)} only takes a {@link GameSnapshot} of the game
+ * and hands it to a writer thread, so that the thread playing the game (in
+ * practice the JavaFX application thread) never waits for the database.
+ *
+ * Updates of the same game which pile up while the writer is busy are
+ * coalesced, so that only the latest state of each game is written. All
+ * pending games are written in one transaction with batched statements.
+ * Creating, loading and listing games are delegated to the underlying
+ * repository directly; before a game is loaded, its pending update is
+ * written, so that loading always sees the latest state.
+ *
+ * The event logs opened by this repository hand their batches of events to
+ * the writer thread, too. These are not coalesced but appended in order,
+ * before the pending snapshots are written.
+ *
+ * A failed write is retried a few times, with a growing pause in between.
+ * If it still fails, the updates are given up, and the games concerned are
+ * marked as failed: {@link #updateGameInDB(Board)} returns false for them
+ * until one of their updates is written successfully, and
+ * {@link #getFailedWrites()} counts the writes given up. Given up events
+ * leave a gap in the event log of their game, which a later update of the
+ * game does not close; so these games stay failed until their event log
+ * has written a snapshot which includes the lost events. The event log
+ * takes such a snapshot with its next batch.
+ *
+ * {@link #flush()} waits until everything enqueued so far is written; it
+ * should be called before the application stops.
+ */
+class WriteBehindRepository implements IRepository {
+
+	static final int MAX_ATTEMPTS = 3;
+
+	static final long RETRY_MILLIS = 100;
+
+	private final IRepository repository;
+
+	private final GameWriter writer;
+
+	private final Thread thread;
+
+	// guarded by this
+	private final Map<Integer, GameSnapshot> pending = new LinkedHashMap<>();
+
+	// guarded by this
+	private final List<EventBatch> pendingEvents = new ArrayList<>();
+
+	// guarded by this: the number of updates enqueued and the number of
+	// updates which were handled (written or failed) by the writer thread
+	private long enqueued = 0;
+	private long handled = 0;
+
+	// guarded by this: the games whose latest update could not be written,
+	// the number of writes given up, and whether the writer thread stopped
+	private final Set<Integer> failedGames = new HashSet<>();
+	private long failedWrites = 0;
+	private boolean stopped = false;
+
+	// guarded by this: the sequence number of the last event given up for
+	// each game, for which no snapshot including it was written yet
+	private final Map<Integer, Long> lostEvents = new HashMap<>();
+
+	WriteBehindRepository(IRepository repository, GameWriter writer) {
+		this.repository = repository;
+		this.writer = writer;
+
+		thread = new Thread(this::run, "roborally-db-writer");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	@Override
+	public boolean createGameInDB(Board game) {
+		// the game id is needed right away, so this is done synchronously
+		return repository.createGameInDB(game);
+	}
+
+	/**
+	 * Enqueues the current state of the game for being written to the
+	 * database, and returns immediately. Since the actual write happens
+	 * later, a problem with writing this update can only be reported by
+	 * later calls: the result is false if an earlier update of the game was
+	 * given up and no update of it was written since, if events of the game
+	 * were given up and no snapshot of its event log covers them yet, or if
+	 * the writer thread stopped.
+	 *
+	 * @param game the game to be updated
+	 * @return true if the update was enqueued and the earlier updates of the
+	 *         game were written
+	 */
+	@Override
+	public boolean updateGameInDB(Board game) {
+		assert game.getGameId() != null;
+
+		GameSnapshot snapshot = new GameSnapshot(game);
+		synchronized (this) {
+			// removing first makes a re-enqueued game go to the end of the queue
+			pending.remove(snapshot.gameId);
+			pending.put(snapshot.gameId, snapshot);
+			enqueued++;
+			notifyAll();
+			return !stopped && !failedGames.contains(snapshot.gameId) && !lostEvents.containsKey(snapshot.gameId);
+		}
+	}
+
+	@Override
+	public GameEventLog openEventLog(Board game) {
+		assert game.getGameId() != null;
+		flush();
+		int gameId = game.getGameId();
+		return new GameEventLog(game, writer.getLastEventSeqInDB(gameId), this::appendEvents,
+				() -> hasLostEvents(gameId));
+	}
+
+	private synchronized void appendEvents(EventBatch batch) {
+		pendingEvents.add(batch);
+		enqueued++;
+		notifyAll();
+	}
+
+	@Override
+	public Board loadGameFromDB(int id) {
+		flush();
+		return repository.loadGameFromDB(id);
+	}
+
+	@Override
+	public List<GameInDB> getGames() {
+		flush();
+		return repository.getGames();
+	}
+
+	/**
+	 * Waits until all updates enqueued before this call are written to the
+	 * database (or failed).
+	 */
+	@Override
+	public void flush() {
+		try {
+			awaitFlush(0);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public boolean flush(long timeout) {
+		try {
+			return awaitFlush(timeout);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private synchronized boolean hasLostEvents(int gameId) {
+		return lostEvents.containsKey(gameId);
+	}
+
+	/**
+	 * Returns the number of writes which were given up after the last
+	 * attempt failed.
+	 *
+	 * @return the number of failed writes
+	 */
+	synchronized long getFailedWrites() {
+		return failedWrites;
+	}
+
+	/**
+	 * Waits until all updates enqueued before this call are written to the
+	 * database (or failed), but at most for the given time.
+	 *
+	 * @param timeout the maximum time to wait in milliseconds; 0 means
+	 *                waiting without a time limit
+	 * @return true if all updates were handled, false if the time ran out
+	 *         or the writer thread stopped
+	 * @throws InterruptedException if the waiting thread was interrupted
+	 */
+	synchronized boolean awaitFlush(long timeout) throws InterruptedException {
+		long target = enqueued;
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		while (handled < target) {
+			if (stopped) {
+				return false;
+			}
+			if (timeout == 0) {
+				wait();
+			} else {
+				long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+				if (remaining <= 0) {
+					return false;
+				}
+				wait(remaining);
+			}
+		}
+		return true;
+	}
+
+	private void run() {
+		try {
+			while (true) {
+				List<EventBatch> events;
+				List<GameSnapshot> batch;
+				long count;
+				synchronized (this) {
+					while (pending.isEmpty() && pendingEvents.isEmpty()) {
+						try {
+							wait();
+						} catch (InterruptedException e) {
+							return;
+						}
+					}
+					events = new ArrayList<>(pendingEvents);
+					pendingEvents.clear();
+					batch = new ArrayList<>(pending.values());
+					pending.clear();
+					// all updates enqueued so far are covered by this batch,
+					// including the ones which were coalesced
+					count = enqueued - handled;
+				}
+
+				try {
+					if (!events.isEmpty()) {
+						if (write(() -> writer.appendEventsInDB(events))) {
+							written(events);
+						} else {
+							lost(events);
+						}
+					}
+					if (!batch.isEmpty()) {
+						List<Integer> games = batch.stream().map(snapshot -> snapshot.gameId).toList();
+						if (write(() -> writer.updateGamesInDB(batch))) {
+							synchronized (this) {
+								games.forEach(failedGames::remove);
+							}
+						} else {
+							failed("Writing " + batch.size() + " game(s) to the DB", games);
+						}
+					}
+				} finally {
+					synchronized (this) {
+						handled += count;
+						notifyAll();
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			// the writer thread is stopped while waiting for a retry
+		} finally {
+			synchronized (this) {
+				stopped = true;
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Tries a write up to {@link #MAX_ATTEMPTS} times, waiting a bit longer
+	 * after each failed attempt.
+	 *
+	 * @return true if the write succeeded
+	 */
+	private boolean write(BooleanSupplier write) throws InterruptedException {
+		for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+			try {
+				if (write.getAsBoolean()) {
+					return true;
+				}
+			} catch (VirtualMachineError e) {
+				throw e;
+			} catch (Throwable e) {
+				// also errors of the driver, which must not stop the writer thread
+				System.err.println("Writing to the DB failed (attempt " + attempt + "): " + e);
+			}
+			if (attempt < MAX_ATTEMPTS) {
+				Thread.sleep(RETRY_MILLIS * attempt);
+			}
+		}
+		return false;
+	}
+
+	private synchronized void failed(String what, List<Integer> games) {
+		System.err.println(what + " failed " + MAX_ATTEMPTS + " times; the updates are given up!");
+		failedWrites++;
+		failedGames.addAll(games);
+	}
+
+	/**
+	 * Records the events of the batches as lost; this includes the snapshots
+	 * of the batches.
+	 */
+	private synchronized void lost(List<EventBatch> batches) {
+		System.err.println("Appending the events of " + batches.size() + " batch(es) to the DB failed " +
+				MAX_ATTEMPTS + " times; the events are given up!");
+		failedWrites++;
+		for (EventBatch batch: batches) {
+			if (!batch.events.isEmpty()) {
+				long last = batch.events.get(batch.events.size() - 1).seq;
+				lostEvents.merge(batch.gameId, last, Math::max);
+			}
+		}
+	}
+
+	/**
+	 * Forgets the lost events of the games for which the batches contain a
+	 * snapshot which includes them.
+	 */
+	private synchronized void written(List<EventBatch> batches) {
+		for (EventBatch batch: batches) {
+			Long lost = lostEvents.get(batch.gameId);
+			if (lost != null && batch.snapshot != null && batch.snapshot.eventSeq >= lost) {
+				lostEvents.remove(batch.gameId);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,261 @@
+package dk.dtu.compute.se.pisd.roborally.fileaccess;
+
+import dk.dtu.compute.se.pisd.roborally.fileaccess.model.ActionTemplate;
+import dk.dtu.compute.se.pisd.roborally.fileaccess.model.BoardTemplate;
+import dk.dtu.compute.se.pisd.roborally.fileaccess.model.CheckPointTemplate;
+import dk.dtu.compute.se.pisd.roborally.fileaccess.model.ConveyorBeltTemplate;
+import dk.dtu.compute.se.pisd.roborally.fileaccess.model.SpaceTemplate;
+import dk.dtu.compute.se.pisd.roborally.model.Heading;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A compact binary format for boards, as an alternative to the JSON files,
+ * which get big and slow to parse for large generated boards. Like the JSON
+ * files, the binary format is read into and written from a
+ * {@link BoardTemplate}.
+ *
+ * The format is as follows (all numbers are unsigned varints, i.e. seven
+ * bits per byte with the highest bit set on all but the last byte):
+ * <pre>
+ *   file   ::= 'R' 'R' 'B' 'D' version width height count space*
+ *   space  ::= skip walls actions action*
+ *   action ::= CONVEYOR heading | CHECKPOINT number last
+ * </pre>
+ * Only the <code>count</code> spaces with walls or actions are written, in
+ * the order of their index <code>y*width+x</code>; <code>skip</code> is the
+ * number of empty spaces between the previous written space and this one,
+ * so empty regions of the board take no room at all. <code>walls</code> is
+ * a bitmask with bit <code>i</code> set for a wall at heading with ordinal
+ * <code>i</code>, <code>actions</code> the number of actions of the space,
+ * and each action starts with its opcode. <code>heading</code> is the
+ * ordinal of the heading and <code>last</code> is 1 for the last checkpoint
+ * and 0 otherwise.
+ */
+public class BinaryBoardFormat {
+
+    static final byte[] MAGIC = { 'R', 'R', 'B', 'D' };
+
+    static final int VERSION = 1;
+
+    static final int OP_CONVEYOR = 1;
+    static final int OP_CHECKPOINT = 2;
+
+    private BinaryBoardFormat() {
+    }
+
+    /**
+     * Checks whether the given bytes are the start of a board in binary format.
+     *
+     * @param header the first bytes of a file
+     * @param length the number of valid bytes in header
+     * @return true if the bytes start with the magic number of the format
+     */
+    static boolean isBinary(byte[] header, int length) {
+        return length >= MAGIC.length && Arrays.equals(header, 0, MAGIC.length, MAGIC, 0, MAGIC.length);
+    }
+
+    /**
+     * Writes the board template to the output stream in binary format.
+     * Spaces of the template with the same coordinates are merged, and the
+     * walls of each space are written as a set.
+     *
+     * @param template the board template
+     * @param out the output stream (which is not closed)
+     * @throws IOException if writing fails
+     * @throws IllegalArgumentException if the template has spaces outside the
+     *         board or actions which the format does not support
+     */
+    public static void write(BoardTemplate template, OutputStream out) throws IOException {
+        List<SpaceTemplate> spaces = new ArrayList<>();
+        for (SpaceTemplate space: template.spaces) {
+            if (space.x < 0 || space.x >= template.width || space.y < 0 || space.y >= template.height) {
+                throw new IllegalArgumentException("Space (" + space.x + "," + space.y + ") is outside of the board");
+            }
+            if (!isEmpty(space)) {
+                spaces.add(space);
+            }
+        }
+        // the sort is stable, so the actions of merged spaces keep their order
+        spaces.sort(Comparator.comparingInt(space -> space.y * template.width + space.x));
+
+        int count = 0;
+        for (int i = 0; i < spaces.size(); i++) {
+            if (i == 0 || index(template, spaces.get(i)) != index(template, spaces.get(i - 1))) {
+                count++;
+            }
+        }
+
+        out.write(MAGIC);
+        writeVarint(out, VERSION);
+        writeVarint(out, template.width);
+        writeVarint(out, template.height);
+        writeVarint(out, count);
+
+        int next = 0;
+        int i = 0;
+        while (i < spaces.size()) {
+            int index = index(template, spaces.get(i));
+            int walls = 0;
+            List<ActionTemplate> actions = new ArrayList<>();
+            for (; i < spaces.size() && index(template, spaces.get(i)) == index; i++) {
+                SpaceTemplate space = spaces.get(i);
+                if (space.walls != null) {
+                    for (Heading heading: space.walls) {
+                        walls |= 1 << heading.ordinal();
+                    }
+                }
+                if (space.actions != null) {
+                    actions.addAll(space.actions);
+                }
+            }
+
+            writeVarint(out, index - next);
+            writeVarint(out, walls);
+            writeVarint(out, actions.size());
+            for (ActionTemplate action: actions) {
+                writeAction(out, action);
+            }
+            next = index + 1;
+        }
+    }
+
+    /**
+     * Reads a board template in binary format from the input stream.
+     *
+     * @param in the input stream (which is not closed)
+     * @return the board template
+     * @throws IOException if reading fails or the data is not a board in
+     *         a supported version of the format
+     */
+    public static BoardTemplate read(InputStream in) throws IOException {
+        byte[] magic = in.readNBytes(MAGIC.length);
+        if (!isBinary(magic, magic.length)) {
+            throw new IOException("Not a binary board");
+        }
+        int version = readVarint(in);
+        if (version != VERSION) {
+            throw new IOException("Unsupported version " + version + " of binary board");
+        }
+
+        BoardTemplate template = new BoardTemplate();
+        template.width = readVarint(in);
+        template.height = readVarint(in);
+        int count = readVarint(in);
+        long size = (long) template.width * template.height;
+
+        long index = -1;
+        for (int i = 0; i < count; i++) {
+            index += readVarint(in) + 1;
+            if (index >= size) {
+                throw new IOException("Space " + index + " is outside of the board");
+            }
+
+            SpaceTemplate space = new SpaceTemplate();
+            space.x = (int) (index % template.width);
+            space.y = (int) (index / template.width);
+
+            int walls = readVarint(in);
+            for (Heading heading: Heading.values()) {
+                if ((walls & (1 << heading.ordinal())) != 0) {
+                    space.walls.add(heading);
+                }
+            }
+            int actions = readVarint(in);
+            for (int j = 0; j < actions; j++) {
+                space.actions.add(readAction(in));
+            }
+            template.spaces.add(space);
+        }
+        return template;
+    }
+
+    private static boolean isEmpty(SpaceTemplate space) {
+        return (space.walls == null || space.walls.isEmpty()) &&
+                (space.actions == null || space.actions.isEmpty());
+    }
+
+    private static int index(BoardTemplate template, SpaceTemplate space) {
+        return space.y * template.width + space.x;
+    }
+
+    private static void writeAction(OutputStream out, ActionTemplate action) throws IOException {
+        if (action instanceof ConveyorBeltTemplate) {
+            ConveyorBeltTemplate conveyorBelt = (ConveyorBeltTemplate) action;
+            writeVarint(out, OP_CONVEYOR);
+            writeVarint(out, conveyorBelt.heading.ordinal());
+        } else if (action instanceof CheckPointTemplate) {
+            CheckPointTemplate checkPoint = (CheckPointTemplate) action;
+            writeVarint(out, OP_CHECKPOINT);
+            writeVarint(out, checkPoint.number);
+            writeVarint(out, checkPoint.last ? 1 : 0);
+        } else {
+            // XXX if new action templates are added, they need an opcode here
+            //     and in readAction
+            throw new IllegalArgumentException("Action " + action.getClass().getName() +
+                    " is not supported by the binary board format");
+        }
+    }
+
+    private static ActionTemplate readAction(InputStream in) throws IOException {
+        int opcode = readVarint(in);
+        switch (opcode) {
+            case OP_CONVEYOR:
+                ConveyorBeltTemplate conveyorBelt = new ConveyorBeltTemplate();
+                conveyorBelt.heading = readHeading(in);
+                return conveyorBelt;
+            case OP_CHECKPOINT:
+                CheckPointTemplate checkPoint = new CheckPointTemplate();
+                checkPoint.number = readVarint(in);
+                checkPoint.last = readVarint(in) != 0;
+                return checkPoint;
+            default:
+                throw new IOException("Unknown action opcode " + opcode + " in binary board");
+        }
+    }
+
+    private static Heading readHeading(InputStream in) throws IOException {
+        int ordinal = readVarint(in);
+        if (ordinal >= Heading.values().length) {
+            throw new IOException("Unknown heading " + ordinal + " in binary board");
+        }
+        return Heading.values()[ordinal];
+    }
+
+    static void writeVarint(OutputStream out, int value) throws IOException {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value " + value);
+        }
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static int readVarint(InputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Unexpected end of binary board");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    break;
+                }
+                return value;
+            }
+        }
+        throw new IOException("Malformed number in binary board");
+    }
+
+}
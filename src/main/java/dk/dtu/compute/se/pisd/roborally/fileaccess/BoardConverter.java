@@ -0,0 +1,50 @@
+package dk.dtu.compute.se.pisd.roborally.fileaccess;
+
+import dk.dtu.compute.se.pisd.roborally.fileaccess.model.BoardTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A command line tool for converting boards between the JSON format and the
+ * {@link BinaryBoardFormat}. The format of the input file is recognised from
+ * its contents; the format of the output file is chosen by its extension
+ * (<code>.rrb</code> for binary, anything else for JSON):
+ * <pre>
+ *   java dk.dtu.compute.se.pisd.roborally.fileaccess.BoardConverter big.json big.rrb
+ * </pre>
+ */
+public class BoardConverter {
+
+    /**
+     * Converts the board in the file given as first argument and writes
+     * it to the file given as second argument.
+     *
+     * @param args the input and the output file
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: BoardConverter <input file> <output file>");
+            System.exit(2);
+        }
+
+        Path input = Path.of(args[0]);
+        Path output = Path.of(args[1]);
+        try {
+            BoardTemplate template = LoadBoard.readTemplate(input);
+            if (template == null) {
+                System.err.println("No board in " + input);
+                System.exit(1);
+            }
+            LoadBoard.writeTemplate(template, output);
+            System.out.println("Converted " + template.width + "x" + template.height + " board with " +
+                    template.spaces.size() + " non-empty spaces from " + input + " (" + Files.size(input) +
+                    " bytes) to " + output + " (" + Files.size(output) + " bytes)");
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Converting " + input + " failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+}
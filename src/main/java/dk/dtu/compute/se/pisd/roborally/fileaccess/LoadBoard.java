@@ -23,25 +23,41 @@ package dk.dtu.compute.se.pisd.roborally.fileaccess;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
 import dk.dtu.compute.se.pisd.roborally.controller.AppController;
 import dk.dtu.compute.se.pisd.roborally.controller.BoardFactory;
+import dk.dtu.compute.se.pisd.roborally.controller.CheckPoint;
 import dk.dtu.compute.se.pisd.roborally.controller.ConveyorBelt;
 import dk.dtu.compute.se.pisd.roborally.controller.FieldAction;
 import dk.dtu.compute.se.pisd.roborally.fileaccess.model.ActionTemplate;
 import dk.dtu.compute.se.pisd.roborally.fileaccess.model.BoardTemplate;
+import dk.dtu.compute.se.pisd.roborally.fileaccess.model.CheckPointTemplate;
 import dk.dtu.compute.se.pisd.roborally.fileaccess.model.ConveyorBeltTemplate;
 import dk.dtu.compute.se.pisd.roborally.fileaccess.model.SpaceTemplate;
 import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Heading;
 import dk.dtu.compute.se.pisd.roborally.model.Space;
+import dk.dtu.compute.se.pisd.roborally.planner.DistanceFields;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * ...
@@ -53,57 +69,316 @@ public class LoadBoard {
     private static final String BOARDSFOLDER = "boards";
     private static final String DEFAULTBOARD = "defaultboard";
     private static final String JSON_EXT = "json";
+    private static final String BINARY_EXT = "rrb";
 
+    private static final int MAX_USER_BOARDS = 16;
+
+    // Gson instances are thread-safe, so they are created only once
+    private static final Gson GSON = new GsonBuilder().
+            registerTypeAdapter(ActionTemplate.class, new Adapter<ActionTemplate>()).
+            create();
+
+    private static final Gson PRETTY_GSON = new GsonBuilder().
+            registerTypeAdapter(ActionTemplate.class, new Adapter<ActionTemplate>()).
+            setPrettyPrinting().
+            create();
+
+    // The successfully parsed boards from the resources by name; names without
+    // a (readable) resource are not kept, so that any names can be loaded
+    private static final Map<String, BoardPrototype> resourceBoards = new ConcurrentHashMap<>();
+
+    // The parsed boards from the user's files, the least recently used one is
+    // evicted when there are too many (guarded by the map itself)
+    private static final Map<Path, UserBoard> userBoards =
+            new LinkedHashMap<>(MAX_USER_BOARDS, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Path, UserBoard> eldest) {
+                    return size() > MAX_USER_BOARDS;
+                }
+            };
+
+    /**
+     * Loads the board with the given name from the resources, where it can be
+     * either in the binary format (extension {@value BINARY_EXT}, see
+     * {@link BinaryBoardFormat}) or a JSON file. The board is
+     * parsed only the first time it is loaded; afterwards, new boards are
+     * created from the cached result without touching the class loader or
+     * the JSON parser again. The {@link DistanceFields} of the board are
+     * computed when it is parsed and kept with the cached result (see
+     * {@link #getDistanceFields(String)}). If there
+     * is no such resource, or if it cannot be read, the board is created by
+     * the {@link BoardFactory}; a broken resource is reported on the console.
+     *
+     * @param boardname the name of the board, or {@code null} for the default board
+     * @return a new board
+     */
     public static Board loadBoard(String boardname) {
         if (boardname == null) {
             boardname = DEFAULTBOARD;
         }
 
+        // nothing is cached if the resource is not parsed successfully
+        BoardPrototype prototype = resourceBoards.computeIfAbsent(boardname, LoadBoard::parseResource);
+        if (prototype != null) {
+            return prototype.createBoard(boardname);
+        } else {
+            return BoardFactory.getInstance().createBoard(boardname);
+        }
+    }
+
+    /**
+     * Returns the distance fields of the board with the given name, as loaded
+     * by {@link #loadBoard(String)}. For boards from the resources, these are
+     * the fields computed when the board was parsed; all boards loaded with
+     * that name share them, as long as their layout is not changed.
+     *
+     * @param boardname the name of the board, or {@code null} for the default board
+     * @return the distance fields of the board
+     */
+    public static DistanceFields getDistanceFields(String boardname) {
+        if (boardname == null) {
+            boardname = DEFAULTBOARD;
+        }
+
+        BoardPrototype prototype = resourceBoards.computeIfAbsent(boardname, LoadBoard::parseResource);
+        if (prototype != null) {
+            return prototype.distances;
+        } else {
+            return DistanceFields.of(BoardFactory.getInstance().createBoard(boardname));
+        }
+    }
+
+    /**
+     * Loads a board from a file of the user, which can be either a JSON file
+     * or in the binary format; the format is recognised from the contents of
+     * the file. The parsed file is cached, as
+     * long as it is not modified; only the most recently used user boards are
+     * kept in the cache.
+     *
+     * @param file the file of the board
+     * @return a new board
+     * @throws IOException if the file could not be read or does not contain
+     *                     a valid board
+     */
+    public static Board loadUserBoard(Path file) throws IOException {
+        String boardname = file.getFileName().toString();
+        int dot = boardname.lastIndexOf('.');
+        if (dot > 0) {
+            boardname = boardname.substring(0, dot);
+        }
+
+        BoardPrototype prototype;
+        FileTime modified = Files.getLastModifiedTime(file);
+        synchronized (userBoards) {
+            UserBoard cached = userBoards.get(file);
+            prototype = cached != null && cached.modified.equals(modified) ? cached.prototype : null;
+        }
+        if (prototype == null) {
+            prototype = parse(readTemplate(file), file.toString());
+            synchronized (userBoards) {
+                userBoards.put(file, new UserBoard(modified, prototype));
+            }
+        }
+        return prototype.createBoard(boardname);
+    }
+
+    /**
+     * Empties the caches, so that all boards are parsed again when they
+     * are loaded next time.
+     */
+    static void clearCache() {
+        resourceBoards.clear();
+        synchronized (userBoards) {
+            userBoards.clear();
+        }
+    }
+
+    /**
+     * Saves a board to a file of the user. If the name of the file has the
+     * extension {@value BINARY_EXT}, the board is saved in the binary format,
+     * otherwise as JSON.
+     *
+     * @param board the board to be saved
+     * @param file the file
+     * @throws IOException if the file could not be written
+     */
+    public static void saveUserBoard(Board board, Path file) throws IOException {
+        writeTemplate(convertToTemplate(board), file);
+    }
+
+    /**
+     * Parses the board with the given name from the resources.
+     *
+     * @return the parsed board, or {@code null} if there is no such resource
+     *         or if it is broken
+     */
+    private static BoardPrototype parseResource(String boardname) {
         ClassLoader classLoader = LoadBoard.class.getClassLoader();
-        InputStream inputStream = classLoader.getResourceAsStream(BOARDSFOLDER + "/" + boardname + "." + JSON_EXT);
+        InputStream inputStream = classLoader.getResourceAsStream(BOARDSFOLDER + "/" + boardname + "." + BINARY_EXT);
         if (inputStream == null) {
-            return BoardFactory.getInstance().createBoard(boardname);
+            inputStream = classLoader.getResourceAsStream(BOARDSFOLDER + "/" + boardname + "." + JSON_EXT);
+        }
+        if (inputStream == null) {
+            return null;
         }
 
-		// In simple cases, we can create a Gson object with new Gson():
-        GsonBuilder simpleBuilder = new GsonBuilder().
-                registerTypeAdapter(ActionTemplate.class, new Adapter<ActionTemplate>());
-        Gson gson = simpleBuilder.create();
-
-		Board result;
-        JsonReader reader = null;
-		try {
-			reader = gson.newJsonReader(new InputStreamReader(inputStream));
-			BoardTemplate template = gson.fromJson(reader, BoardTemplate.class);
-			result = convert(template, boardname);
-			reader.close();
-			return result;
-		} catch (IOException e1) {
-            if (reader != null) {
-                try {
-                    reader.close();
-                    inputStream = null;
-                } catch (IOException e2) {}
+        try (InputStream in = inputStream) {
+            return parse(readTemplate(in), boardname);
+        } catch (IOException e) {
+            System.err.println("The board " + boardname + " could not be read from the resources: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Creates the prototype of a board read from some source, which is used
+     * in the messages if the board is broken.
+     *
+     * @throws IOException if there is no board or the board is broken
+     */
+    private static BoardPrototype parse(BoardTemplate template, String source) throws IOException {
+        if (template == null) {
+            throw new IOException(source + " does not contain a board");
+        }
+        try {
+            BoardPrototype prototype = new BoardPrototype(template);
+            prototype.computeDistances();
+            return prototype;
+        } catch (RuntimeException e) {
+            // e.g. missing or inconsistent values in the template
+            throw new IOException(source + " does not contain a valid board", e);
+        }
+    }
+
+    /**
+     * Reads a board template from a file, either in binary or in JSON format.
+     *
+     * @param file the file
+     * @return the template, or {@code null} if the file is empty
+     * @throws IOException if the file could not be read or parsed
+     */
+    static BoardTemplate readTemplate(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return readTemplate(in);
+        }
+    }
+
+    private static BoardTemplate readTemplate(InputStream inputStream) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(inputStream);
+        in.mark(BinaryBoardFormat.MAGIC.length);
+        byte[] header = in.readNBytes(BinaryBoardFormat.MAGIC.length);
+        in.reset();
+        if (BinaryBoardFormat.isBinary(header, header.length)) {
+            return BinaryBoardFormat.read(in);
+        }
+
+        try {
+            JsonReader reader = GSON.newJsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            return GSON.fromJson(reader, BoardTemplate.class);
+        } catch (JsonParseException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Writes a board template to a file; if the file name has the extension
+     * {@value BINARY_EXT}, the binary format is used, otherwise JSON.
+     *
+     * @param template the template
+     * @param file the file
+     * @throws IOException if the file could not be written
+     */
+    static void writeTemplate(BoardTemplate template, Path file) throws IOException {
+        if (file.getFileName().toString().endsWith("." + BINARY_EXT)) {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                BinaryBoardFormat.write(template, out);
             }
-            if (inputStream != null) {
-				try {
-					inputStream.close();
-				} catch (IOException e2) {}
-			}
-		}
-		return null;
-    }
-
-    private static Board convert(BoardTemplate template, String boardname) {
-        Board result = new Board(template.width, template.height, boardname);
-        for (SpaceTemplate spaceTemplate: template.spaces) {
-            Space space = result.getSpace(spaceTemplate.x, spaceTemplate.y);
-            if (space != null) {
-                space.getActions().addAll(convert(spaceTemplate.actions));
-                space.getWalls().addAll(spaceTemplate.walls);
+        } else {
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                PRETTY_GSON.toJson(template, template.getClass(), PRETTY_GSON.newJsonWriter(writer));
             }
         }
-        return result;
+        synchronized (userBoards) {
+            userBoards.remove(file);
+        }
+    }
+
+    /**
+     * A parsed board, from which new boards can be created quickly. The
+     * prototype keeps copies of the walls and actions of the non-empty spaces
+     * of the template, which are not changed anymore after construction;
+     * so prototypes can be shared between threads.
+     */
+    private static final class BoardPrototype {
+
+        private final int width;
+        private final int height;
+
+        private final int[] x;
+        private final int[] y;
+        private final List<List<Heading>> walls;
+        private final List<List<ActionTemplate>> actions;
+
+        // kept here so that the cached fields live as long as the prototype;
+        // computed only for the prototypes which are cached
+        private DistanceFields distances;
+
+        BoardPrototype(BoardTemplate template) {
+            width = template.width;
+            height = template.height;
+
+            int size = template.spaces.size();
+            x = new int[size];
+            y = new int[size];
+            List<List<Heading>> walls = new ArrayList<>(size);
+            List<List<ActionTemplate>> actions = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                SpaceTemplate spaceTemplate = template.spaces.get(i);
+                x[i] = spaceTemplate.x;
+                y[i] = spaceTemplate.y;
+                walls.add(spaceTemplate.walls != null ? List.copyOf(spaceTemplate.walls) : List.of());
+                actions.add(spaceTemplate.actions != null ? List.copyOf(spaceTemplate.actions) : List.of());
+            }
+            this.walls = List.copyOf(walls);
+            this.actions = List.copyOf(actions);
+        }
+
+        Board createBoard(String boardname) {
+            Board result = new Board(width, height, boardname);
+            for (int i = 0; i < x.length; i++) {
+                Space space = result.getSpace(x[i], y[i]);
+                if (space != null) {
+                    space.getActions().addAll(convert(actions.get(i)));
+                    space.getWalls().addAll(walls.get(i));
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Computes the distance fields of the board, so that they are ready
+         * when the board is played by the AI.
+         */
+        void computeDistances() {
+            distances = DistanceFields.of(createBoard(""));
+        }
+
+    }
+
+    private static final class UserBoard {
+
+        final FileTime modified;
+        final BoardPrototype prototype;
+
+        UserBoard(FileTime modified, BoardPrototype prototype) {
+            this.modified = modified;
+            this.prototype = prototype;
+        }
+
+    }
+
+    static Board convert(BoardTemplate template, String boardname) {
+        return new BoardPrototype(template).createBoard(boardname);
     }
 
     private static List<FieldAction> convert(List<ActionTemplate> actionTemplates) {
@@ -125,6 +400,9 @@ public class LoadBoard {
             ConveyorBelt conveyorBelt = new ConveyorBelt();
             conveyorBelt.setHeading(template.heading);
             return conveyorBelt;
+        } else if (actionTemplate instanceof CheckPointTemplate) {
+            CheckPointTemplate template = (CheckPointTemplate) actionTemplate;
+            return new CheckPoint(template.number, template.last);
         } // else if ...
         // XXX if new field actions are added, the corresponding templates
         //     need to be added to the model subpackage of fileaccess and
@@ -151,17 +429,8 @@ public class LoadBoard {
         String filename =
                 classLoader.getResource(BOARDSFOLDER).getPath() + "/" + name + "." + JSON_EXT;
 
-        // In simple cases, we can create a Gson object with new:
-        //
-        //   Gson gson = new Gson();
-        //
-        // But, if you need to configure it, it is better to create it from
-        // a builder (here, we want to configure the JSON serialisation with
-        // a pretty printer):
-        GsonBuilder simpleBuilder = new GsonBuilder().
-                registerTypeAdapter(ActionTemplate.class, new Adapter<ActionTemplate>()).
-                setPrettyPrinting();
-        Gson gson = simpleBuilder.create();
+        // the Gson object used here is configured with a pretty printer
+        Gson gson = PRETTY_GSON;
 
         FileWriter fileWriter = null;
         JsonWriter writer = null;
@@ -170,6 +439,8 @@ public class LoadBoard {
             writer = gson.newJsonWriter(fileWriter);
             gson.toJson(template, template.getClass(), writer);
             writer.close();
+            // the board needs to be parsed again when it is loaded next time
+            resourceBoards.remove(name);
         } catch (IOException e1) {
             if (writer != null) {
                 try {
@@ -185,7 +456,7 @@ public class LoadBoard {
         }
     }
 
-    private static BoardTemplate convertToTemplate(Board board) {
+    static BoardTemplate convertToTemplate(Board board) {
         BoardTemplate result = new BoardTemplate();
         result.width = board.width;
         result.height = board.height;
@@ -199,6 +470,7 @@ public class LoadBoard {
                     spaceTemplate.y = y;
                     spaceTemplate.actions = convertToTemplate(space.getActions());
                     spaceTemplate.walls = new ArrayList<>(space.getWalls());
+                    result.spaces.add(spaceTemplate);
                 }
             }
         }
@@ -224,6 +496,12 @@ public class LoadBoard {
             ConveyorBeltTemplate conveyorBeltTemplate = new ConveyorBeltTemplate();
             conveyorBeltTemplate.heading = conveyorBelt.getHeading();
             return conveyorBeltTemplate;
+        } else if (action instanceof CheckPoint) {
+            CheckPoint checkPoint = (CheckPoint) action;
+            CheckPointTemplate checkPointTemplate = new CheckPointTemplate();
+            checkPointTemplate.number = checkPoint.getNumber();
+            checkPointTemplate.last = checkPoint.isLast();
+            return checkPointTemplate;
         } // else if ...
         // XXX if new field actions are added, the corresponding templates
         //     need to be added to the model subpackage of fileaccess and
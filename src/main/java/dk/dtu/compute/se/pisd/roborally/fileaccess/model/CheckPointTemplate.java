@@ -0,0 +1,9 @@
+package dk.dtu.compute.se.pisd.roborally.fileaccess.model;
+
+public class CheckPointTemplate extends ActionTemplate {
+
+    public int number;
+
+    public boolean last;
+
+}
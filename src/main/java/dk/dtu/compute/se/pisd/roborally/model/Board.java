@@ -26,6 +26,7 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static dk.dtu.compute.se.pisd.roborally.model.Phase.INITIALISATION;
 
@@ -37,7 +38,7 @@ import static dk.dtu.compute.se.pisd.roborally.model.Phase.INITIALISATION;
  * @author Ekkart Kindler, ekki@dtu.dk
  *
  */
-public class Board extends Subject {
+public class Board extends ModelSubject {
 
     public final int width;
 
@@ -61,10 +62,38 @@ public class Board extends Subject {
 
     private int counter = 0;
 
+    private CardDealer cardDealer = CardDealer.withRandomSeed();
+
+    // listeners may remove themselves while being notified
+    private final List<ModelChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
+    private static final int HEADINGS = Heading.values().length;
+
+    // The walls and the occupied spaces of the board are also kept as
+    // bitboards, where the bit of a space with coordinates (x, y) has the
+    // index y * width + x. There is one bitboard of walls for each heading
+    // (indexed by the heading's ordinal). These are kept in sync with
+    // Space.getWalls() and Space.setPlayer(), so that questions like
+    // "is there a wall" or "is this space occupied" are simple bit tests.
+    private final long[][] wallBits;
+
+    private final long[] occupiedBits;
+
+    // The neighbour table contains for each space and heading the space a
+    // robot moving from this space in that heading ends up on, where moves
+    // blocked by walls or by the edge of the board end up on the same space.
+    // The entry for the space with index y * width + x and the heading h is
+    // at index (y * width + x) * HEADINGS + h. The table is built on first
+    // use and thrown away whenever the walls of some space change.
+    private Space[] neighbours;
+
     public Board(int width, int height, @NotNull String boardName) {
         this.boardName = boardName;
         this.width = width;
         this.height = height;
+        int words = (width * height + 63) >>> 6;
+        wallBits = new long[HEADINGS][words];
+        occupiedBits = new long[words];
         spaces = new Space[width][height];
         for (int x = 0; x < width; x++) {
             for(int y = 0; y < height; y++) {
@@ -114,7 +143,7 @@ public class Board extends Subject {
     public void addPlayer(@NotNull Player player) {
         if (player.board == this && !players.contains(player)) {
             players.add(player);
-            notifyChange();
+            notifyChange(() -> new ModelChange.PlayerAdded(this, player));
         }
     }
 
@@ -144,8 +173,9 @@ public class Board extends Subject {
      */
     public void setCurrentPlayer(Player player) {
         if (player != this.current && players.contains(player)) {
+            Player old = this.current;
             this.current = player;
-            notifyChange();
+            notifyChange(() -> new ModelChange.CurrentPlayerChanged(this, old, player));
         }
     }
 
@@ -155,8 +185,9 @@ public class Board extends Subject {
 
     public void setPhase(Phase phase) {
         if (phase != this.phase) {
+            Phase old = this.phase;
             this.phase = phase;
-            notifyChange();
+            notifyChange(() -> new ModelChange.PhaseChanged(this, old, phase));
         }
     }
 
@@ -166,8 +197,9 @@ public class Board extends Subject {
 
     public void setStep(int step) {
         if (step != this.step) {
+            int old = this.step;
             this.step = step;
-            notifyChange();
+            notifyChange(() -> new ModelChange.StepChanged(this, old, step));
         }
     }
 
@@ -178,7 +210,7 @@ public class Board extends Subject {
     public void setStepMode(boolean stepMode) {
         if (stepMode != this.stepMode) {
             this.stepMode = stepMode;
-            notifyChange();
+            notifyChange(() -> new ModelChange.StepModeChanged(this, stepMode));
         }
     }
 
@@ -201,42 +233,138 @@ public class Board extends Subject {
      * @return the space in the given direction; the current space if there is no (reachable) neighbour
      */
     public Space getNeighbour(@NotNull Space space, @NotNull Heading heading) {
-        // TODO A3: This implementation needs to be adjusted so that walls on
-        //          spaces (and maybe other obstacles) are taken into account
-        //          (see above JavaDoc comment for this method) -- done
-        int x = space.x;
-        int y = space.y;
-        switch (heading) {
-            case SOUTH:
-                y = y + 1;
-                break;
-            case WEST:
-                x = x - 1;
-                break;
-            case NORTH:
-                y = y - 1;
-                break;
-            case EAST:
-                x = x + 1;
-                break;
+        Space[] table = neighbours;
+        if (table == null) {
+            table = buildNeighbours();
         }
+        return table[(space.y * width + space.x) * HEADINGS + heading.ordinal()];
+    }
 
-        // Check for out-of-bounds before applying modulo
-        if (x < 0 || x >= width || y < 0 || y >= height) {
-            return getSpace(space.x, space.y);
+    private Space[] buildNeighbours() {
+        Space[] table = new Space[width * height * HEADINGS];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int index = y * width + x;
+                for (Heading heading : Heading.values()) {
+                    int h = heading.ordinal();
+                    int nx = x;
+                    int ny = y;
+                    switch (heading) {
+                        case SOUTH:
+                            ny = y + 1;
+                            break;
+                        case WEST:
+                            nx = x - 1;
+                            break;
+                        case NORTH:
+                            ny = y - 1;
+                            break;
+                        case EAST:
+                            nx = x + 1;
+                            break;
+                    }
+
+                    // Out of bounds or blocked by a wall on either of the two spaces
+                    if (nx < 0 || nx >= width || ny < 0 || ny >= height ||
+                            testBit(wallBits[h], index) ||
+                            testBit(wallBits[opposite(h)], ny * width + nx)) {
+                        table[index * HEADINGS + h] = spaces[x][y];
+                    } else {
+                        table[index * HEADINGS + h] = spaces[nx][ny];
+                    }
+                }
+            }
         }
+        neighbours = table;
+        return table;
+    }
 
-        // Apply modulo to wrap around
-        x = (x + width) % width;
-        y = (y + height) % height;
+    /**
+     * Returns whether the given space has a wall in the given direction.
+     * This is a bit test on the wall bitboards of this board.
+     *
+     * @param space the space (of this board)
+     * @param heading the direction of the wall
+     * @return true if the space has a wall in the given direction
+     */
+    public boolean hasWall(@NotNull Space space, @NotNull Heading heading) {
+        return testBit(wallBits[heading.ordinal()], space.y * width + space.x);
+    }
 
-        Space neighbour = getSpace(x, y);
-        if (neighbour != null) {
-            if (space.getWalls().contains(heading) || neighbour.getWalls().contains(heading.opposite())) {
-                return getSpace(space.x, space.y);
-            }
+    /**
+     * Returns whether the space with the given coordinates has a wall in the
+     * given direction. For coordinates outside the board, false is returned.
+     *
+     * @param x the x coordinate of the space
+     * @param y the y coordinate of the space
+     * @param heading the direction of the wall
+     * @return true if the space has a wall in the given direction
+     */
+    public boolean hasWall(int x, int y, @NotNull Heading heading) {
+        return x >= 0 && x < width && y >= 0 && y < height &&
+                testBit(wallBits[heading.ordinal()], y * width + x);
+    }
+
+    /**
+     * Returns whether the space with the given coordinates is occupied by
+     * a player. For coordinates outside the board, false is returned.
+     *
+     * @param x the x coordinate of the space
+     * @param y the y coordinate of the space
+     * @return true if there is a player on the space
+     */
+    public boolean isOccupied(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height &&
+                testBit(occupiedBits, y * width + x);
+    }
+
+    /**
+     * Updates the wall bitboards for the given space from its list of walls.
+     * This is called by the space whenever its walls change.
+     *
+     * @param space the space whose walls changed
+     */
+    void wallsChanged(@NotNull Space space) {
+        int index = space.y * width + space.x;
+        for (int i = 0; i < HEADINGS; i++) {
+            clearBit(wallBits[i], index);
+        }
+        for (int i = 0; i < space.getWalls().size(); i++) {
+            setBit(wallBits[space.getWalls().get(i).ordinal()], index);
+        }
+        neighbours = null;
+    }
+
+    /**
+     * Updates the occupancy bitboard for the given space. This is called by
+     * the space whenever its player changes.
+     *
+     * @param space the space whose player changed
+     */
+    void occupancyChanged(@NotNull Space space) {
+        int index = space.y * width + space.x;
+        if (space.getPlayer() != null) {
+            setBit(occupiedBits, index);
+        } else {
+            clearBit(occupiedBits, index);
         }
-        return neighbour;
+    }
+
+    private static int opposite(int heading) {
+        // SOUTH, WEST, NORTH, EAST: the opposite heading is two steps further
+        return (heading + 2) & 3;
+    }
+
+    private static boolean testBit(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static void setBit(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    private static void clearBit(long[] bits, int index) {
+        bits[index >>> 6] &= ~(1L << index);
     }
 
     /**
@@ -266,8 +394,68 @@ public class Board extends Subject {
 
     public void setCounter(int counter) {
         if (this.counter != counter) {
+            int old = this.counter;
             this.counter = counter;
-            notifyChange();
+            notifyChange(() -> new ModelChange.CounterChanged(this, old, counter));
+        }
+    }
+
+    /**
+     * Returns the dealer of the command cards of this game. Initially, this
+     * is a dealer with a random seed.
+     *
+     * @return the card dealer of this game
+     */
+    public CardDealer getCardDealer() {
+        return cardDealer;
+    }
+
+    /**
+     * Sets the dealer of the command cards, e.g. for playing a game with a
+     * given seed or for continuing a loaded game with its cards.
+     *
+     * @param cardDealer the new card dealer
+     */
+    public void setCardDealer(@NotNull CardDealer cardDealer) {
+        this.cardDealer = cardDealer;
+    }
+
+    /**
+     * Adds a listener to the changes of this board and of its spaces, players
+     * and their card fields. Other than the notifications of the observers,
+     * the changes are reported immediately, also during a batch (see
+     * {@link Subject#beginBatch()}), and in the order in which they were made.
+     *
+     * @param listener the listener
+     */
+    public void addChangeListener(@NotNull ModelChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(@NotNull ModelChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    @Override
+    Board getChangeBoard() {
+        return this;
+    }
+
+    /**
+     * Returns whether someone listens to the changes of this board. The
+     * model objects check this before creating a change (see
+     * {@link ModelSubject#notifyChange(java.util.function.Supplier)}), so that
+     * changes cost nothing if nobody listens.
+     *
+     * @return true if there are change listeners
+     */
+    boolean hasChangeListeners() {
+        return !changeListeners.isEmpty();
+    }
+
+    void fireChange(@NotNull ModelChange change) {
+        for (ModelChangeListener listener : changeListeners) {
+            listener.onChange(change);
         }
     }
 
@@ -0,0 +1,172 @@
+package dk.dtu.compute.se.pisd.roborally.model;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Deals the command cards of a game. Each board has its own dealer, which
+ * is completely determined by its seed: two dealers with the same seed and
+ * mode deal the same cards in the same order. Together with the number of
+ * cards dealt so far, which is kept by the dealer, the seed is stored with
+ * the game, so that a loaded game continues with the same cards, and a game
+ * can be replayed exactly.
+ *
+ * The dealer uses a {@link SplittableRandom}, which is not synchronised; like
+ * the board, the dealer must be used by one thread at a time only, but dealers
+ * of different games do not share anything.
+ *
+ * By default, each card is drawn independently of the others. Optionally, the
+ * cards can be dealt from a deck with {@link #DECK_COPIES} cards of each
+ * command, which is shuffled once the deck is used up.
+ */
+public class CardDealer {
+
+    /**
+     * The number of cards of each command in the deck.
+     */
+    final public static int DECK_COPIES = 8;
+
+    final private static Command[] COMMANDS = Command.values();
+
+    final private long seed;
+
+    final private boolean deck;
+
+    private SplittableRandom random;
+
+    private long dealt = 0;
+
+    // the deck and the position of the next card (only when dealing from a deck)
+    private Command[] cards;
+    private int next;
+
+    /**
+     * Creates a dealer which draws each card independently with the given seed.
+     *
+     * @param seed the seed
+     */
+    public CardDealer(long seed) {
+        this(seed, false);
+    }
+
+    /**
+     * Creates a dealer with the given seed.
+     *
+     * @param seed the seed
+     * @param deck whether the cards are dealt from a shuffled deck instead
+     *             of drawing each card independently
+     */
+    public CardDealer(long seed, boolean deck) {
+        this.seed = seed;
+        this.deck = deck;
+        reset();
+    }
+
+    /**
+     * Creates a dealer with a seed chosen at random.
+     *
+     * @return the new dealer
+     */
+    public static CardDealer withRandomSeed() {
+        return new CardDealer(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Creates a dealer which continues where a dealer with the same seed and
+     * mode stopped after dealing the given number of cards.
+     *
+     * @param seed the seed
+     * @param deck whether the cards are dealt from a shuffled deck
+     * @param dealt the number of cards dealt already
+     * @return the new dealer
+     */
+    public static CardDealer restore(long seed, boolean deck, long dealt) {
+        CardDealer dealer = new CardDealer(seed, deck);
+        dealer.skip(dealt);
+        return dealer;
+    }
+
+    /**
+     * Deals the next card.
+     *
+     * @return the next command card
+     */
+    public CommandCard deal() {
+        return new CommandCard(next());
+    }
+
+    /**
+     * Returns the command of the next card. This is the same as the command
+     * of the card returned by {@link #deal()}, without creating the card.
+     *
+     * @return the command of the next card
+     */
+    public Command next() {
+        dealt++;
+        if (!deck) {
+            return COMMANDS[random.nextInt(COMMANDS.length)];
+        }
+        if (next == cards.length) {
+            shuffle();
+        }
+        return cards[next++];
+    }
+
+    /**
+     * Skips the given number of cards.
+     *
+     * @param count the number of cards to be skipped
+     */
+    public void skip(long count) {
+        for (long i = 0; i < count; i++) {
+            next();
+        }
+    }
+
+    /**
+     * Starts dealing from the beginning again, as if the dealer was newly
+     * created with its seed.
+     */
+    public void reset() {
+        random = new SplittableRandom(seed);
+        dealt = 0;
+        if (deck) {
+            cards = new Command[COMMANDS.length * DECK_COPIES];
+            for (int i = 0; i < cards.length; i++) {
+                cards[i] = COMMANDS[i % COMMANDS.length];
+            }
+            next = cards.length;
+        } else {
+            cards = null;
+        }
+    }
+
+    private void shuffle() {
+        // Fisher-Yates shuffle of the complete deck
+        for (int i = cards.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Command card = cards[j];
+            cards[j] = cards[i];
+            cards[i] = card;
+        }
+        next = 0;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public boolean isDeck() {
+        return deck;
+    }
+
+    /**
+     * Returns the number of cards dealt since the dealer was created or reset.
+     *
+     * @return the number of cards dealt
+     */
+    public long getDealt() {
+        return dealt;
+    }
+
+}
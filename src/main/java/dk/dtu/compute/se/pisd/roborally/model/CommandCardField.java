@@ -21,14 +21,13 @@
  */
 package dk.dtu.compute.se.pisd.roborally.model;
 
-import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
 
 /**
  * Represents a field for a command card of a player, extending the Subject class
  * for observer pattern implementation. The field can be visible
  * or not, and it can contain a command card. It has getters and setters,
  */
-public class CommandCardField extends Subject {
+public class CommandCardField extends ModelSubject {
 
     final public Player player;
 
@@ -42,14 +41,20 @@ public class CommandCardField extends Subject {
         this.visible = true;
     }
 
+    @Override
+    Board getChangeBoard() {
+        return player.board;
+    }
+
     public CommandCard getCard() {
         return card;
     }
 
     public void setCard(CommandCard card) {
         if (card != this.card) {
+            CommandCard old = this.card;
             this.card = card;
-            notifyChange();
+            notifyChange(() -> new ModelChange.CardSet(this, old, card));
         }
     }
 
@@ -60,7 +65,7 @@ public class CommandCardField extends Subject {
     public void setVisible(boolean visible) {
         if (visible != this.visible) {
             this.visible = visible;
-            notifyChange();
+            notifyChange(() -> new ModelChange.CardVisibilityChanged(this, visible));
         }
     }
 }
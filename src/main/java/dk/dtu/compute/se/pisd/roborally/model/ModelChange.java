@@ -0,0 +1,87 @@
+package dk.dtu.compute.se.pisd.roborally.model;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A change of the model of a game, which tells what changed and how. The
+ * {@link dk.dtu.compute.se.pisd.designpatterns.observer.Observer}s of a
+ * subject only learn that the subject changed, and need to read its state
+ * again; the listeners to model changes (see
+ * {@link Board#addChangeListener(ModelChangeListener)}) get the changes
+ * themselves, which makes it easy to send, store or render just the part
+ * which changed.
+ *
+ * The changes are reported by the {@link Board}, {@link Player},
+ * {@link Space} and {@link CommandCardField} objects of a board, in the
+ * same places where they notify their observers. A player moving from one
+ * space to another is reported as a {@link PlayerMoved} change of the
+ * player and as {@link OccupantChanged} changes of the spaces it leaves and
+ * enters.
+ */
+public sealed interface ModelChange {
+
+    /**
+     * A player was added to the board.
+     */
+    record PlayerAdded(@NotNull Board board, @NotNull Player player) implements ModelChange {}
+
+    /**
+     * The current player changed.
+     */
+    record CurrentPlayerChanged(@NotNull Board board, Player from, Player to) implements ModelChange {}
+
+    record PhaseChanged(@NotNull Board board, @NotNull Phase from, @NotNull Phase to) implements ModelChange {}
+
+    /**
+     * The register which is executed changed.
+     */
+    record StepChanged(@NotNull Board board, int from, int to) implements ModelChange {}
+
+    record StepModeChanged(@NotNull Board board, boolean stepMode) implements ModelChange {}
+
+    record CounterChanged(@NotNull Board board, int from, int to) implements ModelChange {}
+
+    /**
+     * A player moved to another space; either space is {@code null} if the
+     * player was not on the board before or is not on the board anymore.
+     */
+    record PlayerMoved(@NotNull Player player, Space from, Space to) implements ModelChange {}
+
+    record HeadingChanged(@NotNull Player player, @NotNull Heading from, @NotNull Heading to) implements ModelChange {}
+
+    /**
+     * The number of checkpoints reached by the player changed.
+     */
+    record CheckpointsChanged(@NotNull Player player, int from, int to) implements ModelChange {}
+
+    /**
+     * An attribute of the player without a change of its own changed, i.e.
+     * the name, the colour or the last checkpoint.
+     */
+    record PlayerChanged(@NotNull Player player) implements ModelChange {}
+
+    /**
+     * The card of a program or card field of a player changed; either card
+     * is {@code null} if the field was or is empty.
+     */
+    record CardSet(@NotNull CommandCardField field, CommandCard from, CommandCard to) implements ModelChange {}
+
+    record CardVisibilityChanged(@NotNull CommandCardField field, boolean visible) implements ModelChange {}
+
+    /**
+     * The player on a space changed; either player is {@code null} if the
+     * space was or is empty.
+     */
+    record OccupantChanged(@NotNull Space space, Player from, Player to) implements ModelChange {}
+
+    /**
+     * A wall of a space was added, replaced or removed.
+     */
+    record WallsChanged(@NotNull Space space) implements ModelChange {}
+
+    /**
+     * A field action of a space was added, replaced or removed.
+     */
+    record ActionsChanged(@NotNull Space space) implements ModelChange {}
+
+}
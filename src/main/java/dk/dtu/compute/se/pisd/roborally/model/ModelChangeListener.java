@@ -0,0 +1,18 @@
+package dk.dtu.compute.se.pisd.roborally.model;
+
+/**
+ * A listener for the {@link ModelChange}s of a board and everything on it.
+ *
+ * @see Board#addChangeListener(ModelChangeListener)
+ */
+public interface ModelChangeListener {
+
+    /**
+     * Called right after the change was made, on the thread which made the
+     * change. Listeners must not change the model themselves.
+     *
+     * @param change the change
+     */
+    void onChange(ModelChange change);
+
+}
@@ -0,0 +1,39 @@
+package dk.dtu.compute.se.pisd.roborally.model;
+
+import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Supplier;
+
+/**
+ * A subject of the model of a game, which does not only notify its
+ * observers when it changes, but also reports the change itself as a
+ * {@link ModelChange} to the change listeners of its board.
+ */
+abstract class ModelSubject extends Subject {
+
+    /**
+     * Returns the board to whose change listeners the changes of this
+     * subject are reported.
+     *
+     * @return the board of this subject
+     */
+    abstract Board getChangeBoard();
+
+    /**
+     * Must be called by the concrete subclasses whenever their state changed:
+     * notifies the observers (see {@link #notifyChange()}) and reports the
+     * change to the change listeners of the board. The change is created only
+     * if someone listens, so that changes cost nothing otherwise.
+     *
+     * @param change creates the change which was made
+     */
+    final protected void notifyChange(@NotNull Supplier<ModelChange> change) {
+        notifyChange();
+        Board board = getChangeBoard();
+        if (board.hasChangeListeners()) {
+            board.fireChange(change.get());
+        }
+    }
+
+}
@@ -21,7 +21,6 @@
  */
 package dk.dtu.compute.se.pisd.roborally.model;
 
-import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
 import org.jetbrains.annotations.NotNull;
 
 import static dk.dtu.compute.se.pisd.roborally.model.Heading.SOUTH;
@@ -31,7 +30,7 @@ import static dk.dtu.compute.se.pisd.roborally.model.Heading.SOUTH;
  * Each player has a name, color, position on the board, and a heading direction.
  * Players also have a program and a set of cards for the game.
  */
-public class Player extends Subject {
+public class Player extends ModelSubject {
 
     final public static int NO_REGISTERS = 5;
     final public static int NO_CARDS = 8;
@@ -68,6 +67,11 @@ public class Player extends Subject {
         }
     }
 
+    @Override
+    Board getChangeBoard() {
+        return board;
+    }
+
     public String getName() {
         return name;
     }
@@ -75,7 +79,7 @@ public class Player extends Subject {
     public void setName(String name) {
         if (name != null && !name.equals(this.name)) {
             this.name = name;
-            notifyChange();
+            notifyChange(() -> new ModelChange.PlayerChanged(this));
             if (space != null) {
                 space.playerChanged();
             }
@@ -88,7 +92,7 @@ public class Player extends Subject {
 
     public void setColor(String color) {
         this.color = color;
-        notifyChange();
+        notifyChange(() -> new ModelChange.PlayerChanged(this));
         if (space != null) {
             space.playerChanged();
         }
@@ -122,7 +126,7 @@ public class Player extends Subject {
             if (space != null) {
                 space.setPlayer(this);
             }
-            notifyChange();
+            notifyChange(() -> new ModelChange.PlayerMoved(this, oldSpace, space));
         }
     }
 
@@ -132,8 +136,9 @@ public class Player extends Subject {
 
     public void setHeading(@NotNull Heading heading) {
         if (heading != this.heading) {
+            Heading old = this.heading;
             this.heading = heading;
-            notifyChange();
+            notifyChange(() -> new ModelChange.HeadingChanged(this, old, heading));
             if (space != null) {
                 space.playerChanged();
             }
@@ -147,7 +152,7 @@ public class Player extends Subject {
     public void setLastCheckpoint(int checkpoint) {
         if (checkpoint != this.lastCheckpoint) {
             this.lastCheckpoint = checkpoint;
-            notifyChange();
+            notifyChange(() -> new ModelChange.PlayerChanged(this));
         }
     }
 
@@ -165,8 +170,9 @@ public class Player extends Subject {
 
     public void setCheckpointsReached(int i) {
         if (i != checkpointsReached) {
+            int old = checkpointsReached;
             checkpointsReached = i;
-            notifyChange();
+            notifyChange(() -> new ModelChange.CheckpointsChanged(this, old, i));
         }
     }
 
@@ -21,9 +21,9 @@
  */
 package dk.dtu.compute.se.pisd.roborally.model;
 
-import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
 import dk.dtu.compute.se.pisd.roborally.controller.FieldAction;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -33,7 +33,7 @@ import java.util.List;
  * @author Ekkart Kindler, ekki@dtu.dk
  *
  */
-public class Space extends Subject {
+public class Space extends ModelSubject {
 
     public final Board board;
 
@@ -44,10 +44,10 @@ public class Space extends Subject {
 
 
     // XXX A3
-    private List<Heading> walls = new ArrayList<>();
+    private final List<Heading> walls = new WallList();
 
     // XXX A3
-    private List<FieldAction> actions = new ArrayList<>();
+    private final List<FieldAction> actions = new ActionList();
 
     public Space(Board board, int x, int y) {
         this.board = board;
@@ -56,6 +56,11 @@ public class Space extends Subject {
         player = null;
     }
 
+    @Override
+    Board getChangeBoard() {
+        return board;
+    }
+
     public Player getPlayer() {
         return player;
     }
@@ -65,14 +70,16 @@ public class Space extends Subject {
         if (player != oldPlayer &&
                 (player == null || board == player.board)) {
             this.player = player;
-            if (oldPlayer != null) {
-                // this should actually not happen
+            if (oldPlayer != null && oldPlayer.getSpace() == this) {
+                // this should actually not happen; if the old player is
+                // moving to another space, it has left this space already
                 oldPlayer.setSpace(null);
             }
             if (player != null) {
                 player.setSpace(this);
             }
-            notifyChange();
+            board.occupancyChanged(this);
+            notifyChange(() -> new ModelChange.OccupantChanged(this, oldPlayer, player));
         }
     }
 
@@ -80,7 +87,8 @@ public class Space extends Subject {
      * Returns the walls (actually their direction) on this space.
      * Note that clients may change this list; this should, however,
      * be done only during the setup of the game (not while the game
-     * is running).
+     * is running). Changes of this list are propagated to the wall
+     * bitboards of the board and reported as {@link ModelChange.WallsChanged}.
      *
      * @return the list of walls on this space
      */
@@ -93,7 +101,8 @@ public class Space extends Subject {
      * Returns the list of field actions on this space.
      * Note that clients may change this list; this should, however,
      * be done only during the setup of the game (not while the game
-     * is running).
+     * is running). Changes of this list are reported as
+     * {@link ModelChange.ActionsChanged}.
      *
      * @return the list of field actions on this space
      */
@@ -109,4 +118,108 @@ public class Space extends Subject {
         notifyChange();
     }
 
+    /**
+     * The list of walls of a space, which informs the board about every
+     * change, so that the board can keep its wall bitboards in sync. Since
+     * all modifications of an {@link AbstractList} (including the ones via
+     * iterators and sub lists) go through the methods {@link #set(int, Heading)},
+     * {@link #add(int, Heading)} and {@link #remove(int)}, it is enough to
+     * override these.
+     */
+    private class WallList extends AbstractList<Heading> {
+
+        private final List<Heading> headings = new ArrayList<>(4);
+
+        @Override
+        public Heading get(int index) {
+            return headings.get(index);
+        }
+
+        @Override
+        public int size() {
+            return headings.size();
+        }
+
+        @Override
+        public Heading set(int index, Heading heading) {
+            Heading old = headings.set(index, heading);
+            changed();
+            return old;
+        }
+
+        @Override
+        public void add(int index, Heading heading) {
+            headings.add(index, heading);
+            modCount++;
+            changed();
+        }
+
+        @Override
+        public Heading remove(int index) {
+            Heading old = headings.remove(index);
+            modCount++;
+            changed();
+            return old;
+        }
+
+        private void changed() {
+            board.wallsChanged(Space.this);
+            notifyChange(() -> new ModelChange.WallsChanged(Space.this));
+        }
+
+        @Override
+        public boolean contains(Object heading) {
+            return heading instanceof Heading && board.hasWall(Space.this, (Heading) heading);
+        }
+
+    }
+
+    /**
+     * The list of field actions of a space, which reports every change; like
+     * for the {@link WallList}, it is enough to override the methods
+     * {@link #set(int, FieldAction)}, {@link #add(int, FieldAction)} and
+     * {@link #remove(int)}.
+     */
+    private class ActionList extends AbstractList<FieldAction> {
+
+        private final List<FieldAction> list = new ArrayList<>(1);
+
+        @Override
+        public FieldAction get(int index) {
+            return list.get(index);
+        }
+
+        @Override
+        public int size() {
+            return list.size();
+        }
+
+        @Override
+        public FieldAction set(int index, FieldAction action) {
+            FieldAction old = list.set(index, action);
+            changed();
+            return old;
+        }
+
+        @Override
+        public void add(int index, FieldAction action) {
+            list.add(index, action);
+            modCount++;
+            changed();
+        }
+
+        @Override
+        public FieldAction remove(int index) {
+            FieldAction old = list.remove(index);
+            modCount++;
+            changed();
+            return old;
+        }
+
+        private void changed() {
+            notifyChange(() -> new ModelChange.ActionsChanged(Space.this));
+        }
+
+    }
+
 }
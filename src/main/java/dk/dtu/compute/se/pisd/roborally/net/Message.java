@@ -0,0 +1,135 @@
+package dk.dtu.compute.se.pisd.roborally.net;
+
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.Heading;
+
+/**
+ * A message received by a {@link NetClient} from the {@link NetServer}.
+ * Depending on its type, only some of the fields are used. For JOINED and
+ * DELTA messages, the robots are given as arrays with one entry per robot
+ * in the message; in a DELTA, values which did not change are
+ * {@link #UNCHANGED} (and {@code null} for the heading).
+ */
+public class Message {
+
+    public enum Type {
+        /** the player joined the game; the message contains all robots */
+        JOINED,
+        /** the cards dealt to the player for a new round */
+        HAND,
+        /** the robots which changed in a register */
+        DELTA,
+        /** a player needs to choose an option for an interactive card */
+        WAITING,
+        /** the game is over */
+        FINISHED,
+        /** the server accepted a request of the player */
+        ACCEPTED,
+        /** the server rejected a request of the player */
+        ERROR
+    }
+
+    final public static int UNCHANGED = Integer.MIN_VALUE;
+
+    final public Type type;
+
+    final public int round;
+
+    final public int step;
+
+    /**
+     * The player who needs to choose an option (WAITING), or the winner of
+     * the game (FINISHED).
+     */
+    final public int player;
+
+    final public int[] players;
+    final public int[] x;
+    final public int[] y;
+    final public Heading[] headings;
+    final public int[] checkpoints;
+
+    final public Command[] hand;
+
+    /**
+     * The request which was accepted or rejected, i.e. the type byte of the
+     * message sent by the client.
+     */
+    final public int request;
+
+    final public String error;
+
+    Message(Type type, int round, int step, int player, int robots) {
+        this.type = type;
+        this.round = round;
+        this.step = step;
+        this.player = player;
+        this.players = new int[robots];
+        this.x = new int[robots];
+        this.y = new int[robots];
+        this.headings = new Heading[robots];
+        this.checkpoints = new int[robots];
+        this.hand = null;
+        this.request = -1;
+        this.error = null;
+    }
+
+    Message(int round, Command[] hand) {
+        this.type = Type.HAND;
+        this.round = round;
+        this.step = -1;
+        this.player = -1;
+        this.players = new int[0];
+        this.x = this.players;
+        this.y = this.players;
+        this.headings = new Heading[0];
+        this.checkpoints = this.players;
+        this.hand = hand;
+        this.request = -1;
+        this.error = null;
+    }
+
+    Message(Type type, int request, String error) {
+        this.type = type;
+        this.round = -1;
+        this.step = -1;
+        this.player = -1;
+        this.players = new int[0];
+        this.x = this.players;
+        this.y = this.players;
+        this.headings = new Heading[0];
+        this.checkpoints = this.players;
+        this.hand = null;
+        this.request = request;
+        this.error = error;
+    }
+
+    void setRobot(int i, int player, int x, int y, Heading heading, int checkpoints) {
+        this.players[i] = player;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.headings[i] = heading;
+        this.checkpoints[i] = checkpoints;
+    }
+
+    public int getRobots() {
+        return players.length;
+    }
+
+    @Override
+    public String toString() {
+        switch (type) {
+            case HAND:
+                return type + " round " + round;
+            case DELTA:
+            case JOINED:
+                return type + " round " + round + ", step " + step + ", " + players.length + " robots";
+            case WAITING:
+            case FINISHED:
+                return type + " player " + player;
+            default:
+                return type + " request " + request + (error != null ? ": " + error : "");
+        }
+    }
+
+}
@@ -0,0 +1,225 @@
+package dk.dtu.compute.se.pisd.roborally.net;
+
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.Heading;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A remote player of a game hosted by a {@link NetServer}. The client sends
+ * the requests of the player over a blocking channel; a reader thread
+ * receives the messages of the server, which the player can wait for with
+ * {@link #nextMessage(long)}. Besides, the client applies the JOINED and
+ * DELTA messages to its own copy of the robots, so that the player always
+ * knows the state of the robots as of the last completed register.
+ */
+public class NetClient implements AutoCloseable {
+
+    final private static Heading[] HEADINGS = Heading.values();
+
+    final private SocketChannel channel;
+
+    final private BlockingQueue<Message> messages = new LinkedBlockingQueue<>();
+
+    final private Thread reader;
+
+    // the robots as received from the server; accessed under the lock of the client
+    private int[] x = new int[0];
+    private int[] y = new int[0];
+    private int[] headings = new int[0];
+    private int[] checkpoints = new int[0];
+
+    private volatile long bytesReceived = 0;
+
+    private volatile boolean closed = false;
+
+    // why the connection was lost, null if it was closed regularly
+    private volatile Exception failure;
+
+    /**
+     * Connects to a server.
+     *
+     * @param host the host of the server
+     * @param port the port of the server
+     * @throws IOException if the server cannot be reached
+     */
+    public NetClient(@NotNull String host, int port) throws IOException {
+        channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.socket().setTcpNoDelay(true);
+        reader = new Thread(this::read, "roborally-client");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Joins a game as the given player; the server answers with a JOINED and
+     * a HAND message, or with an ERROR.
+     *
+     * @param session the id of the session of the game
+     * @param player the number of the player
+     * @throws IOException if the request cannot be sent
+     */
+    public void join(int session, int player) throws IOException {
+        write(Protocol.join(session, player));
+    }
+
+    /**
+     * Submits the program for the current round, given by the indices of
+     * the cards of the hand for each register.
+     *
+     * @param cards the indices of the cards
+     * @throws IOException if the request cannot be sent
+     */
+    public void submitProgram(int... cards) throws IOException {
+        write(Protocol.program(cards));
+    }
+
+    /**
+     * Chooses the option for the interactive card the player is waiting for.
+     *
+     * @param option the chosen option
+     * @throws IOException if the request cannot be sent
+     */
+    public void chooseOption(@NotNull Command option) throws IOException {
+        write(Protocol.option(option));
+    }
+
+    /**
+     * Waits for the next message of the server. When the connection is
+     * closed, no more messages are received.
+     *
+     * @param timeoutMillis the maximal time to wait in milliseconds
+     * @return the message, or {@code null} if there was none within the time
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public Message nextMessage(long timeoutMillis) throws InterruptedException {
+        return messages.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized int getRobots() {
+        return x.length;
+    }
+
+    /**
+     * Returns the x coordinate of the robot of the given player, or -1 if the
+     * robot is not on the board.
+     */
+    public synchronized int getX(int player) {
+        return x[player];
+    }
+
+    public synchronized int getY(int player) {
+        return y[player];
+    }
+
+    public synchronized Heading getHeading(int player) {
+        return HEADINGS[headings[player]];
+    }
+
+    public synchronized int getCheckpoints(int player) {
+        return checkpoints[player];
+    }
+
+    /**
+     * Returns the number of bytes received from the server so far,
+     * including the frame headers.
+     *
+     * @return the number of bytes received
+     */
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Returns why the connection to the server was lost, if it was not
+     * closed by the server or by {@link #close()}.
+     *
+     * @return the failure, or {@code null} if there was none
+     */
+    public Exception getFailure() {
+        return failure;
+    }
+
+    private synchronized void write(ByteBuffer message) throws IOException {
+        while (message.hasRemaining()) {
+            channel.write(message);
+        }
+    }
+
+    private void read() {
+        ByteBuffer in = ByteBuffer.allocate(2 + Protocol.MAX_FRAME);
+        try {
+            while (!closed) {
+                int n = channel.read(in);
+                if (n < 0) {
+                    break;
+                }
+                bytesReceived += n;
+                in.flip();
+                for (ByteBuffer frame = Protocol.nextFrame(in); frame != null; frame = Protocol.nextFrame(in)) {
+                    Message message = Protocol.decode(frame);
+                    apply(message);
+                    messages.add(message);
+                }
+                in.compact();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            if (!closed) {
+                // the connection is broken or the server sent garbage, so
+                // nothing more can be received on it
+                failure = e;
+            }
+        }
+        close();
+    }
+
+    private synchronized void apply(Message message) {
+        if (message.type == Message.Type.JOINED) {
+            int robots = message.getRobots();
+            x = new int[robots];
+            y = new int[robots];
+            headings = new int[robots];
+            checkpoints = new int[robots];
+        } else if (message.type != Message.Type.DELTA) {
+            return;
+        }
+        for (int i = 0; i < message.getRobots(); i++) {
+            int player = message.players[i];
+            if (message.x[i] != Message.UNCHANGED) {
+                x[player] = message.x[i];
+                y[player] = message.y[i];
+            }
+            if (message.headings[i] != null) {
+                headings[player] = message.headings[i].ordinal();
+            }
+            if (message.checkpoints[i] != Message.UNCHANGED) {
+                checkpoints[player] = message.checkpoints[i];
+            }
+        }
+    }
+
+    /**
+     * Closes the connection to the server.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // the channel is dropped anyway
+        }
+    }
+
+}
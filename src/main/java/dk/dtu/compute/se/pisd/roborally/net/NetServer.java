@@ -0,0 +1,553 @@
+package dk.dtu.compute.se.pisd.roborally.net;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameEvent;
+import dk.dtu.compute.se.pisd.roborally.controller.GameEventListener;
+import dk.dtu.compute.se.pisd.roborally.model.Phase;
+import dk.dtu.compute.se.pisd.roborally.planner.BoardGraph;
+import dk.dtu.compute.se.pisd.roborally.planner.GameState;
+import dk.dtu.compute.se.pisd.roborally.server.GameServer;
+import dk.dtu.compute.se.pisd.roborally.server.GameSession;
+import dk.dtu.compute.se.pisd.roborally.server.SessionListener;
+import dk.dtu.compute.se.pisd.roborally.server.TurnResult;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Makes the games of a {@link GameServer} available to remote players, which
+ * connect with a {@link NetClient}. All connections are handled by a single
+ * thread with a {@link Selector} and non-blocking channels, so the server
+ * needs one thread no matter how many players are connected; the commands of
+ * the players are handed to the {@link GameSession}s, and their replies are
+ * queued at the connection and written by the selector thread when the
+ * channel is ready.
+ *
+ * For each game with remote players, the server listens to the
+ * {@link GameEvent}s of the game controller. The events only tell which
+ * robots moved, turned or reached a checkpoint; they are collected until the
+ * register is completed, and then one DELTA message with the robots which
+ * actually changed is encoded once and sent to all players of the game (see
+ * {@link Protocol}). The players get the complete state only once, when
+ * they join.
+ */
+public class NetServer implements AutoCloseable {
+
+    final private GameServer server;
+
+    final private Selector selector;
+
+    final private ServerSocketChannel serverChannel;
+
+    final private Thread thread;
+
+    // connections with new messages, whose keys need to be interested in writing
+    final private Queue<Connection> pendingWrites = new ConcurrentLinkedQueue<>();
+
+    // accessed by the selector thread only
+    final private Map<Integer, SessionFeed> feeds = new HashMap<>();
+
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a server for the games of the given game server and starts
+     * listening on the given port.
+     *
+     * @param server the game server
+     * @param port the port, or 0 for any free port
+     * @throws IOException if the port cannot be opened
+     */
+    public NetServer(@NotNull GameServer server, int port) throws IOException {
+        this.server = server;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        thread = new Thread(this::run, "roborally-net");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Returns the port the server listens on; useful if the server was
+     * created with port 0.
+     *
+     * @return the port of the server
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    private void run() {
+        while (!closed) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                // the selector cannot be used anymore, so the server stops
+                System.err.println("The network server stops: " + e);
+                break;
+            }
+            for (Connection connection = pendingWrites.poll(); connection != null; connection = pendingWrites.poll()) {
+                if (connection.key.isValid()) {
+                    connection.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                }
+            }
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                if (!key.isValid()) {
+                    continue;
+                }
+                if (key.isAcceptable()) {
+                    accept();
+                    continue;
+                }
+                Connection connection = (Connection) key.attachment();
+                try {
+                    if (key.isReadable()) {
+                        connection.read();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        connection.write();
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // the player is disconnected and leaves the feed of its game
+                    connection.close();
+                }
+            }
+        }
+        closed = true;
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Connection) {
+                ((Connection) key.attachment()).close();
+            }
+        }
+        closeQuietly(serverChannel);
+        closeQuietly(selector);
+    }
+
+    private void accept() {
+        SocketChannel channel = null;
+        try {
+            channel = serverChannel.accept();
+            if (channel != null) {
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                Connection connection = new Connection(channel);
+                connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+            }
+        } catch (IOException e) {
+            // only this player cannot connect; the server goes on
+            System.err.println("Accepting a connection failed: " + e);
+            if (channel != null) {
+                closeQuietly(channel);
+            }
+        }
+    }
+
+    /**
+     * Closes a channel or selector which is not used anymore; if this fails,
+     * there is nothing left to be done with it.
+     */
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // the resource is dropped anyway
+        }
+    }
+
+    /**
+     * Stops the server and closes all connections; the games of the game
+     * server are not affected.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+        try {
+            // the selector thread closes the channels when it stops
+            thread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A connection to a remote player. The channel is read and written by the
+     * selector thread only; messages can be sent from any thread.
+     */
+    private class Connection {
+
+        final private SocketChannel channel;
+
+        final private ByteBuffer in = ByteBuffer.allocate(2 + Protocol.MAX_FRAME);
+
+        final private Queue<ByteBuffer> out = new ConcurrentLinkedQueue<>();
+
+        final private AtomicBoolean writeScheduled = new AtomicBoolean();
+
+        private SelectionKey key;
+
+        // set by the selector thread when the player joined
+        private GameSession session;
+        private SessionFeed feed;
+        private int player = -1;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void send(ByteBuffer message) {
+            out.add(message);
+            if (writeScheduled.compareAndSet(false, true)) {
+                pendingWrites.add(this);
+                selector.wakeup();
+            }
+        }
+
+        void read() throws IOException {
+            if (channel.read(in) < 0) {
+                close();
+                return;
+            }
+            in.flip();
+            for (ByteBuffer frame = Protocol.nextFrame(in); frame != null; frame = Protocol.nextFrame(in)) {
+                handle(frame);
+            }
+            in.compact();
+        }
+
+        void write() throws IOException {
+            for (ByteBuffer message = out.peek(); message != null; message = out.peek()) {
+                channel.write(message);
+                if (message.hasRemaining()) {
+                    // the socket buffer is full; continue when it is writable again
+                    return;
+                }
+                out.poll();
+            }
+            key.interestOps(SelectionKey.OP_READ);
+            writeScheduled.set(false);
+            // a message may have been added after the queue was found empty
+            if (!out.isEmpty() && writeScheduled.compareAndSet(false, true)) {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        }
+
+        void close() {
+            if (feed != null) {
+                feed.leave(this);
+                if (feed.isEmpty()) {
+                    feeds.remove(session.getId());
+                    feed.detach();
+                }
+                feed = null;
+            }
+            key.cancel();
+            out.clear();
+            closeQuietly(channel);
+        }
+
+        private void handle(ByteBuffer frame) {
+            byte type = frame.get();
+            try {
+                switch (type) {
+                    case Protocol.JOIN:
+                        join(Protocol.getVarint(frame), Protocol.getVarint(frame));
+                        break;
+                    case Protocol.PROGRAM: {
+                        int[] cards = new int[frame.get() & 0xFF];
+                        for (int i = 0; i < cards.length; i++) {
+                            cards[i] = frame.get();
+                        }
+                        reply(type, joined().submitProgram(player, cards));
+                        break;
+                    }
+                    case Protocol.OPTION:
+                        reply(type, joined().chooseOption(player, Protocol.command(frame.get())));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown request " + type);
+                }
+            } catch (RuntimeException e) {
+                send(Protocol.error(type, String.valueOf(e.getMessage())));
+            }
+        }
+
+        private void join(int sessionId, int player) {
+            if (session != null) {
+                throw new IllegalStateException("Already joined session " + session.getId());
+            }
+            GameSession session = server.getSession(sessionId);
+            if (session == null || session.isClosed()) {
+                throw new IllegalArgumentException("There is no session " + sessionId);
+            }
+            if (player < 0 || player >= session.getPlayersNumber()) {
+                throw new IllegalArgumentException("There is no player " + player);
+            }
+            this.session = session;
+            this.player = player;
+            SessionFeed feed = feeds.computeIfAbsent(sessionId, id -> new SessionFeed(session));
+            this.feed = feed;
+            feed.join(this);
+            session.getHand(player).thenAccept(hand -> send(Protocol.hand(feed.getRound(), hand)));
+        }
+
+        private GameSession joined() {
+            if (session == null) {
+                throw new IllegalStateException("Not joined to a session");
+            }
+            return session;
+        }
+
+        private void reply(byte request, CompletableFuture<?> future) {
+            future.whenComplete((result, e) -> {
+                if (e == null) {
+                    send(Protocol.accepted(request));
+                } else {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    send(Protocol.error(request, String.valueOf(cause.getMessage())));
+                }
+            });
+        }
+    }
+
+    /**
+     * Sends the changes of one game to its remote players. The feed keeps the
+     * robots as the players last got them and as they are now according to
+     * the events; when a register is completed, the differences are sent.
+     * Events and updates arrive on the thread of the session, players join
+     * and leave on the selector thread, so the feed is synchronised.
+     */
+    private class SessionFeed implements GameEventListener, SessionListener {
+
+        final private GameSession session;
+
+        final private List<Connection> connections = new ArrayList<>();
+
+        // players who joined before the state of the game was known
+        final private List<Connection> joining = new ArrayList<>();
+
+        // the robots according to the events, and as last sent; x and y are
+        // -1 for robots which are not on the board
+        final private int[] x;
+        final private int[] y;
+        final private int[] headings;
+        final private int[] checkpoints;
+        final private int[] sentX;
+        final private int[] sentY;
+        final private int[] sentHeadings;
+        final private int[] sentCheckpoints;
+
+        // whether the robot had an event before the state of the game was known
+        final private boolean[] changed;
+
+        private boolean initialised = false;
+
+        private int round;
+        private int step;
+
+        SessionFeed(GameSession session) {
+            this.session = session;
+            int players = session.getPlayersNumber();
+            x = new int[players];
+            y = new int[players];
+            headings = new int[players];
+            checkpoints = new int[players];
+            sentX = new int[players];
+            sentY = new int[players];
+            sentHeadings = new int[players];
+            sentCheckpoints = new int[players];
+            changed = new boolean[players];
+            session.addListener(this);
+            session.addEventListener(this).thenAccept(this::initialise);
+        }
+
+        private synchronized void initialise(TurnResult result) {
+            GameState state = result.state;
+            BoardGraph graph = state.getGraph();
+            for (int i = 0; i < sentX.length; i++) {
+                int cell = state.getCell(i);
+                sentX[i] = cell >= 0 ? graph.x(cell) : -1;
+                sentY[i] = cell >= 0 ? graph.y(cell) : -1;
+                sentHeadings[i] = state.getHeading(i);
+                sentCheckpoints[i] = state.getCheckpoints(i);
+                if (!changed[i]) {
+                    x[i] = sentX[i];
+                    y[i] = sentY[i];
+                    headings[i] = sentHeadings[i];
+                    checkpoints[i] = sentCheckpoints[i];
+                }
+            }
+            round = result.round;
+            step = result.step;
+            initialised = true;
+            for (Connection connection : joining) {
+                welcome(connection);
+            }
+            joining.clear();
+        }
+
+        synchronized int getRound() {
+            return round;
+        }
+
+        synchronized void join(Connection connection) {
+            if (initialised) {
+                welcome(connection);
+            } else {
+                joining.add(connection);
+            }
+        }
+
+        synchronized void leave(Connection connection) {
+            connections.remove(connection);
+            joining.remove(connection);
+        }
+
+        synchronized boolean isEmpty() {
+            return connections.isEmpty() && joining.isEmpty();
+        }
+
+        void detach() {
+            session.removeListener(this);
+            session.removeEventListener(this);
+        }
+
+        private void welcome(Connection connection) {
+            // the new player gets the robots as the other players know them,
+            // since the changes since then will be in the next DELTA
+            ByteBuffer frame = Protocol.frame(Protocol.JOINED,
+                    3 * Protocol.MAX_VARINT + sentX.length * Protocol.MAX_ROBOT);
+            Protocol.putVarint(frame, sentX.length);
+            Protocol.putVarint(frame, round);
+            Protocol.putVarint(frame, step);
+            for (int i = 0; i < sentX.length; i++) {
+                Protocol.putRobot(frame, sentX[i], sentY[i], sentHeadings[i], sentCheckpoints[i]);
+            }
+            connection.send(Protocol.finish(frame));
+            connections.add(connection);
+        }
+
+        @Override
+        public synchronized void onEvent(GameEvent event) {
+            if (event.type == GameEvent.Type.REGISTER) {
+                flush();
+                step++;
+            } else if (event.player != null) {
+                int i = event.player.board.getPlayerNumber(event.player);
+                if (i >= 0 && i < x.length) {
+                    x[i] = event.x;
+                    y[i] = event.y;
+                    headings[i] = event.heading != null ? event.heading.ordinal() : headings[i];
+                    checkpoints[i] = event.checkpoints;
+                    changed[i] = true;
+                }
+            }
+        }
+
+        @Override
+        public synchronized void onUpdate(GameSession session, TurnResult result) {
+            round = result.round;
+            step = result.step;
+            flush();
+            if (result.winner >= 0) {
+                broadcast(Protocol.finished(result.winner));
+            } else if (result.phase == Phase.PLAYER_INTERACTION) {
+                broadcast(Protocol.waiting(result.currentPlayer));
+            } else if (result.phase == Phase.PROGRAMMING) {
+                // the hands are taken by the session after this update; this
+                // must not wait for them, since it runs on the session thread
+                for (Connection connection : connections) {
+                    session.getHand(connection.player)
+                            .thenAccept(hand -> connection.send(Protocol.hand(result.round, hand)));
+                }
+            }
+        }
+
+        /**
+         * Sends the robots which changed since the last DELTA.
+         */
+        private void flush() {
+            if (!initialised) {
+                return;
+            }
+            int count = 0;
+            for (int i = 0; i < x.length; i++) {
+                if (x[i] != sentX[i] || y[i] != sentY[i] || headings[i] != sentHeadings[i] ||
+                        checkpoints[i] != sentCheckpoints[i]) {
+                    count++;
+                }
+            }
+            Arrays.fill(changed, false);
+            if (count == 0) {
+                return;
+            }
+
+            ByteBuffer frame = Protocol.frame(Protocol.DELTA, 2 * Protocol.MAX_VARINT + 1 + count * Protocol.MAX_CHANGE);
+            Protocol.putVarint(frame, round);
+            Protocol.putVarint(frame, step);
+            frame.put((byte) count);
+            for (int i = 0; i < x.length; i++) {
+                int flags = 0;
+                if (x[i] != sentX[i] || y[i] != sentY[i]) {
+                    flags |= Protocol.CHANGED_POSITION;
+                }
+                if (headings[i] != sentHeadings[i]) {
+                    flags |= Protocol.CHANGED_HEADING;
+                }
+                if (checkpoints[i] != sentCheckpoints[i]) {
+                    flags |= Protocol.CHANGED_CHECKPOINTS;
+                }
+                if (flags == 0) {
+                    continue;
+                }
+                frame.put((byte) i);
+                frame.put((byte) flags);
+                if ((flags & Protocol.CHANGED_POSITION) != 0) {
+                    Protocol.putVarint(frame, x[i] + 1);
+                    Protocol.putVarint(frame, y[i] + 1);
+                    sentX[i] = x[i];
+                    sentY[i] = y[i];
+                }
+                if ((flags & Protocol.CHANGED_HEADING) != 0) {
+                    frame.put((byte) headings[i]);
+                    sentHeadings[i] = headings[i];
+                }
+                if ((flags & Protocol.CHANGED_CHECKPOINTS) != 0) {
+                    Protocol.putVarint(frame, checkpoints[i]);
+                    sentCheckpoints[i] = checkpoints[i];
+                }
+            }
+            broadcast(Protocol.finish(frame));
+        }
+
+        private void broadcast(ByteBuffer message) {
+            // the message is encoded once; each connection gets its own view
+            for (Connection connection : connections) {
+                connection.send(message.duplicate());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,302 @@
+package dk.dtu.compute.se.pisd.roborally.net;
+
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.Heading;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The binary protocol between the {@link NetServer} and the
+ * {@link NetClient}. Each message is a frame with an unsigned 16 bit length,
+ * followed by that many bytes: the type of the message and its contents.
+ * Numbers are unsigned varints (seven bits per byte, the highest bit set on
+ * all but the last byte), coordinates are sent plus one, so that -1 (not on
+ * the board) is 0, and headings and commands are sent as their ordinals in
+ * one byte.
+ * <pre>
+ *   client to server:
+ *     JOIN     session player
+ *     PROGRAM  count card*                    (indices of the cards of the hand)
+ *     OPTION   command
+ *   server to client:
+ *     JOINED   players round step robot*     (robot ::= x y heading checkpoints)
+ *     HAND     round card*                    (8 command ordinals, 255 for none)
+ *     DELTA    round step count change*
+ *     WAITING  player                         (player has to choose an option)
+ *     FINISHED winner
+ *     ACCEPTED request                        (type of the accepted message)
+ *     ERROR    request length utf8*
+ * </pre>
+ * A DELTA contains the robots which changed since the last DELTA, each
+ * change being <code>player flags [x y] [heading] [checkpoints]</code>, where
+ * the bits of flags tell which of the values follow. So a register in which
+ * all six robots move costs about 40 bytes, and unchanged robots cost nothing.
+ */
+final class Protocol {
+
+    static final int MAX_FRAME = 0xFFFF;
+
+    // the maximal size of a varint of an int
+    static final int MAX_VARINT = 5;
+
+    // the maximal size of a robot in JOINED: x, y, heading and checkpoints
+    static final int MAX_ROBOT = 3 * MAX_VARINT + 1;
+
+    // the maximal size of the change of a robot in DELTA: player, flags,
+    // x, y, heading and checkpoints
+    static final int MAX_CHANGE = 2 + MAX_ROBOT;
+
+    static final byte JOIN = 1;
+    static final byte PROGRAM = 2;
+    static final byte OPTION = 3;
+
+    static final byte JOINED = 16;
+    static final byte HAND = 17;
+    static final byte DELTA = 18;
+    static final byte WAITING = 19;
+    static final byte FINISHED = 20;
+    static final byte ACCEPTED = 21;
+    static final byte ERROR = 22;
+
+    static final int CHANGED_POSITION = 1;
+    static final int CHANGED_HEADING = 2;
+    static final int CHANGED_CHECKPOINTS = 4;
+
+    static final int NO_CARD = 0xFF;
+
+    private static final Command[] COMMANDS = Command.values();
+    private static final Heading[] HEADINGS = Heading.values();
+
+    private Protocol() {
+    }
+
+    /**
+     * Starts a frame of the given type in a new buffer.
+     */
+    static ByteBuffer frame(byte type, int capacity) {
+        ByteBuffer buffer = ByteBuffer.allocate(2 + 1 + capacity);
+        buffer.putShort((short) 0);
+        buffer.put(type);
+        return buffer;
+    }
+
+    /**
+     * Finishes a frame by filling in its length; the returned buffer is ready
+     * for being written.
+     */
+    static ByteBuffer finish(ByteBuffer frame) {
+        int length = frame.position() - 2;
+        if (length > MAX_FRAME) {
+            throw new IllegalArgumentException("Frame of " + length + " bytes is too long");
+        }
+        frame.putShort(0, (short) length);
+        frame.flip();
+        return frame;
+    }
+
+    /**
+     * Returns the next complete frame (type and contents) in the buffer and
+     * moves the position of the buffer behind it; returns null if the buffer
+     * does not contain a complete frame yet.
+     */
+    static ByteBuffer nextFrame(ByteBuffer buffer) {
+        if (buffer.remaining() < 2) {
+            return null;
+        }
+        int length = buffer.getShort(buffer.position()) & 0xFFFF;
+        if (buffer.remaining() < 2 + length) {
+            return null;
+        }
+        ByteBuffer frame = buffer.slice(buffer.position() + 2, length);
+        buffer.position(buffer.position() + 2 + length);
+        return frame;
+    }
+
+    static ByteBuffer join(int session, int player) {
+        ByteBuffer frame = frame(JOIN, 2 * MAX_VARINT);
+        putVarint(frame, session);
+        putVarint(frame, player);
+        return finish(frame);
+    }
+
+    static ByteBuffer program(int[] cards) {
+        ByteBuffer frame = frame(PROGRAM, 1 + cards.length);
+        frame.put((byte) cards.length);
+        for (int card : cards) {
+            frame.put((byte) card);
+        }
+        return finish(frame);
+    }
+
+    static ByteBuffer option(Command option) {
+        ByteBuffer frame = frame(OPTION, 1);
+        frame.put((byte) option.ordinal());
+        return finish(frame);
+    }
+
+    static ByteBuffer hand(int round, Command[] hand) {
+        ByteBuffer frame = frame(HAND, MAX_VARINT + hand.length);
+        putVarint(frame, round);
+        for (Command command : hand) {
+            frame.put((byte) (command != null ? command.ordinal() : NO_CARD));
+        }
+        return finish(frame);
+    }
+
+    static ByteBuffer waiting(int player) {
+        ByteBuffer frame = frame(WAITING, 1);
+        frame.put((byte) player);
+        return finish(frame);
+    }
+
+    static ByteBuffer finished(int winner) {
+        ByteBuffer frame = frame(FINISHED, 1);
+        frame.put((byte) winner);
+        return finish(frame);
+    }
+
+    static ByteBuffer accepted(byte request) {
+        ByteBuffer frame = frame(ACCEPTED, 1);
+        frame.put(request);
+        return finish(frame);
+    }
+
+    static ByteBuffer error(byte request, String message) {
+        byte[] text = message.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(text.length, 1024);
+        ByteBuffer frame = frame(ERROR, 1 + MAX_VARINT + length);
+        frame.put(request);
+        putVarint(frame, length);
+        frame.put(text, 0, length);
+        return finish(frame);
+    }
+
+    /**
+     * Writes a robot with all its values, as in JOINED; this takes at most
+     * {@link #MAX_ROBOT} bytes.
+     */
+    static void putRobot(ByteBuffer frame, int x, int y, int heading, int checkpoints) {
+        putVarint(frame, x + 1);
+        putVarint(frame, y + 1);
+        frame.put((byte) heading);
+        putVarint(frame, checkpoints);
+    }
+
+    /**
+     * Decodes a frame received by a client.
+     *
+     * @param frame the type and contents of the frame
+     * @return the message
+     * @throws IllegalArgumentException if the frame is malformed
+     */
+    static Message decode(ByteBuffer frame) {
+        try {
+            byte type = frame.get();
+            switch (type) {
+                case JOINED: {
+                    int players = getVarint(frame);
+                    int round = getVarint(frame);
+                    int step = getVarint(frame);
+                    Message message = new Message(Message.Type.JOINED, round, step, -1, players);
+                    for (int i = 0; i < players; i++) {
+                        message.setRobot(i, i, getVarint(frame) - 1, getVarint(frame) - 1,
+                                heading(frame.get()), getVarint(frame));
+                    }
+                    return message;
+                }
+                case HAND: {
+                    int round = getVarint(frame);
+                    Command[] hand = new Command[frame.remaining()];
+                    for (int i = 0; i < hand.length; i++) {
+                        int command = frame.get() & 0xFF;
+                        hand[i] = command == NO_CARD ? null : COMMANDS[command];
+                    }
+                    return new Message(round, hand);
+                }
+                case DELTA: {
+                    int round = getVarint(frame);
+                    int step = getVarint(frame);
+                    int count = frame.get() & 0xFF;
+                    Message message = new Message(Message.Type.DELTA, round, step, -1, count);
+                    for (int i = 0; i < count; i++) {
+                        int player = frame.get() & 0xFF;
+                        int flags = frame.get();
+                        int x = Message.UNCHANGED;
+                        int y = Message.UNCHANGED;
+                        Heading heading = null;
+                        int checkpoints = Message.UNCHANGED;
+                        if ((flags & CHANGED_POSITION) != 0) {
+                            x = getVarint(frame) - 1;
+                            y = getVarint(frame) - 1;
+                        }
+                        if ((flags & CHANGED_HEADING) != 0) {
+                            heading = heading(frame.get());
+                        }
+                        if ((flags & CHANGED_CHECKPOINTS) != 0) {
+                            checkpoints = getVarint(frame);
+                        }
+                        message.setRobot(i, player, x, y, heading, checkpoints);
+                    }
+                    return message;
+                }
+                case WAITING:
+                    return new Message(Message.Type.WAITING, -1, -1, frame.get() & 0xFF, 0);
+                case FINISHED:
+                    return new Message(Message.Type.FINISHED, -1, -1, frame.get(), 0);
+                case ACCEPTED:
+                    return new Message(Message.Type.ACCEPTED, frame.get(), null);
+                case ERROR: {
+                    byte request = frame.get();
+                    byte[] text = new byte[getVarint(frame)];
+                    frame.get(text);
+                    return new Message(Message.Type.ERROR, request, new String(text, StandardCharsets.UTF_8));
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown message type " + type);
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed message", e);
+        }
+    }
+
+    private static Heading heading(byte ordinal) {
+        return HEADINGS[ordinal & 0xFF];
+    }
+
+    static Command command(byte ordinal) {
+        int index = ordinal & 0xFF;
+        if (index >= COMMANDS.length) {
+            throw new IllegalArgumentException("Unknown command " + index);
+        }
+        return COMMANDS[index];
+    }
+
+    static void putVarint(ByteBuffer buffer, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value " + value);
+        }
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    break;
+                }
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed number");
+    }
+
+}
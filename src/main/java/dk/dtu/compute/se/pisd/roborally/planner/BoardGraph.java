@@ -0,0 +1,245 @@
+package dk.dtu.compute.se.pisd.roborally.planner;
+
+import dk.dtu.compute.se.pisd.roborally.controller.CheckPoint;
+import dk.dtu.compute.se.pisd.roborally.controller.ConveyorBelt;
+import dk.dtu.compute.se.pisd.roborally.controller.FieldAction;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Heading;
+import dk.dtu.compute.se.pisd.roborally.model.Space;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * The layout of a board in a form suitable for searching: the spaces are
+ * numbered as cells <code>y * width + x</code>, and the moves, conveyor belts
+ * and checkpoints of the board are kept in arrays indexed by cell. A state of
+ * a robot, i.e. its cell and heading, is encoded as the integer
+ * <code>cell * 4 + heading</code>, where heading is the ordinal of the
+ * {@link Heading}.
+ *
+ * A board graph is a copy of the layout at the time it was created, and it
+ * is not changed afterwards; so it can be shared between threads. If the walls
+ * or actions of the board change, a new graph needs to be created.
+ */
+public class BoardGraph {
+
+    final public static int HEADINGS = 4;
+
+    final public int width;
+    final public int height;
+
+    // the cell reached by moving one step from a cell in a heading, indexed by
+    // state; moves blocked by walls or the edge of the board stay on the cell
+    final private int[] neighbours;
+
+    // the heading of the first conveyor belt on a cell, -1 if there is none
+    final private byte[] conveyors;
+
+    // the number of the first checkpoint on a cell, 0 if there is none, and
+    // whether it comes before the conveyor belt (if any) on the same cell
+    final private int[] checkpoints;
+    final private boolean[] checkpointFirst;
+
+    // the first cell with checkpoint i, -1 if there is none
+    final private int[] checkpointCells;
+
+    final private int lastCheckpoint;
+
+    final private int hash;
+
+    private BoardGraph(Board board) {
+        width = board.width;
+        height = board.height;
+        int cells = width * height;
+        neighbours = new int[cells * HEADINGS];
+        conveyors = new byte[cells];
+        checkpoints = new int[cells];
+        checkpointFirst = new boolean[cells];
+
+        int last = 0;
+        int maxCheckpoint = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int cell = y * width + x;
+                Space space = board.getSpace(x, y);
+                for (Heading heading : Heading.values()) {
+                    Space neighbour = board.getNeighbour(space, heading);
+                    neighbours[cell * HEADINGS + heading.ordinal()] = neighbour.y * width + neighbour.x;
+                }
+
+                conveyors[cell] = -1;
+                for (FieldAction action : space.getActions()) {
+                    if (action instanceof ConveyorBelt && conveyors[cell] < 0) {
+                        Heading heading = ((ConveyorBelt) action).getHeading();
+                        if (heading != null) {
+                            conveyors[cell] = (byte) heading.ordinal();
+                        }
+                    } else if (action instanceof CheckPoint && checkpoints[cell] == 0) {
+                        CheckPoint checkPoint = (CheckPoint) action;
+                        checkpoints[cell] = checkPoint.getNumber();
+                        checkpointFirst[cell] = conveyors[cell] < 0;
+                        maxCheckpoint = Math.max(maxCheckpoint, checkPoint.getNumber());
+                        if (checkPoint.isLast()) {
+                            last = Math.max(last, checkPoint.getNumber());
+                        }
+                    }
+                }
+            }
+        }
+
+        checkpointCells = new int[maxCheckpoint + 1];
+        Arrays.fill(checkpointCells, -1);
+        for (int cell = 0; cell < cells; cell++) {
+            int number = checkpoints[cell];
+            if (number > 0 && checkpointCells[number] < 0) {
+                checkpointCells[number] = cell;
+            }
+        }
+        lastCheckpoint = last > 0 ? last : maxCheckpoint;
+
+        int h = 31 * width + height;
+        h = 31 * h + Arrays.hashCode(neighbours);
+        h = 31 * h + Arrays.hashCode(conveyors);
+        h = 31 * h + Arrays.hashCode(checkpoints);
+        h = 31 * h + Arrays.hashCode(checkpointFirst);
+        hash = 31 * h + lastCheckpoint;
+    }
+
+    /**
+     * Creates the graph for the current layout of the given board.
+     *
+     * @param board the board
+     * @return the graph of the board
+     */
+    public static BoardGraph of(@NotNull Board board) {
+        return new BoardGraph(board);
+    }
+
+    public int getCells() {
+        return width * height;
+    }
+
+    public int getStates() {
+        return width * height * HEADINGS;
+    }
+
+    public int cell(int x, int y) {
+        return y * width + x;
+    }
+
+    public int x(int cell) {
+        return cell % width;
+    }
+
+    public int y(int cell) {
+        return cell / width;
+    }
+
+    /**
+     * Returns the cell reached by moving one step from the given cell in the
+     * given heading, ignoring other robots. If the move is blocked, this is
+     * the given cell.
+     *
+     * @param cell the cell
+     * @param heading the ordinal of the heading
+     * @return the cell after the move
+     */
+    public int neighbour(int cell, int heading) {
+        return neighbours[cell * HEADINGS + heading];
+    }
+
+    /**
+     * Returns the ordinal of the heading of the conveyor belt on the given
+     * cell, or -1 if there is none.
+     *
+     * @param cell the cell
+     * @return the heading of the conveyor belt or -1
+     */
+    public int conveyor(int cell) {
+        return conveyors[cell];
+    }
+
+    /**
+     * Returns the number of the checkpoint on the given cell, or 0 if there
+     * is none.
+     *
+     * @param cell the cell
+     * @return the number of the checkpoint or 0
+     */
+    public int checkpoint(int cell) {
+        return checkpoints[cell];
+    }
+
+    /**
+     * Returns whether the checkpoint on the given cell is checked before the
+     * conveyor belt on the same cell moves the robot away (the field actions
+     * of a space are executed in order).
+     *
+     * @param cell the cell
+     * @return true if the checkpoint comes before the conveyor belt
+     */
+    public boolean isCheckpointFirst(int cell) {
+        return checkpointFirst[cell];
+    }
+
+    /**
+     * Returns the cell of the checkpoint with the given number, or -1
+     * if there is no such checkpoint.
+     *
+     * @param number the number of the checkpoint
+     * @return the cell of the checkpoint or -1
+     */
+    public int checkpointCell(int number) {
+        return number > 0 && number < checkpointCells.length ? checkpointCells[number] : -1;
+    }
+
+    /**
+     * Returns the number of the last checkpoint of the board, 0 if the
+     * board has no checkpoints.
+     *
+     * @return the number of the last checkpoint
+     */
+    public int getLastCheckpoint() {
+        return lastCheckpoint;
+    }
+
+    /**
+     * Returns the Manhattan distance between two cells.
+     *
+     * @param cell1 the first cell
+     * @param cell2 the second cell
+     * @return the distance between the cells
+     */
+    public int distance(int cell1, int cell2) {
+        return Math.abs(x(cell1) - x(cell2)) + Math.abs(y(cell1) - y(cell2));
+    }
+
+    /**
+     * Two graphs are equal if they have the same layout, i.e. the same
+     * moves, conveyor belts and checkpoints; so graphs (and results computed
+     * from them) can be used as keys for caching.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BoardGraph)) {
+            return false;
+        }
+        BoardGraph other = (BoardGraph) o;
+        return hash == other.hash && width == other.width && height == other.height &&
+                lastCheckpoint == other.lastCheckpoint &&
+                Arrays.equals(neighbours, other.neighbours) &&
+                Arrays.equals(conveyors, other.conveyors) &&
+                Arrays.equals(checkpoints, other.checkpoints) &&
+                Arrays.equals(checkpointFirst, other.checkpointFirst);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+}
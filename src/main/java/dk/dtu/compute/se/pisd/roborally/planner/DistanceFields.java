@@ -0,0 +1,183 @@
+package dk.dtu.compute.se.pisd.roborally.planner;
+
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Heading;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The distance of every state of a robot (cell and heading) to every
+ * checkpoint of a board, measured in registers: the minimal number of
+ * registers it takes the robot to reach the checkpoint, taking walls
+ * and conveyor belts into account, but not other robots. With the fields,
+ * candidate programs can be scored by a lookup instead of a search.
+ *
+ * The fields are computed by a backward breadth-first search from the
+ * checkpoints over the moves of one register (see {@link Planner}), once
+ * per checkpoint; they are kept in one <code>short</code> array per
+ * checkpoint, indexed by the state of the {@link BoardGraph}.
+ *
+ * Since the computation takes a while for big boards, the fields are cached
+ * for each layout. The cache does not keep fields alive on its own; they
+ * are kept as long as the board template they were computed for is cached
+ * by {@link dk.dtu.compute.se.pisd.roborally.fileaccess.LoadBoard} or as
+ * long as someone else uses them. Distance fields are not changed after
+ * construction, so they can be shared between threads.
+ */
+public class DistanceFields {
+
+    /**
+     * The distance of states from which a checkpoint cannot be reached.
+     */
+    final public static int UNREACHABLE = Short.MAX_VALUE;
+
+    // guarded by the map itself
+    final private static Map<BoardGraph, WeakReference<DistanceFields>> cache = new WeakHashMap<>();
+
+    final private BoardGraph graph;
+
+    // the distances to checkpoint i, indexed by state
+    final private short[][] distances;
+
+    private DistanceFields(BoardGraph graph) {
+        this.graph = graph;
+        int states = graph.getStates();
+        int commands = Planner.COMMANDS.length;
+
+        // the successor states of all states and the checkpoints counted on the way
+        Planner planner = new Planner(graph);
+        int[] next = new int[states * commands];
+        int[] counted = new int[states * commands];
+        int[] predecessors = new int[states + 1];
+        for (int state = 0; state < states; state++) {
+            for (int c = 0; c < commands; c++) {
+                int target = planner.apply(state, c);
+                next[state * commands + c] = target;
+                counted[state * commands + c] = planner.getCounted();
+                predecessors[target + 1]++;
+            }
+        }
+
+        // the predecessors of all states in compressed form: the predecessors
+        // of state s are edges[predecessors[s]] to edges[predecessors[s+1]-1]
+        for (int state = 0; state < states; state++) {
+            predecessors[state + 1] += predecessors[state];
+        }
+        int[] edges = new int[states * commands];
+        int[] fill = Arrays.copyOf(predecessors, states);
+        for (int i = 0; i < next.length; i++) {
+            edges[fill[next[i]]++] = i / commands;
+        }
+
+        distances = new short[graph.getLastCheckpoint() + 1][];
+        int[] queue = new int[states];
+        for (int checkpoint = 1; checkpoint < distances.length; checkpoint++) {
+            short[] distance = new short[states];
+            Arrays.fill(distance, (short) UNREACHABLE);
+
+            // the states from which the checkpoint is reached in one register
+            int tail = 0;
+            for (int i = 0; i < counted.length; i++) {
+                int state = i / commands;
+                if (counted[i] == checkpoint && distance[state] != 1) {
+                    distance[state] = 1;
+                    queue[tail++] = state;
+                }
+            }
+            for (int head = 0; head < tail; head++) {
+                int state = queue[head];
+                short d = (short) Math.min(distance[state] + 1, UNREACHABLE - 1);
+                for (int i = predecessors[state]; i < predecessors[state + 1]; i++) {
+                    int predecessor = edges[i];
+                    if (distance[predecessor] == UNREACHABLE) {
+                        distance[predecessor] = d;
+                        queue[tail++] = predecessor;
+                    }
+                }
+            }
+            distances[checkpoint] = distance;
+        }
+    }
+
+    /**
+     * Returns the distance fields for the current layout of the board,
+     * computing them if they are not cached yet.
+     *
+     * @param board the board
+     * @return the distance fields
+     */
+    public static DistanceFields of(@NotNull Board board) {
+        return of(BoardGraph.of(board));
+    }
+
+    /**
+     * Returns the distance fields for the graph of a board, computing them
+     * if they are not cached yet.
+     *
+     * @param graph the graph of the board
+     * @return the distance fields
+     */
+    public static DistanceFields of(@NotNull BoardGraph graph) {
+        synchronized (cache) {
+            WeakReference<DistanceFields> reference = cache.get(graph);
+            DistanceFields fields = reference != null ? reference.get() : null;
+            if (fields != null) {
+                return fields;
+            }
+        }
+        // computed outside of the lock, so that other boards are not blocked;
+        // if two threads compute the same fields, the first one is kept
+        DistanceFields fields = new DistanceFields(graph);
+        synchronized (cache) {
+            WeakReference<DistanceFields> reference = cache.get(graph);
+            DistanceFields cached = reference != null ? reference.get() : null;
+            if (cached != null) {
+                return cached;
+            }
+            // the key is the graph of the fields, so that the entry stays
+            // as long as the fields are used
+            cache.put(fields.graph, new WeakReference<>(fields));
+            return fields;
+        }
+    }
+
+    public BoardGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the number of registers needed for reaching the checkpoint from
+     * the given state, or {@link #UNREACHABLE}. The robot is assumed to have
+     * reached the previous checkpoints already; 0 is returned for checkpoints
+     * which do not exist.
+     *
+     * @param checkpoint the number of the checkpoint
+     * @param state the state (see {@link BoardGraph})
+     * @return the distance in registers
+     */
+    public int distance(int checkpoint, int state) {
+        if (checkpoint <= 0 || checkpoint >= distances.length) {
+            return 0;
+        }
+        return distances[checkpoint][state];
+    }
+
+    /**
+     * Returns the number of registers needed for reaching the checkpoint
+     * from the given position and heading, or {@link #UNREACHABLE}.
+     *
+     * @param checkpoint the number of the checkpoint
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param heading the heading
+     * @return the distance in registers
+     */
+    public int distance(int checkpoint, int x, int y, @NotNull Heading heading) {
+        return distance(checkpoint, graph.cell(x, y) * BoardGraph.HEADINGS + heading.ordinal());
+    }
+
+}
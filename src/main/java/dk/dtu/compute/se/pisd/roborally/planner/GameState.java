@@ -0,0 +1,384 @@
+package dk.dtu.compute.se.pisd.roborally.planner;
+
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.Heading;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import dk.dtu.compute.se.pisd.roborally.model.Space;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * An immutable snapshot of the robots of a game: the cell, heading and
+ * number of checkpoints reached of each robot, packed into one
+ * <code>long</code> per robot, together with the current step (register)
+ * and the winner. The static layout of the board is shared with all states
+ * of the game in a {@link BoardGraph}.
+ *
+ * The transitions {@link #apply(int, Command)} and {@link #endRegister()}
+ * follow the rules of the
+ * {@link dk.dtu.compute.se.pisd.roborally.controller.GameController}, and
+ * return a new state; a transition which does not change anything, like a
+ * move against a wall, returns the same state without allocating anything.
+ * This makes states cheap enough for searching programs, for undoing moves
+ * (see {@link #applyTo(Board)}) and for computing the changes between two
+ * points of a game.
+ *
+ * Each state has a Zobrist hash of its robots and step (see {@link #hash()}),
+ * which the transitions update incrementally; it is used as the key of
+ * states in a {@link TranspositionTable}.
+ */
+public final class GameState {
+
+    // the layout of a robot: the cell plus one (0 if the robot is not on the
+    // board) in the lower 32 bits, then 2 bits heading and 16 bits checkpoints
+    final private static int HEADING_SHIFT = 32;
+    final private static int CHECKPOINTS_SHIFT = 34;
+    final private static long CELL_MASK = 0xFFFFFFFFL;
+    final private static long HEADING_MASK = 3L << HEADING_SHIFT;
+    final private static long CHECKPOINTS_MASK = 0xFFFFL << CHECKPOINTS_SHIFT;
+
+    final private BoardGraph graph;
+
+    final private long[] robots;
+
+    final private int winner;
+
+    final private int step;
+
+    final private long hash;
+
+    private GameState(BoardGraph graph, long[] robots, int winner, int step, long hash) {
+        this.graph = graph;
+        this.robots = robots;
+        this.winner = winner;
+        this.step = step;
+        this.hash = hash;
+    }
+
+    private GameState(BoardGraph graph, long[] robots, int step) {
+        this.graph = graph;
+        this.robots = robots;
+        this.winner = -1;
+        this.step = step;
+        long h = Zobrist.step(step);
+        for (int i = 0; i < robots.length; i++) {
+            h ^= Zobrist.cell(i, getCell(i)) ^ Zobrist.heading(i, getHeading(i)) ^
+                    Zobrist.checkpoints(i, getCheckpoints(i));
+        }
+        this.hash = h;
+    }
+
+    /**
+     * Creates the state of the robots on the given board.
+     *
+     * @param board the board
+     * @return the state of the board
+     */
+    public static GameState of(@NotNull Board board) {
+        return of(BoardGraph.of(board), board);
+    }
+
+    /**
+     * Creates the state of the robots on the given board, sharing the
+     * given graph, which must be the graph of the board.
+     *
+     * @param graph the graph of the board
+     * @param board the board
+     * @return the state of the board
+     */
+    public static GameState of(@NotNull BoardGraph graph, @NotNull Board board) {
+        long[] robots = new long[board.getPlayersNumber()];
+        for (int i = 0; i < robots.length; i++) {
+            Player player = board.getPlayer(i);
+            Space space = player.getSpace();
+            int cell = space != null ? graph.cell(space.x, space.y) : -1;
+            robots[i] = pack(cell, player.getHeading().ordinal(), player.getCheckpointsReached());
+        }
+        return new GameState(graph, robots, board.getStep());
+    }
+
+    /**
+     * Creates a state at step 0 from the given values; the arrays are copied.
+     *
+     * @param graph the graph of the board
+     * @param cells the cells of the robots, -1 for robots not on the board
+     * @param headings the ordinals of the headings of the robots
+     * @param checkpoints the number of checkpoints reached by the robots
+     * @return the state
+     */
+    public static GameState of(@NotNull BoardGraph graph, int[] cells, int[] headings, int[] checkpoints) {
+        long[] robots = new long[cells.length];
+        for (int i = 0; i < robots.length; i++) {
+            robots[i] = pack(cells[i], headings[i], checkpoints[i]);
+        }
+        return new GameState(graph, robots, 0);
+    }
+
+    private static long pack(int cell, int heading, int checkpoints) {
+        return (cell + 1 & CELL_MASK) | ((long) heading << HEADING_SHIFT) | ((long) checkpoints << CHECKPOINTS_SHIFT);
+    }
+
+    public BoardGraph getGraph() {
+        return graph;
+    }
+
+    public int getRobots() {
+        return robots.length;
+    }
+
+    /**
+     * Returns the cell of the robot, -1 if the robot is not on the board.
+     *
+     * @param robot the number of the robot (player)
+     * @return the cell of the robot
+     */
+    public int getCell(int robot) {
+        return (int) (robots[robot] & CELL_MASK) - 1;
+    }
+
+    public int getHeading(int robot) {
+        return (int) ((robots[robot] & HEADING_MASK) >>> HEADING_SHIFT);
+    }
+
+    public int getCheckpoints(int robot) {
+        return (int) ((robots[robot] & CHECKPOINTS_MASK) >>> CHECKPOINTS_SHIFT);
+    }
+
+    /**
+     * Returns the state of the robot as encoded in the search of the
+     * {@link BoardGraph}, i.e. its cell and heading.
+     *
+     * @param robot the number of the robot (player)
+     * @return the state of the robot in the board graph
+     */
+    public int getGraphState(int robot) {
+        return getCell(robot) * BoardGraph.HEADINGS + getHeading(robot);
+    }
+
+    /**
+     * Returns the step, i.e. the number of the current register. The step
+     * is counted up by {@link #endRegister()} without bounds, so it is the
+     * number of registers since the start of the search in a search.
+     *
+     * @return the step
+     */
+    public int getStep() {
+        return step;
+    }
+
+    /**
+     * Returns the Zobrist hash of the robots and the step of this state.
+     * Equal states have the same hash; the winner is not part of the hash,
+     * since it follows from the checkpoints reached.
+     *
+     * @return the 64 bit hash of this state
+     */
+    public long hash() {
+        return hash;
+    }
+
+    /**
+     * Returns the number of the robot (player) which won the game by reaching
+     * the last checkpoint in some transition from the initial state, -1 if none.
+     *
+     * @return the number of the winner or -1
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * Returns the state after the robot executed the command, pushing other
+     * robots if possible. Interactive commands do nothing, like in the game
+     * controller; the chosen option needs to be applied instead. After the
+     * game was won, nothing changes anymore.
+     *
+     * @param robot the number of the robot (player)
+     * @param command the command
+     * @return the new state, or this state if nothing changed
+     */
+    public GameState apply(int robot, @NotNull Command command) {
+        if (winner >= 0 || getCell(robot) < 0) {
+            return this;
+        }
+        int heading = getHeading(robot);
+        switch (command) {
+            case FORWARD:
+                return move(robot, heading);
+            case FAST_FORWARD:
+                return move(robot, heading).move(robot, heading);
+            case BACKWARDS:
+                return move(robot, (heading + 2) & 3);
+            case RIGHT:
+                return turn(robot, (heading + 1) & 3);
+            case LEFT:
+                return turn(robot, (heading + 3) & 3);
+            case U_TURN:
+                return turn(robot, (heading + 2) & 3);
+            default:
+                return this;
+        }
+    }
+
+    /**
+     * Returns the state after the field actions of the register were executed:
+     * for each robot in the order of the players, the actions of its space are
+     * executed, i.e. conveyor belts move the robot and checkpoints are counted.
+     * Then the step is counted up, unless the game is over.
+     *
+     * @return the new state
+     */
+    public GameState endRegister() {
+        if (winner >= 0) {
+            return this;
+        }
+        GameState state = this;
+        for (int robot = 0; robot < robots.length; robot++) {
+            int cell = state.getCell(robot);
+            if (cell < 0) {
+                continue;
+            }
+            int conveyor = graph.conveyor(cell);
+            if (conveyor >= 0 && !graph.isCheckpointFirst(cell)) {
+                state = state.move(robot, conveyor);
+                if (state.getCell(robot) == cell) {
+                    state = state.reachCheckpoint(robot, cell);
+                }
+            } else {
+                state = state.reachCheckpoint(robot, cell);
+                if (conveyor >= 0) {
+                    state = state.move(robot, conveyor);
+                }
+            }
+        }
+        // the robots array is immutable, so it can be shared
+        return new GameState(graph, state.robots, state.winner, step + 1,
+                state.hash ^ Zobrist.step(step) ^ Zobrist.step(step + 1));
+    }
+
+    /**
+     * Returns the state after the robot executed the command and the field
+     * actions were executed, where the other robots did nothing.
+     *
+     * @param robot the number of the robot (player)
+     * @param command the command
+     * @return the new state
+     */
+    public GameState register(int robot, @NotNull Command command) {
+        return apply(robot, command).endRegister();
+    }
+
+    private GameState turn(int robot, int heading) {
+        long[] result = robots.clone();
+        result[robot] = (result[robot] & ~HEADING_MASK) | ((long) heading << HEADING_SHIFT);
+        return new GameState(graph, result, winner, step,
+                hash ^ Zobrist.heading(robot, getHeading(robot)) ^ Zobrist.heading(robot, heading));
+    }
+
+    /**
+     * Moves the robot one step, pushing the chain of robots in front of it
+     * like the game controller's moveToSpace; blocked moves change nothing.
+     */
+    private GameState move(int robot, int heading) {
+        int cell = getCell(robot);
+        int target = graph.neighbour(cell, heading);
+        if (target == cell) {
+            return this;
+        }
+        // first check that the whole chain can be pushed, then copy the state
+        int end = target;
+        while (robotAt(end) >= 0) {
+            int next = graph.neighbour(end, heading);
+            if (next == end) {
+                return this;
+            }
+            end = next;
+        }
+        long[] result = robots.clone();
+        long h = hash;
+        int pusher = robot;
+        for (int from = cell; from != end; ) {
+            int to = graph.neighbour(from, heading);
+            int pushed = robotAt(to);
+            result[pusher] = (result[pusher] & ~CELL_MASK) | (to + 1);
+            h ^= Zobrist.cell(pusher, from) ^ Zobrist.cell(pusher, to);
+            pusher = pushed;
+            from = to;
+        }
+        return new GameState(graph, result, winner, step, h);
+    }
+
+    private GameState reachCheckpoint(int robot, int cell) {
+        int number = graph.checkpoint(cell);
+        if (number == 0 || number != getCheckpoints(robot) + 1) {
+            return this;
+        }
+        long[] result = robots.clone();
+        result[robot] = (result[robot] & ~CHECKPOINTS_MASK) | ((long) number << CHECKPOINTS_SHIFT);
+        return new GameState(graph, result, number >= graph.getLastCheckpoint() ? robot : winner, step,
+                hash ^ Zobrist.checkpoints(robot, number - 1) ^ Zobrist.checkpoints(robot, number));
+    }
+
+    private int robotAt(int cell) {
+        long value = cell + 1;
+        for (int i = 0; i < robots.length; i++) {
+            if ((robots[i] & CELL_MASK) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Sets the positions, headings and checkpoints of the players of the board
+     * to this state, e.g. for undoing moves. The board must have the layout
+     * of the graph of this state and the same number of players. The phase
+     * and step of the game and the winner are not changed.
+     *
+     * @param board the board
+     */
+    public void applyTo(@NotNull Board board) {
+        if (board.getPlayersNumber() != robots.length || board.width != graph.width || board.height != graph.height) {
+            throw new IllegalArgumentException("The board does not match the state");
+        }
+        // first remove all robots, so that they do not block each other's spaces
+        for (int i = 0; i < robots.length; i++) {
+            Player player = board.getPlayer(i);
+            int cell = getCell(i);
+            Space space = player.getSpace();
+            if (space == null || cell < 0 || graph.cell(space.x, space.y) != cell) {
+                player.setSpace(null);
+            }
+        }
+        for (int i = 0; i < robots.length; i++) {
+            Player player = board.getPlayer(i);
+            int cell = getCell(i);
+            if (cell >= 0) {
+                player.setSpace(board.getSpace(graph.x(cell), graph.y(cell)));
+            }
+            player.setHeading(Heading.values()[getHeading(i)]);
+            player.setCheckpointsReached(getCheckpoints(i));
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof GameState)) {
+            return false;
+        }
+        GameState other = (GameState) o;
+        return hash == other.hash && winner == other.winner && step == other.step &&
+                Arrays.equals(robots, other.robots) && graph.equals(other.graph);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+}
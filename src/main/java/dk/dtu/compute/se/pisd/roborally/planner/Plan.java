@@ -0,0 +1,56 @@
+package dk.dtu.compute.se.pisd.roborally.planner;
+
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+
+import java.util.List;
+
+/**
+ * The result of planning: the commands for the first registers of a program,
+ * which bring the robot to its next checkpoint, or as close to it as possible
+ * if the checkpoint cannot be reached within the registers of one program.
+ * The remaining registers can be programmed arbitrarily.
+ */
+public class Plan {
+
+    /**
+     * The number of the checkpoint which was planned for, 0 if there is
+     * no checkpoint left to reach.
+     */
+    final public int checkpoint;
+
+    /**
+     * Whether the commands reach the checkpoint.
+     */
+    final public boolean reachesCheckpoint;
+
+    /**
+     * The Manhattan distance between the robot and the checkpoint after
+     * the commands were executed; 0 if the checkpoint is reached.
+     */
+    final public int distance;
+
+    final private List<Command> commands;
+
+    Plan(int checkpoint, boolean reachesCheckpoint, int distance, List<Command> commands) {
+        this.checkpoint = checkpoint;
+        this.reachesCheckpoint = reachesCheckpoint;
+        this.distance = distance;
+        this.commands = List.copyOf(commands);
+    }
+
+    /**
+     * Returns the commands for the first registers of the program.
+     *
+     * @return an unmodifiable list of commands
+     */
+    public List<Command> getCommands() {
+        return commands;
+    }
+
+    @Override
+    public String toString() {
+        return (reachesCheckpoint ? "reaches" : "approaches") + " checkpoint " + checkpoint + " with " + commands +
+                (reachesCheckpoint ? "" : " (distance " + distance + ")");
+    }
+
+}
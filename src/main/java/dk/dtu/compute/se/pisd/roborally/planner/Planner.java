@@ -0,0 +1,274 @@
+package dk.dtu.compute.se.pisd.roborally.planner;
+
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import dk.dtu.compute.se.pisd.roborally.model.Space;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds the shortest program which brings a robot to its next checkpoint.
+ * The planner does a breadth-first search over the states (cell and heading)
+ * of the robot on a {@link BoardGraph}, register by register, up to the number
+ * of registers of a program. In each register, the robot executes one of the
+ * commands (moves are blocked by walls and the edge of the board, and other
+ * robots are pushed if possible) and then the field actions of its cell are
+ * executed: conveyor belts move the robot, and the checkpoint is reached if
+ * the robot ends the register on it. This follows the rules of the
+ * {@link dk.dtu.compute.se.pisd.roborally.controller.GameController}.
+ *
+ * Since the search is breadth-first, the first program reaching the
+ * checkpoint needs the fewest registers. If the checkpoint cannot be reached
+ * within one program, the program ending closest to the checkpoint
+ * (Manhattan distance) is returned.
+ *
+ * Simplifications: the other robots are assumed to stay where they are
+ * during the whole program, i.e. they block pushes as they are now, but their
+ * own moves and the positions they are pushed to are not taken into account;
+ * and the program may use each command any number of times, independently of
+ * the cards dealt to the player. {@link Command#LEFT_OR_RIGHT} is not used,
+ * since it is equivalent to a {@link Command#LEFT} or {@link Command#RIGHT}.
+ *
+ * The arrays of the search are allocated once per planner and reused for each
+ * search; so planning is fast, but a planner must not be used by more than
+ * one thread at a time.
+ */
+public class Planner {
+
+    /**
+     * The commands used in plans.
+     */
+    final public static Command[] COMMANDS = {
+            Command.FORWARD, Command.FAST_FORWARD, Command.BACKWARDS,
+            Command.RIGHT, Command.LEFT, Command.U_TURN };
+
+    final private BoardGraph graph;
+
+    final private int registers;
+
+    // The search arrays, indexed by state. A state was visited in the
+    // current search if its stamp equals the current generation, which
+    // saves clearing the arrays for every search.
+    final private int[] stamp;
+    final private int[] parent;
+    final private byte[] parentCommand;
+    final private int[] queue;
+    private int generation = 0;
+
+    // the cells occupied by other robots during the current search
+    final private boolean[] occupied;
+
+    // the number of the checkpoint counted in the last call of apply(), 0 if none
+    private int counted;
+
+    /**
+     * Creates a planner for programs with the number of registers of a player.
+     *
+     * @param graph the graph of the board
+     */
+    public Planner(@NotNull BoardGraph graph) {
+        this(graph, Player.NO_REGISTERS);
+    }
+
+    /**
+     * Creates a planner for programs with the given number of registers.
+     *
+     * @param graph the graph of the board
+     * @param registers the number of registers of a program
+     */
+    public Planner(@NotNull BoardGraph graph, int registers) {
+        this.graph = graph;
+        this.registers = registers;
+        int states = graph.getStates();
+        stamp = new int[states];
+        parent = new int[states];
+        parentCommand = new byte[states];
+        queue = new int[states];
+        occupied = new boolean[graph.getCells()];
+    }
+
+    /**
+     * Plans the program of the given player for reaching its next checkpoint,
+     * where the other players of the board are obstacles, which can be pushed.
+     *
+     * @param player the player
+     * @return the plan
+     */
+    public Plan plan(@NotNull Player player) {
+        Board board = player.board;
+        List<Integer> others = new ArrayList<>();
+        for (int i = 0; i < board.getPlayersNumber(); i++) {
+            Player other = board.getPlayer(i);
+            Space space = other.getSpace();
+            if (other != player && space != null) {
+                others.add(graph.cell(space.x, space.y));
+            }
+        }
+        int[] obstacles = others.stream().mapToInt(Integer::intValue).toArray();
+
+        Space space = player.getSpace();
+        return plan(graph.cell(space.x, space.y), player.getHeading().ordinal(),
+                player.getCheckpointsReached(), obstacles);
+    }
+
+    /**
+     * Plans a program for reaching the next checkpoint.
+     *
+     * @param cell the cell of the robot
+     * @param heading the ordinal of the heading of the robot
+     * @param checkpointsReached the number of checkpoints reached already
+     * @param obstacles the cells of the other robots
+     * @return the plan
+     */
+    public Plan plan(int cell, int heading, int checkpointsReached, int[] obstacles) {
+        int target = checkpointsReached + 1;
+        int targetCell = graph.checkpointCell(target);
+        if (target > graph.getLastCheckpoint() || targetCell < 0) {
+            return new Plan(0, false, 0, List.of());
+        }
+
+        for (int obstacle : obstacles) {
+            occupied[obstacle] = true;
+        }
+        try {
+            return search(cell * BoardGraph.HEADINGS + heading, target, targetCell);
+        } finally {
+            for (int obstacle : obstacles) {
+                occupied[obstacle] = false;
+            }
+        }
+    }
+
+    private Plan search(int start, int target, int targetCell) {
+        if (++generation == 0) {
+            // the stamps wrapped around, so they need to be cleared once
+            Arrays.fill(stamp, 0);
+            generation = 1;
+        }
+
+        int head = 0;
+        int tail = 0;
+        stamp[start] = generation;
+        parent[start] = -1;
+        queue[tail++] = start;
+
+        int best = start;
+        int bestDistance = graph.distance(start / BoardGraph.HEADINGS, targetCell);
+
+        for (int depth = 0; depth < registers && head < tail; depth++) {
+            int levelEnd = tail;
+            while (head < levelEnd) {
+                int state = queue[head++];
+                for (int c = 0; c < COMMANDS.length; c++) {
+                    int next = apply(state, c);
+                    if (counted == target) {
+                        // the goal test is on the transition, since the same state
+                        // might be reached without hitting the checkpoint
+                        List<Command> commands = path(state);
+                        commands.add(COMMANDS[c]);
+                        return new Plan(target, true, 0, commands);
+                    }
+                    if (stamp[next] != generation) {
+                        stamp[next] = generation;
+                        parent[next] = state;
+                        parentCommand[next] = (byte) c;
+                        queue[tail++] = next;
+
+                        int distance = graph.distance(next / BoardGraph.HEADINGS, targetCell);
+                        if (distance < bestDistance) {
+                            best = next;
+                            bestDistance = distance;
+                        }
+                    }
+                }
+            }
+        }
+        return new Plan(target, false, bestDistance, path(best));
+    }
+
+    /**
+     * Returns the number of the checkpoint counted in the last call of
+     * {@link #apply(int, int)}, 0 if none.
+     */
+    int getCounted() {
+        return counted;
+    }
+
+    private List<Command> path(int state) {
+        List<Command> commands = new ArrayList<>();
+        for (int s = state; parent[s] >= 0; s = parent[s]) {
+            commands.add(0, COMMANDS[parentCommand[s]]);
+        }
+        return commands;
+    }
+
+    /**
+     * Computes the state after executing the command with the given index in
+     * {@link #COMMANDS} and the field actions in one register, and sets
+     * {@link #counted} to the number of the checkpoint the robot reaches in
+     * this register (0 if none).
+     */
+    int apply(int state, int command) {
+        int cell = state / BoardGraph.HEADINGS;
+        int heading = state % BoardGraph.HEADINGS;
+        switch (COMMANDS[command]) {
+            case FORWARD:
+                cell = step(cell, heading);
+                break;
+            case FAST_FORWARD:
+                cell = step(step(cell, heading), heading);
+                break;
+            case BACKWARDS:
+                cell = step(cell, (heading + 2) & 3);
+                break;
+            case RIGHT:
+                heading = (heading + 1) & 3;
+                break;
+            case LEFT:
+                heading = (heading + 3) & 3;
+                break;
+            case U_TURN:
+                heading = (heading + 2) & 3;
+                break;
+            default:
+                break;
+        }
+
+        // field actions: the checkpoint counts if the robot is (still) on it
+        int checkpoint = graph.checkpoint(cell);
+        int conveyor = graph.conveyor(cell);
+        if (conveyor >= 0) {
+            int moved = step(cell, conveyor);
+            counted = graph.isCheckpointFirst(cell) || moved == cell ? checkpoint : 0;
+            cell = moved;
+        } else {
+            counted = checkpoint;
+        }
+        return cell * BoardGraph.HEADINGS + heading;
+    }
+
+    /**
+     * Moves one step, pushing other robots if possible; returns the cell
+     * itself if the move (or the push) is blocked.
+     */
+    private int step(int cell, int heading) {
+        int next = graph.neighbour(cell, heading);
+        if (next == cell) {
+            return cell;
+        }
+        // a chain of robots can be pushed if the cell after it is free
+        for (int pushed = next; occupied[pushed]; ) {
+            int after = graph.neighbour(pushed, heading);
+            if (after == pushed) {
+                return cell;
+            }
+            pushed = after;
+        }
+        return next;
+    }
+
+}
@@ -0,0 +1,82 @@
+package dk.dtu.compute.se.pisd.roborally.planner;
+
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+
+import java.util.Arrays;
+
+/**
+ * The result of a {@link ProgramSearch}: the cards of the hand to be put
+ * into the registers of the program, and for interactive cards the option
+ * to be chosen when the card is executed.
+ */
+public class Program {
+
+    /**
+     * The score of the program: higher is better.
+     */
+    final public long score;
+
+    /**
+     * The number of programs which were simulated to find this one.
+     */
+    final public long evaluated;
+
+    final private int[] cards;
+    final private Command[] commands;
+    final private Command[] options;
+
+    Program(long score, long evaluated, int[] cards, Command[] commands, Command[] options) {
+        this.score = score;
+        this.evaluated = evaluated;
+        this.cards = cards;
+        this.commands = commands;
+        this.options = options;
+    }
+
+    /**
+     * Returns the number of registers of the program.
+     *
+     * @return the number of registers
+     */
+    public int getRegisters() {
+        return cards.length;
+    }
+
+    /**
+     * Returns the index of the card in the hand of the player which is to be
+     * put into the given register.
+     *
+     * @param register the register
+     * @return the index of the card in the hand
+     */
+    public int getCard(int register) {
+        return cards[register];
+    }
+
+    /**
+     * Returns the command of the card in the given register.
+     *
+     * @param register the register
+     * @return the command
+     */
+    public Command getCommand(int register) {
+        return commands[register];
+    }
+
+    /**
+     * Returns the option to be chosen when the interactive card in the given
+     * register is executed, or {@code null} if the card is not interactive.
+     *
+     * @param register the register
+     * @return the option or {@code null}
+     */
+    public Command getOption(int register) {
+        return options[register];
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(commands) + " (score " + score + ", " + evaluated + " programs evaluated)";
+    }
+
+}
@@ -0,0 +1,362 @@
+package dk.dtu.compute.se.pisd.roborally.planner;
+
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.CommandCard;
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * An AI for programming robots: the search simulates all programs which can
+ * be made from the cards dealt to a player and picks the one which brings the
+ * robot furthest: programs reaching more checkpoints are better, and among
+ * those, the ones ending closer to the next checkpoint according to the
+ * {@link DistanceFields}.
+ *
+ * The programs are simulated on the immutable {@link GameState} of the
+ * robots, following the rules of the
+ * {@link dk.dtu.compute.se.pisd.roborally.controller.GameController}: moves
+ * push other robots if possible, and after each register the field actions
+ * are executed for all robots in the order of the players. The other
+ * robots are assumed not to move on their own, since their programs are not
+ * known; they are moved by pushes and conveyor belts, though. Interactive
+ * cards are simulated with both options, and the better one is recorded in
+ * the program.
+ *
+ * Cards with the same command are interchangeable, so the search enumerates
+ * the distinct sequences of commands of the hand only, which are at most the
+ * 6720 ordered choices of 5 out of 8 cards, and much fewer for hands with
+ * duplicate commands. The enumeration is split into subtasks by the first
+ * commands of the programs, which are run in a {@link ForkJoinPool}. The
+ * result does not depend on the number of threads: of the programs with the
+ * same score, the first one in the order of the enumeration is chosen.
+ *
+ * Different programs often lead to the same position, e.g. turning left and
+ * then right. The best continuation from a position (state of the robots,
+ * cards left and registers left) is stored in a {@link TranspositionTable}
+ * under the Zobrist hash of the position, so each position is searched only
+ * once; the table is kept between searches, since positions of one search
+ * are likely to come up again in the next one.
+ */
+public class ProgramSearch {
+
+    // the enumeration is split into subtasks up to this register
+    final private static int SPLIT_DEPTH = 2;
+
+    final private static Command[] COMMANDS = Command.values();
+
+    // the commands which are executed for a card with the command of the index
+    final private static Command[][] OPTIONS = new Command[COMMANDS.length][];
+
+    static {
+        for (Command command : COMMANDS) {
+            OPTIONS[command.ordinal()] = command == Command.LEFT_OR_RIGHT ?
+                    new Command[] { Command.LEFT, Command.RIGHT } : new Command[] { command };
+        }
+    }
+
+    // reaching a checkpoint is worth more than any distance
+    final private static int CHECKPOINT_SCORE = DistanceFields.UNREACHABLE + 1;
+
+    final private static int WIN = Integer.MAX_VALUE;
+    final private static int LOSS = Integer.MIN_VALUE + 1;
+
+    /**
+     * The default number of entries of the transposition table.
+     */
+    final public static int TABLE_SIZE = 1 << 16;
+
+    final private DistanceFields fields;
+
+    final private BoardGraph graph;
+
+    final private ForkJoinPool pool;
+
+    final private TranspositionTable table;
+
+    final private int registers;
+
+    /**
+     * Creates a search using the common fork-join pool and a transposition
+     * table of the default size.
+     *
+     * @param fields the distance fields of the board
+     */
+    public ProgramSearch(@NotNull DistanceFields fields) {
+        this(fields, ForkJoinPool.commonPool(), new TranspositionTable(TABLE_SIZE));
+    }
+
+    /**
+     * Creates a search using the given pool. If the search is started from a
+     * task of some fork-join pool, its subtasks run in that pool instead.
+     *
+     * @param fields the distance fields of the board
+     * @param pool the pool for the subtasks of the search
+     * @param table the transposition table, or {@code null} for searching
+     *              all programs
+     */
+    public ProgramSearch(@NotNull DistanceFields fields, @NotNull ForkJoinPool pool, TranspositionTable table) {
+        this.fields = fields;
+        this.graph = fields.getGraph();
+        this.pool = pool;
+        this.table = table;
+        this.registers = Player.NO_REGISTERS;
+    }
+
+    /**
+     * Searches the best program for the player from the cards dealt to the
+     * player, given the current positions of all robots on the board.
+     *
+     * @param player the player
+     * @return the best program
+     */
+    public Program search(@NotNull Player player) {
+        Board board = player.board;
+        Command[] hand = new Command[Player.NO_CARDS];
+        for (int i = 0; i < hand.length; i++) {
+            CommandCard card = player.getCardField(i).getCard();
+            hand[i] = card != null ? card.command : null;
+        }
+        return search(board.getPlayerNumber(player), GameState.of(graph, board), hand);
+    }
+
+    /**
+     * Searches the best program for the player from the given hand, starting
+     * from the given state of the robots.
+     *
+     * @param player the number of the player
+     * @param state the state of the robots
+     * @param hand the commands of the cards of the player (may contain {@code null})
+     * @return the best program
+     */
+    public Program search(int player, @NotNull GameState state, @NotNull Command[] hand) {
+        int[] counts = new int[COMMANDS.length];
+        int cards = 0;
+        for (Command command : hand) {
+            if (command != null) {
+                counts[command.ordinal()]++;
+                cards++;
+            }
+        }
+        long cardsHash = 0;
+        for (int c = 0; c < counts.length; c++) {
+            cardsHash ^= Zobrist.cards(c, counts[c]);
+        }
+        int length = state.getCell(player) >= 0 ? Math.min(registers, cards) : 0;
+
+        SearchTask task = new SearchTask(player, 0, length, state, counts, cardsHash);
+        Result result = ForkJoinTask.inForkJoinPool() ? task.invoke() : pool.invoke(task);
+        return toProgram(result, length, hand);
+    }
+
+    private Program toProgram(Result result, int length, Command[] hand) {
+        int[] cards = new int[length];
+        Command[] commands = new Command[length];
+        Command[] options = new Command[length];
+        boolean[] used = new boolean[hand.length];
+        int key = key(result.best);
+        for (int register = 0; register < length; register++) {
+            // the key has six bits per register, the first register highest
+            int bits = key >>> (6 * (length - 1 - register));
+            Command command = COMMANDS[(bits >>> 3) & 7];
+            Command executed = COMMANDS[bits & 7];
+            commands[register] = command;
+            options[register] = executed != command ? executed : null;
+            for (int i = 0; i < hand.length; i++) {
+                if (!used[i] && hand[i] == command) {
+                    used[i] = true;
+                    cards[register] = i;
+                    break;
+                }
+            }
+        }
+        return new Program(score(result.best), result.evaluated, cards, commands, options);
+    }
+
+    // The best continuation from a position is encoded in a long: the score in
+    // the upper half and the key of the remaining registers in the lower half,
+    // where the key has six bits for each register (the command of the card
+    // and the executed command), the first register highest. Of two programs
+    // with the same score, the one with the smaller key comes first in the
+    // enumeration. No valid entry is TranspositionTable.MISS, since scores
+    // are greater than Integer.MIN_VALUE.
+
+    private static long entry(int score, int key) {
+        return ((long) score << 32) | (key & 0xFFFFFFFFL);
+    }
+
+    private static int score(long entry) {
+        return (int) (entry >> 32);
+    }
+
+    private static int key(long entry) {
+        return (int) entry;
+    }
+
+    private static long better(long entry, long other) {
+        if (other == TranspositionTable.MISS) {
+            return entry;
+        }
+        if (score(entry) != score(other)) {
+            return score(entry) > score(other) ? entry : other;
+        }
+        return key(entry) <= key(other) ? entry : other;
+    }
+
+    /**
+     * Prepends the register with the command of the card and the executed
+     * command to the best continuation of the next position.
+     */
+    private static long prepend(long entry, int command, Command executed, int remaining) {
+        int bits = (command << 3) | executed.ordinal();
+        return entry(score(entry), key(entry) | (bits << (6 * (remaining - 1))));
+    }
+
+    /**
+     * The best program of some part of the enumeration and the number of
+     * programs which were simulated for finding it.
+     */
+    private static class Result {
+
+        long best = TranspositionTable.MISS;
+        long evaluated = 0;
+
+    }
+
+    /**
+     * Searches the programs of the remaining registers from a position; the
+     * positions of the first registers are split into subtasks.
+     */
+    private class SearchTask extends RecursiveTask<Result> {
+
+        final private int player;
+        final private int depth;
+        final private int remaining;
+        final private GameState state;
+        final private int[] counts;
+        final private long cardsHash;
+
+        SearchTask(int player, int depth, int remaining, GameState state, int[] counts, long cardsHash) {
+            this.player = player;
+            this.depth = depth;
+            this.remaining = remaining;
+            this.state = state;
+            this.counts = counts;
+            this.cardsHash = cardsHash;
+        }
+
+        @Override
+        protected Result compute() {
+            Result result = new Result();
+            if (depth >= SPLIT_DEPTH || remaining == 0) {
+                result.best = search(player, remaining, state, counts, cardsHash, result);
+                return result;
+            }
+
+            List<SearchTask> tasks = new ArrayList<>();
+            List<Integer> commands = new ArrayList<>();
+            List<Command> options = new ArrayList<>();
+            for (int c = 0; c < COMMANDS.length; c++) {
+                if (counts[c] > 0) {
+                    long hash = cardsHash ^ Zobrist.cards(c, counts[c]) ^ Zobrist.cards(c, counts[c] - 1);
+                    for (Command option : OPTIONS[c]) {
+                        // each task needs its own counts, since the search
+                        // changes them while it goes down
+                        int[] left = counts.clone();
+                        left[c]--;
+                        tasks.add(new SearchTask(player, depth + 1, remaining - 1, state.register(player, option), left,
+                                hash));
+                        commands.add(c);
+                        options.add(option);
+                    }
+                }
+            }
+            invokeAll(tasks);
+            for (int i = 0; i < tasks.size(); i++) {
+                Result task = tasks.get(i).join();
+                result.evaluated += task.evaluated;
+                result.best = better(prepend(task.best, commands.get(i), options.get(i), remaining), result.best);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Returns the best continuation from the position, where counts are the
+     * numbers of cards left of each command and cardsHash their Zobrist hash.
+     */
+    private long search(int player, int remaining, GameState state, int[] counts, long cardsHash, Result result) {
+        if (remaining == 0 || state.getWinner() >= 0) {
+            // after the game is over, the remaining registers do not matter;
+            // they are filled with the first cards left
+            result.evaluated++;
+            return entry(score(state, player), fill(counts, remaining));
+        }
+
+        long hash = 0;
+        if (table != null) {
+            hash = state.hash() ^ cardsHash ^ Zobrist.player(player) ^ Zobrist.registers(remaining);
+            long entry = table.get(hash);
+            if (entry != TranspositionTable.MISS) {
+                return entry;
+            }
+        }
+
+        long best = TranspositionTable.MISS;
+        for (int c = 0; c < COMMANDS.length; c++) {
+            if (counts[c] > 0) {
+                counts[c]--;
+                long hashLeft = cardsHash ^ Zobrist.cards(c, counts[c] + 1) ^ Zobrist.cards(c, counts[c]);
+                for (Command option : OPTIONS[c]) {
+                    long entry = search(player, remaining - 1, state.register(player, option), counts, hashLeft,
+                            result);
+                    best = better(prepend(entry, c, option, remaining), best);
+                }
+                counts[c]++;
+            }
+        }
+
+        if (table != null) {
+            table.put(hash, best);
+        }
+        return best;
+    }
+
+    /**
+     * Returns the key of the first remaining registers filled with the first
+     * cards left, executing the first option of interactive cards.
+     */
+    private static int fill(int[] counts, int remaining) {
+        int key = 0;
+        int[] left = counts.clone();
+        for (int register = remaining; register > 0; register--) {
+            int c = 0;
+            while (left[c] == 0) {
+                c++;
+            }
+            left[c]--;
+            key |= ((c << 3) | OPTIONS[c][0].ordinal()) << (6 * (register - 1));
+        }
+        return key;
+    }
+
+    private int score(GameState state, int player) {
+        if (state.getCell(player) < 0) {
+            return LOSS;
+        }
+        int winner = state.getWinner();
+        if (winner >= 0) {
+            return winner == player ? WIN : LOSS;
+        }
+        int checkpoints = state.getCheckpoints(player);
+        int distance = fields.distance(checkpoints + 1, state.getGraphState(player));
+        return checkpoints * CHECKPOINT_SCORE - distance;
+    }
+
+}
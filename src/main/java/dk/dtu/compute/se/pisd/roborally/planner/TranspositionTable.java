@@ -0,0 +1,76 @@
+package dk.dtu.compute.se.pisd.roborally.planner;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size table for the results of searches, indexed by the Zobrist hash
+ * of the searched position. The table can be used by many threads at the same
+ * time without locking: each entry consists of two longs, the data and the
+ * hash xor-ed with the data. The two longs are written one after the other,
+ * so a reader might see parts of two different writes; but then the check of
+ * the xor fails and the entry is treated as missing (see Hyatt and Mann, "A
+ * lock-less transposition table implementation for parallel search").
+ *
+ * Entries are always replaced by newer ones with the same index, so the table
+ * never fills up; a lost entry just means that the position is searched again.
+ */
+public class TranspositionTable {
+
+    /**
+     * The value returned for positions which are not in the table; this
+     * value cannot be stored as data.
+     */
+    final public static long MISS = Long.MIN_VALUE;
+
+    final private AtomicLongArray entries;
+
+    final private int mask;
+
+    /**
+     * Creates a table with the given number of entries, rounded up to
+     * a power of two.
+     *
+     * @param size the number of entries
+     */
+    public TranspositionTable(int size) {
+        int capacity = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+        entries = new AtomicLongArray(2 * capacity);
+        mask = capacity - 1;
+    }
+
+    /**
+     * Returns the data stored for the hash, or {@link #MISS}.
+     *
+     * @param hash the hash of the position
+     * @return the data or {@link #MISS}
+     */
+    public long get(long hash) {
+        int index = 2 * ((int) hash & mask);
+        long check = entries.getOpaque(index);
+        long data = entries.getOpaque(index + 1);
+        // empty entries are all zero, which must not match the hash 0
+        return (check ^ data) == hash && (check | data) != 0 ? data : MISS;
+    }
+
+    /**
+     * Stores the data for the hash, replacing the entry with the same index.
+     *
+     * @param hash the hash of the position
+     * @param data the data (not {@link #MISS})
+     */
+    public void put(long hash, long data) {
+        int index = 2 * ((int) hash & mask);
+        entries.setOpaque(index, hash ^ data);
+        entries.setOpaque(index + 1, data);
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        for (int i = 0; i < entries.length(); i++) {
+            entries.setOpaque(i, 0);
+        }
+    }
+
+}
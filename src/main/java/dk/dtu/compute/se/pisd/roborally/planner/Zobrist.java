@@ -0,0 +1,69 @@
+package dk.dtu.compute.se.pisd.roborally.planner;
+
+/**
+ * The keys for Zobrist hashing of game states: each feature of a state, like
+ * robot 2 being on cell 17, has a pseudo-random 64 bit key, and the hash of a
+ * state is the xor of the keys of its features. When a feature changes, the
+ * hash is updated by xor-ing the old and the new key, which is what the
+ * transitions of {@link GameState} do.
+ *
+ * Instead of tables of random numbers, the keys are computed on demand by
+ * mixing the feature into a random-looking number with the finaliser of the
+ * SplitMix64 generator; this needs no memory, so it works for boards of any
+ * size and any number of robots, and the keys are the same in every run.
+ */
+final class Zobrist {
+
+    private static final long CELL = 1;
+    private static final long HEADING = 2;
+    private static final long CHECKPOINTS = 3;
+    private static final long STEP = 4;
+    private static final long PLAYER = 5;
+    private static final long CARDS = 6;
+    private static final long REGISTERS = 7;
+
+    private Zobrist() {
+    }
+
+    static long cell(int robot, int cell) {
+        return key(CELL, robot, cell);
+    }
+
+    static long heading(int robot, int heading) {
+        return key(HEADING, robot, heading);
+    }
+
+    static long checkpoints(int robot, int checkpoints) {
+        return key(CHECKPOINTS, robot, checkpoints);
+    }
+
+    static long step(int step) {
+        return key(STEP, 0, step);
+    }
+
+    static long player(int player) {
+        return key(PLAYER, player, 0);
+    }
+
+    /**
+     * The key for having the given number of cards with a command left.
+     */
+    static long cards(int command, int count) {
+        return key(CARDS, command, count);
+    }
+
+    /**
+     * The key for the number of registers left to be programmed.
+     */
+    static long registers(int registers) {
+        return key(REGISTERS, 0, registers);
+    }
+
+    private static long key(long kind, int index, int value) {
+        long z = (kind << 56 ^ (long) index << 32 ^ (value & 0xFFFFFFFFL)) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+}
@@ -0,0 +1,107 @@
+package dk.dtu.compute.se.pisd.roborally.server;
+
+import dk.dtu.compute.se.pisd.roborally.controller.BoardFactory;
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.CardDealer;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hosts many games in one JVM. Each game is a {@link GameSession} running on
+ * its own virtual thread; the server only keeps
+ * track of the sessions. Games are created in the same way as by the
+ * {@link dk.dtu.compute.se.pisd.roborally.controller.AppController}, but
+ * without any views.
+ */
+public class GameServer implements AutoCloseable {
+
+    final private static List<String> PLAYER_COLORS = Arrays.asList("red", "green", "blue", "orange", "grey", "magenta");
+
+    final private Map<Integer, GameSession> sessions = new ConcurrentHashMap<>();
+
+    final private AtomicInteger nextId = new AtomicInteger(1);
+
+    final private ThreadFactory threadFactory = Thread.ofVirtual().name("roborally-game-", 0).factory();
+
+    /**
+     * Creates a new game with a card dealer with the given seed and starts
+     * its session; the game is in the programming phase for the first round.
+     *
+     * @param boardName the name of the board as known by the {@link BoardFactory}
+     * @param players the number of players
+     * @param seed the seed of the card dealer
+     * @return the session of the new game
+     */
+    public GameSession createGame(String boardName, int players, long seed) {
+        if (players < 1 || players > PLAYER_COLORS.size()) {
+            throw new IllegalArgumentException("Number of players must be between 1 and " + PLAYER_COLORS.size());
+        }
+        Board board = BoardFactory.getInstance().createBoard(boardName);
+        board.setCardDealer(new CardDealer(seed));
+        GameController gameController = new GameController(board);
+        for (int i = 0; i < players; i++) {
+            Player player = new Player(board, PLAYER_COLORS.get(i), "Player " + (i + 1));
+            board.addPlayer(player);
+            player.setSpace(board.getSpace(i % board.width, i));
+        }
+        return host(gameController);
+    }
+
+    /**
+     * Hosts an existing game, e.g. one loaded from the database. From now on,
+     * the game must be accessed through its session only.
+     *
+     * @param gameController the game controller of the game
+     * @return the session of the game
+     */
+    public GameSession host(GameController gameController) {
+        GameSession session = new GameSession(nextId.getAndIncrement(), gameController, threadFactory);
+        sessions.put(session.getId(), session);
+        session.start();
+        return session;
+    }
+
+    /**
+     * Returns the session with the given id, or {@code null} if there is none.
+     *
+     * @param id the id of the session
+     * @return the session or {@code null}
+     */
+    public GameSession getSession(int id) {
+        return sessions.get(id);
+    }
+
+    public Collection<GameSession> getSessions() {
+        return new ArrayList<>(sessions.values());
+    }
+
+    /**
+     * Closes the session and removes it from the server.
+     *
+     * @param session the session
+     */
+    public void closeSession(GameSession session) {
+        sessions.remove(session.getId());
+        session.close();
+    }
+
+    /**
+     * Closes all sessions of the server.
+     */
+    @Override
+    public void close() {
+        for (GameSession session : getSessions()) {
+            closeSession(session);
+        }
+    }
+
+}
@@ -0,0 +1,335 @@
+package dk.dtu.compute.se.pisd.roborally.server;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.controller.GameEventListener;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.CommandCard;
+import dk.dtu.compute.se.pisd.roborally.model.Phase;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import dk.dtu.compute.se.pisd.roborally.planner.BoardGraph;
+import dk.dtu.compute.se.pisd.roborally.planner.GameState;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+
+/**
+ * One game hosted by the {@link GameServer}. The session owns the
+ * {@link GameController} and the board of the game; they are accessed by
+ * the thread of the session only, which takes the commands of the players
+ * from the inbox of the session and processes them one after the other.
+ * Since nothing is shared, the model needs no synchronisation, and many
+ * sessions can run side by side on their own virtual threads.
+ *
+ * All methods of a session can be called from any thread; they put a
+ * command into the inbox and return a future, which is completed when the
+ * command was processed. Commands which are not allowed in the current state
+ * of the game complete the future exceptionally with an
+ * {@link IllegalStateException} or {@link IllegalArgumentException}.
+ *
+ * The game proceeds like in the application: when all players have
+ * submitted their programs, the programs are executed. If an interactive
+ * card is executed, the game waits until the current player chooses an
+ * option. When all registers were executed, the next round starts with
+ * newly dealt cards. The {@link SessionListener}s are informed about both.
+ */
+public class GameSession {
+
+    final private int id;
+
+    final private GameController gameController;
+
+    final private Board board;
+
+    final private BoardGraph graph;
+
+    final private BlockingQueue<Task<?>> inbox = new LinkedBlockingQueue<>();
+
+    final private List<SessionListener> listeners = new CopyOnWriteArrayList<>();
+
+    final private Thread thread;
+
+    // the following are accessed by the thread of the session only
+    private final boolean[] submitted;
+    private int round = 0;
+
+    private volatile boolean closed = false;
+
+    GameSession(int id, @NotNull GameController gameController, @NotNull ThreadFactory threadFactory) {
+        this.id = id;
+        this.gameController = gameController;
+        this.board = gameController.board;
+        this.graph = BoardGraph.of(board);
+        this.submitted = new boolean[board.getPlayersNumber()];
+        this.thread = threadFactory.newThread(this::run);
+    }
+
+    void start() {
+        if (board.getPhase() == Phase.INITIALISATION) {
+            submit(() -> {
+                gameController.startProgrammingPhase();
+                return null;
+            });
+        }
+        thread.start();
+    }
+
+    private void run() {
+        try {
+            while (!closed) {
+                Task<?> task;
+                try {
+                    task = inbox.take();
+                } catch (InterruptedException e) {
+                    break;
+                }
+                task.run();
+            }
+        } finally {
+            closed = true;
+            for (Task<?> task = inbox.poll(); task != null; task = inbox.poll()) {
+                task.fail();
+            }
+        }
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getPlayersNumber() {
+        return submitted.length;
+    }
+
+    public void addListener(@NotNull SessionListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(@NotNull SessionListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Adds a listener to the events of the game controller, e.g. for sending
+     * the changes of the game to remote players. The listener is called on
+     * the thread of the session. The result is the state of the game when the
+     * listener was added, so that the changes can be applied to it.
+     *
+     * @param listener the listener
+     * @return the future state of the game when the listener was added
+     */
+    public CompletableFuture<TurnResult> addEventListener(@NotNull GameEventListener listener) {
+        return submit(() -> {
+            gameController.addEventListener(listener);
+            return result();
+        });
+    }
+
+    /**
+     * Removes a listener to the events of the game controller.
+     *
+     * @param listener the listener
+     */
+    public void removeEventListener(@NotNull GameEventListener listener) {
+        submit(() -> {
+            gameController.removeEventListener(listener);
+            return null;
+        });
+    }
+
+    /**
+     * Returns the commands of the cards dealt to the player in the current
+     * round; fields without a card are {@code null}.
+     *
+     * @param player the number of the player
+     * @return the future commands of the player's cards
+     */
+    public CompletableFuture<Command[]> getHand(int player) {
+        return submit(() -> {
+            Player p = getPlayer(player);
+            Command[] hand = new Command[Player.NO_CARDS];
+            for (int i = 0; i < hand.length; i++) {
+                CommandCard card = p.getCardField(i).getCard();
+                hand[i] = card != null ? card.command : null;
+            }
+            return hand;
+        });
+    }
+
+    /**
+     * Returns the current state of the game.
+     *
+     * @return the future state of the game
+     */
+    public CompletableFuture<TurnResult> getState() {
+        return submit(this::result);
+    }
+
+    /**
+     * Submits the program of the player for the current round, given by the
+     * indices of the player's cards for each register. When all players have
+     * submitted their programs, the programs are executed; then, the result
+     * is the state after the execution.
+     *
+     * @param player the number of the player
+     * @param cards the indices of the cards of the hand for the registers
+     * @return the future state of the game after the program was accepted
+     */
+    public CompletableFuture<TurnResult> submitProgram(int player, int @NotNull [] cards) {
+        int[] program = cards.clone();
+        return submit(() -> {
+            Player p = getPlayer(player);
+            if (board.getPhase() != Phase.PROGRAMMING) {
+                throw new IllegalStateException("Programs can be submitted in the programming phase only");
+            }
+            if (submitted[player]) {
+                throw new IllegalStateException("Player " + player + " has submitted a program already");
+            }
+            if (program.length > Player.NO_REGISTERS) {
+                throw new IllegalArgumentException("A program has at most " + Player.NO_REGISTERS + " registers");
+            }
+            boolean[] used = new boolean[Player.NO_CARDS];
+            for (int card : program) {
+                if (card < 0 || card >= Player.NO_CARDS || used[card] || p.getCardField(card).getCard() == null) {
+                    throw new IllegalArgumentException("Card " + card + " is not available");
+                }
+                used[card] = true;
+            }
+
+            for (int i = 0; i < program.length; i++) {
+                gameController.moveCards(p.getCardField(program[i]), p.getProgramField(i));
+            }
+            submitted[player] = true;
+
+            for (boolean done : submitted) {
+                if (!done) {
+                    return result();
+                }
+            }
+            gameController.finishProgrammingPhase();
+            gameController.executePrograms();
+            return afterExecution();
+        });
+    }
+
+    /**
+     * Chooses the option for the interactive card, which is currently
+     * executed for the player.
+     *
+     * @param player the number of the player
+     * @param option the chosen option
+     * @return the future state of the game after the execution continued
+     */
+    public CompletableFuture<TurnResult> chooseOption(int player, @NotNull Command option) {
+        return submit(() -> {
+            Player p = getPlayer(player);
+            if (board.getPhase() != Phase.PLAYER_INTERACTION || board.getCurrentPlayer() != p) {
+                throw new IllegalStateException("Player " + player + " has no option to choose");
+            }
+            if (option != Command.LEFT && option != Command.RIGHT) {
+                throw new IllegalArgumentException("Option " + option + " is not allowed");
+            }
+            gameController.handleInteractiveCommand(option);
+            if (board.getPhase() == Phase.ACTIVATION) {
+                gameController.executePrograms();
+            }
+            return afterExecution();
+        });
+    }
+
+    /**
+     * Stops the thread of the session; commands which are still in the
+     * inbox are not processed anymore.
+     */
+    public void close() {
+        closed = true;
+        thread.interrupt();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private TurnResult afterExecution() {
+        Player winner = gameController.getWinner();
+        if (winner == null && board.getPhase() == Phase.PROGRAMMING) {
+            // all registers were executed and the next round was started
+            round++;
+            for (int i = 0; i < submitted.length; i++) {
+                submitted[i] = false;
+            }
+        }
+        TurnResult result = result();
+        if (winner != null || board.getPhase() != Phase.ACTIVATION) {
+            for (SessionListener listener : listeners) {
+                listener.onUpdate(this, result);
+            }
+        }
+        return result;
+    }
+
+    private TurnResult result() {
+        Player winner = gameController.getWinner();
+        Player current = board.getCurrentPlayer();
+        return new TurnResult(round, winner != null ? Phase.FINISHED : board.getPhase(), board.getStep(),
+                current != null ? board.getPlayerNumber(current) : -1,
+                winner != null ? board.getPlayerNumber(winner) : -1,
+                GameState.of(graph, board));
+    }
+
+    private Player getPlayer(int player) {
+        if (player < 0 || player >= board.getPlayersNumber()) {
+            throw new IllegalArgumentException("There is no player " + player);
+        }
+        return board.getPlayer(player);
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> command) {
+        Task<T> task = new Task<>(command);
+        inbox.add(task);
+        // if the session was closed in the meantime, nobody takes the task anymore
+        if (closed && inbox.remove(task)) {
+            task.fail();
+        }
+        return task.future;
+    }
+
+    /**
+     * A command in the inbox together with the future for its result.
+     */
+    private class Task<T> {
+
+        final CompletableFuture<T> future = new CompletableFuture<>();
+
+        final Supplier<T> command;
+
+        Task(Supplier<T> command) {
+            this.command = command;
+        }
+
+        void run() {
+            try {
+                future.complete(command.get());
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            } catch (Throwable e) {
+                // an error (e.g. a failed assertion of the game controller) may
+                // have left the game in an inconsistent state, so the session
+                // is closed; the commands still in the inbox fail
+                closed = true;
+                future.completeExceptionally(e);
+            }
+        }
+
+        void fail() {
+            future.completeExceptionally(new IllegalStateException("Session " + id + " is closed"));
+        }
+    }
+
+}
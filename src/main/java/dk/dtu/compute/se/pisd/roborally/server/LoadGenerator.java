@@ -0,0 +1,212 @@
+package dk.dtu.compute.se.pisd.roborally.server;
+
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.Phase;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plays many games on a {@link GameServer} at the same time for measuring
+ * the server. Each player of each game is a bot with a {@link LocalClient}
+ * on its own virtual thread, which plays random programs and chooses random
+ * options. The latency of a turn is the time from submitting a program or
+ * an option until the session has processed it (including the execution of
+ * the programs for the last player of a round); its distribution and the
+ * throughput of the server are reported in a {@link LoadReport}.
+ */
+public class LoadGenerator {
+
+    // the time a bot waits for the other players before it gives up
+    final private static long UPDATE_TIMEOUT_MILLIS = 30_000;
+
+    final private String boardName;
+    final private int games;
+    final private int players;
+    final private int rounds;
+    final private long seed;
+
+    /**
+     * Creates a load generator.
+     *
+     * @param boardName the name of the board of the games
+     * @param games the number of games played at the same time
+     * @param players the number of players of each game
+     * @param rounds the maximal number of rounds of each game
+     * @param seed the seed for the card dealers and the bots
+     */
+    public LoadGenerator(String boardName, int games, int players, int rounds, long seed) {
+        this.boardName = boardName;
+        this.games = games;
+        this.players = players;
+        this.rounds = rounds;
+        this.seed = seed;
+    }
+
+    /**
+     * Plays all games and waits until they are over.
+     *
+     * @return the report on the games
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public LoadReport run() throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(seed);
+        ThreadFactory botThreads = Thread.ofVirtual().name("roborally-bot-", 0).factory();
+        List<Bot> bots = new ArrayList<>();
+        AtomicLong playedRounds = new AtomicLong();
+        ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+
+        try (GameServer server = new GameServer()) {
+            CountDownLatch done = new CountDownLatch(games * players);
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < games; i++) {
+                GameSession session = server.createGame(boardName, players, random.nextLong());
+                for (int j = 0; j < players; j++) {
+                    Bot bot = new Bot(new LocalClient(session, j), random.split(), playedRounds, failures, done);
+                    bots.add(bot);
+                    threads.add(botThreads.newThread(bot));
+                }
+            }
+
+            long start = System.nanoTime();
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            done.await();
+            long elapsed = System.nanoTime() - start;
+
+            int turns = 0;
+            for (Bot bot : bots) {
+                turns += bot.turns;
+            }
+            long[] latencies = new long[turns];
+            int next = 0;
+            for (Bot bot : bots) {
+                System.arraycopy(bot.latencies, 0, latencies, next, bot.turns);
+                next += bot.turns;
+            }
+            Arrays.sort(latencies);
+
+            return new LoadReport(games, players, playedRounds.get(), new ArrayList<>(failures), elapsed,
+                    Runtime.getRuntime().availableProcessors(), latencies);
+        }
+    }
+
+    /**
+     * A player, which plays the rounds of its game with random programs.
+     */
+    private class Bot implements Runnable {
+
+        final private LocalClient client;
+        final private SplittableRandom random;
+        final private AtomicLong playedRounds;
+        final private ConcurrentLinkedQueue<String> failures;
+        final private CountDownLatch done;
+
+        // the latencies of the turns in nanoseconds
+        long[] latencies = new long[16];
+        int turns = 0;
+
+        Bot(LocalClient client, SplittableRandom random, AtomicLong playedRounds, ConcurrentLinkedQueue<String> failures,
+            CountDownLatch done) {
+            this.client = client;
+            this.random = random;
+            this.playedRounds = playedRounds;
+            this.failures = failures;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            try (client) {
+                for (int round = 0; round < rounds; round++) {
+                    long start = System.nanoTime();
+                    client.submitProgram(randomProgram(client.getHand().join())).join();
+                    record(System.nanoTime() - start);
+
+                    // only the updates of the session are acted on, since each of
+                    // them is delivered exactly once to each client
+                    TurnResult update;
+                    do {
+                        update = client.nextUpdate(UPDATE_TIMEOUT_MILLIS);
+                        if (update == null) {
+                            throw new IllegalStateException("No update from session " + client.getSession().getId());
+                        }
+                        if (update.isWaitingFor(client.getPlayer())) {
+                            start = System.nanoTime();
+                            client.chooseOption(random.nextBoolean() ? Command.LEFT : Command.RIGHT).join();
+                            record(System.nanoTime() - start);
+                        }
+                    } while (update.round == round && update.phase != Phase.FINISHED);
+
+                    if (client.getPlayer() == 0) {
+                        playedRounds.incrementAndGet();
+                    }
+                    if (update.phase == Phase.FINISHED) {
+                        break;
+                    }
+                }
+            } catch (Throwable e) {
+                // the bot stops playing; the failure is part of the report
+                failures.add("player " + client.getPlayer() + " of session " + client.getSession().getId()
+                        + ": " + e);
+            } finally {
+                done.countDown();
+            }
+        }
+
+        private int[] randomProgram(Command[] hand) {
+            int[] cards = new int[hand.length];
+            int available = 0;
+            for (int i = 0; i < hand.length; i++) {
+                if (hand[i] != null) {
+                    cards[available++] = i;
+                }
+            }
+            int length = Math.min(Player.NO_REGISTERS, available);
+            for (int i = 0; i < length; i++) {
+                // partial Fisher-Yates shuffle of the card indices
+                int j = i + random.nextInt(available - i);
+                int card = cards[j];
+                cards[j] = cards[i];
+                cards[i] = card;
+            }
+            return Arrays.copyOf(cards, length);
+        }
+
+        private void record(long latency) {
+            if (turns == latencies.length) {
+                latencies = Arrays.copyOf(latencies, 2 * turns);
+            }
+            latencies[turns++] = latency;
+        }
+    }
+
+    /**
+     * Runs the load generator from the command line. The optional arguments
+     * are the number of games, the number of players, the number of rounds,
+     * the board name and the seed.
+     *
+     * @param args the command line arguments
+     * @throws InterruptedException if the main thread is interrupted
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        String boardName = args.length > 3 ? args[3] : "advanced";
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+
+        LoadReport report = new LoadGenerator(boardName, games, players, rounds, seed).run();
+        System.out.println(games + " games on board '" + boardName + "' with " + players + " players (seed " + seed + "):");
+        System.out.println(report);
+    }
+
+}
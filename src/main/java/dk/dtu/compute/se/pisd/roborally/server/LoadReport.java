@@ -0,0 +1,101 @@
+package dk.dtu.compute.se.pisd.roborally.server;
+
+import java.util.List;
+
+/**
+ * The result of a run of the {@link LoadGenerator}.
+ */
+public class LoadReport {
+
+    final public int games;
+    final public int players;
+
+    /**
+     * The number of rounds played in all games together.
+     */
+    final public long rounds;
+
+    /**
+     * The number of bots which failed, e.g. because their session did not
+     * answer in time.
+     */
+    final public int failures;
+
+    /**
+     * The reasons why the bots failed, one per failed bot.
+     */
+    final public List<String> errors;
+
+    final public long elapsedNanos;
+
+    final public int cores;
+
+    // the latencies of all turns in nanoseconds, sorted
+    final private long[] latencies;
+
+    LoadReport(int games, int players, long rounds, List<String> errors, long elapsedNanos, int cores,
+               long[] latencies) {
+        this.games = games;
+        this.players = players;
+        this.rounds = rounds;
+        this.failures = errors.size();
+        this.errors = List.copyOf(errors);
+        this.elapsedNanos = elapsedNanos;
+        this.cores = cores;
+        this.latencies = latencies;
+    }
+
+    public int getTurns() {
+        return latencies.length;
+    }
+
+    /**
+     * Returns the latency of turns below which the given fraction of all
+     * latencies are.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the latency in nanoseconds, 0 if there were no turns
+     */
+    public long getLatencyPercentile(double percentile) {
+        if (latencies.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * latencies.length) - 1;
+        return latencies[Math.max(0, Math.min(latencies.length - 1, index))];
+    }
+
+    public double getRoundsPerSecond() {
+        return elapsedNanos > 0 ? rounds * 1e9 / elapsedNanos : 0;
+    }
+
+    /**
+     * Returns the number of rounds played per second and core, which is the
+     * measure for how many games a core can host: a game played by humans
+     * needs a round every few seconds at most.
+     *
+     * @return the rounds per second and core
+     */
+    public double getRoundsPerSecondPerCore() {
+        return getRoundsPerSecond() / cores;
+    }
+
+    /**
+     * Returns the number of games hosted at the same time per core.
+     *
+     * @return the games per core
+     */
+    public double getGamesPerCore() {
+        return (double) games / cores;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d games (%.1f per core), %d rounds in %.2f s: %.0f rounds/s " +
+                        "(%.0f per core), %d turns with latency p50 %.3f ms, p99 %.3f ms, max %.3f ms%s",
+                games, getGamesPerCore(), rounds, elapsedNanos / 1e9,
+                getRoundsPerSecond(), getRoundsPerSecondPerCore(), getTurns(),
+                getLatencyPercentile(50) / 1e6, getLatencyPercentile(99) / 1e6, getLatencyPercentile(100) / 1e6,
+                failures > 0 ? ", " + failures + " bots failed (first: " + errors.get(0) + ")" : "");
+    }
+
+}
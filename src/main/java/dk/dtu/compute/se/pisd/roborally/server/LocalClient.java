@@ -0,0 +1,80 @@
+package dk.dtu.compute.se.pisd.roborally.server;
+
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A client in the same JVM as the server, which plays one player of a
+ * {@link GameSession}. Besides forwarding the commands of the player to the
+ * session, the client collects the updates of the session (rounds being over,
+ * options to be chosen, the end of the game), which the player can wait for
+ * with {@link #nextUpdate(long)}.
+ */
+public class LocalClient implements AutoCloseable {
+
+    final private GameSession session;
+
+    final private int player;
+
+    final private BlockingQueue<TurnResult> updates = new LinkedBlockingQueue<>();
+
+    final private SessionListener listener = (session, result) -> updates.add(result);
+
+    public LocalClient(@NotNull GameSession session, int player) {
+        if (player < 0 || player >= session.getPlayersNumber()) {
+            throw new IllegalArgumentException("There is no player " + player);
+        }
+        this.session = session;
+        this.player = player;
+        session.addListener(listener);
+    }
+
+    public GameSession getSession() {
+        return session;
+    }
+
+    public int getPlayer() {
+        return player;
+    }
+
+    public CompletableFuture<Command[]> getHand() {
+        return session.getHand(player);
+    }
+
+    public CompletableFuture<TurnResult> getState() {
+        return session.getState();
+    }
+
+    public CompletableFuture<TurnResult> submitProgram(int... cards) {
+        return session.submitProgram(player, cards);
+    }
+
+    public CompletableFuture<TurnResult> chooseOption(@NotNull Command option) {
+        return session.chooseOption(player, option);
+    }
+
+    /**
+     * Waits for the next update of the session.
+     *
+     * @param timeoutMillis the maximal time to wait in milliseconds
+     * @return the update, or {@code null} if there was none within the time
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public TurnResult nextUpdate(long timeoutMillis) throws InterruptedException {
+        return updates.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops receiving updates from the session.
+     */
+    @Override
+    public void close() {
+        session.removeListener(listener);
+    }
+
+}
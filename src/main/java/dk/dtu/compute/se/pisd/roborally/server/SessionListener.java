@@ -0,0 +1,13 @@
+package dk.dtu.compute.se.pisd.roborally.server;
+
+/**
+ * A listener of a {@link GameSession}, which is informed when a round is
+ * over, when a player needs to choose an option for an interactive card, and
+ * when the game is over. The listeners are called on the thread of the
+ * session, so they should return quickly and must not block.
+ */
+public interface SessionListener {
+
+    void onUpdate(GameSession session, TurnResult result);
+
+}
@@ -0,0 +1,64 @@
+package dk.dtu.compute.se.pisd.roborally.server;
+
+import dk.dtu.compute.se.pisd.roborally.model.Phase;
+import dk.dtu.compute.se.pisd.roborally.planner.GameState;
+
+/**
+ * The state of a game after a command of a player was processed by its
+ * {@link GameSession}. Turn results are immutable, so they can be handed to
+ * the clients on other threads.
+ */
+public class TurnResult {
+
+    /**
+     * The number of the round, counted from 0; the round is counted up when
+     * the programs of all players were executed.
+     */
+    final public int round;
+
+    final public Phase phase;
+
+    final public int step;
+
+    /**
+     * The number of the current player, which is the player to choose an
+     * option in phase {@link Phase#PLAYER_INTERACTION}.
+     */
+    final public int currentPlayer;
+
+    /**
+     * The number of the player who won the game, -1 if the game is not over.
+     */
+    final public int winner;
+
+    /**
+     * The positions, headings and checkpoints of the robots.
+     */
+    final public GameState state;
+
+    TurnResult(int round, Phase phase, int step, int currentPlayer, int winner, GameState state) {
+        this.round = round;
+        this.phase = phase;
+        this.step = step;
+        this.currentPlayer = currentPlayer;
+        this.winner = winner;
+        this.state = state;
+    }
+
+    /**
+     * Returns whether the given player has to choose an option for an
+     * interactive card.
+     *
+     * @param player the number of the player
+     * @return true if the player needs to choose an option
+     */
+    public boolean isWaitingFor(int player) {
+        return phase == Phase.PLAYER_INTERACTION && currentPlayer == player;
+    }
+
+    @Override
+    public String toString() {
+        return "round " + round + ", " + phase + (winner >= 0 ? ", won by player " + winner : "");
+    }
+
+}
@@ -0,0 +1,53 @@
+package dk.dtu.compute.se.pisd.roborally.simulation;
+
+/**
+ * The result of a single simulated game.
+ */
+public class GameResult {
+
+    /**
+     * The number of the winning player, or -1 if the game was stopped
+     * before any player won.
+     */
+    final public int winner;
+
+    final public int rounds;
+
+    final public int moves;
+
+    // the round in which checkpoint i+1 was reached first by any player
+    final private int[] checkpointRounds;
+
+    public GameResult(int winner, int rounds, int moves, int[] checkpointRounds) {
+        this.winner = winner;
+        this.rounds = rounds;
+        this.moves = moves;
+        this.checkpointRounds = checkpointRounds.clone();
+    }
+
+    /**
+     * Returns the number of checkpoints reached by at least one player.
+     *
+     * @return the number of checkpoints reached
+     */
+    public int getCheckpointsReached() {
+        return checkpointRounds.length;
+    }
+
+    /**
+     * Returns the round (counting from 1) in which the checkpoint with the
+     * given number was reached by the first player.
+     *
+     * @param checkpoint the number of the checkpoint, starting from 1
+     * @return the round in which the checkpoint was reached first
+     */
+    public int getCheckpointRound(int checkpoint) {
+        return checkpointRounds[checkpoint - 1];
+    }
+
+    @Override
+    public String toString() {
+        return "winner: " + winner + ", rounds: " + rounds + ", moves: " + moves;
+    }
+
+}
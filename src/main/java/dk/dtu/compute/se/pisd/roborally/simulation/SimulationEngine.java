@@ -0,0 +1,269 @@
+package dk.dtu.compute.se.pisd.roborally.simulation;
+
+import dk.dtu.compute.se.pisd.roborally.controller.BoardFactory;
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.controller.GameEvent;
+import dk.dtu.compute.se.pisd.roborally.controller.GameEventListener;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.CardDealer;
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.Phase;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import dk.dtu.compute.se.pisd.roborally.planner.DistanceFields;
+import dk.dtu.compute.se.pisd.roborally.planner.Program;
+import dk.dtu.compute.se.pisd.roborally.planner.ProgramSearch;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Plays complete RoboRally games without a user interface. The engine creates
+ * the board and the players in the same way as the
+ * {@link dk.dtu.compute.se.pisd.roborally.controller.AppController} does, and
+ * then drives the {@link GameController} through the programming and activation
+ * phases, where the programs of the robots are chosen at random from the dealt
+ * cards, or by a {@link ProgramSearch} for the first players if
+ * {@link #setAiPlayers(int)} is set. Since no views are attached to the board, the model does not dispatch
+ * any notifications and no JavaFX toolkit is needed.
+ */
+public class SimulationEngine {
+
+    final public static int DEFAULT_MAX_ROUNDS = 200;
+
+    final private static List<String> PLAYER_COLORS = Arrays.asList("red", "green", "blue", "orange", "grey", "magenta");
+
+    final private String boardName;
+    final private int numberOfPlayers;
+    final private int maxRounds;
+
+    final private SplittableRandom random;
+
+    private int aiPlayers = 0;
+
+    // the search for the board of the current game, and the programs
+    // of the AI players in the current round
+    private ProgramSearch search;
+    private Board searchBoard;
+    private Program[] programs;
+
+    /**
+     * Creates a simulation engine for the given board and number of players.
+     *
+     * @param boardName the name of the board as known by the {@link BoardFactory}
+     * @param numberOfPlayers the number of players (robots) in each game
+     * @param maxRounds the number of rounds after which a game without winner is stopped
+     * @param seed the seed for dealing the cards and choosing the programs of the robots
+     */
+    public SimulationEngine(String boardName, int numberOfPlayers, int maxRounds, long seed) {
+        if (numberOfPlayers < 1 || numberOfPlayers > PLAYER_COLORS.size()) {
+            throw new IllegalArgumentException("Number of players must be between 1 and " + PLAYER_COLORS.size());
+        }
+        this.boardName = boardName;
+        this.numberOfPlayers = numberOfPlayers;
+        this.maxRounds = maxRounds;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Sets the number of players, which are programmed by a {@link ProgramSearch}
+     * instead of randomly; these are the first players of each game.
+     *
+     * @param aiPlayers the number of AI players
+     */
+    public void setAiPlayers(int aiPlayers) {
+        this.aiPlayers = aiPlayers;
+    }
+
+    /**
+     * Creates a new game with the players placed on the board, ready
+     * for the first programming phase.
+     *
+     * @return the game controller of the new game
+     */
+    public GameController createGame() {
+        Board board = BoardFactory.getInstance().createBoard(boardName);
+        board.setCardDealer(new CardDealer(random.nextLong()));
+        GameController gameController = new GameController(board);
+        for (int i = 0; i < numberOfPlayers; i++) {
+            Player player = new Player(board, PLAYER_COLORS.get(i), "Player " + (i + 1));
+            board.addPlayer(player);
+            player.setSpace(board.getSpace(i % board.width, i));
+        }
+        return gameController;
+    }
+
+    /**
+     * Plays one complete game until some player wins or the maximum number
+     * of rounds is reached.
+     *
+     * @return the result of the game
+     */
+    public GameResult playGame() {
+        GameController gameController = createGame();
+        Board board = gameController.board;
+
+        CheckpointRecorder recorder = new CheckpointRecorder();
+        gameController.addEventListener(recorder);
+
+        gameController.startProgrammingPhase();
+        while (gameController.getWinner() == null && recorder.round < maxRounds) {
+            recorder.round++;
+            playRound(gameController);
+        }
+
+        Player winner = gameController.getWinner();
+        return new GameResult(
+                winner != null ? board.getPlayerNumber(winner) : -1,
+                recorder.round,
+                board.getCounter(),
+                Arrays.copyOf(recorder.firstReached, recorder.checkpoints));
+    }
+
+    /**
+     * Records the round in which each checkpoint was reached first.
+     */
+    private static class CheckpointRecorder implements GameEventListener {
+
+        int round = 0;
+
+        int[] firstReached = new int[4];
+
+        int checkpoints = 0;
+
+        @Override
+        public void onEvent(GameEvent event) {
+            if (event.type == GameEvent.Type.CHECKPOINT && event.checkpoints > checkpoints) {
+                if (event.checkpoints > firstReached.length) {
+                    firstReached = Arrays.copyOf(firstReached, event.checkpoints * 2);
+                }
+                // checkpoints are reached in order, so all before are set already
+                firstReached[event.checkpoints - 1] = round;
+                checkpoints = event.checkpoints;
+            }
+        }
+    }
+
+    /**
+     * Plays one round of the game, i.e. programs all robots and executes
+     * all registers. Interactive commands are decided at random, except for
+     * AI players, which choose the option found by the search.
+     *
+     * @param gameController the game controller of the game
+     */
+    public void playRound(GameController gameController) {
+        Board board = gameController.board;
+        int players = board.getPlayersNumber();
+        if (aiPlayers > 0 && searchBoard != board) {
+            search = new ProgramSearch(DistanceFields.of(board));
+            searchBoard = board;
+        }
+        programs = new Program[players];
+        for (int i = 0; i < players; i++) {
+            if (i < aiPlayers) {
+                programs[i] = programWithSearch(gameController, board.getPlayer(i));
+            } else {
+                programRandomly(gameController, board.getPlayer(i));
+            }
+        }
+
+        gameController.finishProgrammingPhase();
+        gameController.executePrograms();
+        while (board.getPhase() == Phase.PLAYER_INTERACTION) {
+            Program program = programs[board.getPlayerNumber(board.getCurrentPlayer())];
+            Command option = program != null ? program.getOption(board.getStep()) : null;
+            if (option == null) {
+                option = random.nextBoolean() ? Command.LEFT : Command.RIGHT;
+            }
+            gameController.handleInteractiveCommand(option);
+            if (board.getPhase() == Phase.ACTIVATION) {
+                gameController.executePrograms();
+            }
+        }
+    }
+
+    /**
+     * Fills the registers of the player's program with cards chosen at
+     * random from the player's dealt cards.
+     *
+     * @param gameController the game controller of the game
+     * @param player the player to be programmed
+     */
+    private void programRandomly(GameController gameController, Player player) {
+        int[] cards = new int[Player.NO_CARDS];
+        for (int i = 0; i < cards.length; i++) {
+            cards[i] = i;
+        }
+        for (int i = 0; i < Player.NO_REGISTERS; i++) {
+            // partial Fisher-Yates shuffle of the card indices
+            int j = i + random.nextInt(cards.length - i);
+            int card = cards[j];
+            cards[j] = cards[i];
+            cards[i] = card;
+            gameController.moveCards(player.getCardField(card), player.getProgramField(i));
+        }
+    }
+
+    /**
+     * Fills the registers of the player's program with the best program
+     * found by the search.
+     *
+     * @param gameController the game controller of the game
+     * @param player the player to be programmed
+     * @return the program
+     */
+    private Program programWithSearch(GameController gameController, Player player) {
+        Program program = search.search(player);
+        for (int i = 0; i < program.getRegisters(); i++) {
+            gameController.moveCards(player.getCardField(program.getCard(i)), player.getProgramField(i));
+        }
+        return program;
+    }
+
+    /**
+     * Plays the given number of games one after the other and measures
+     * the time needed for that.
+     *
+     * @param games the number of games to be played
+     * @return the report on the played games
+     */
+    public SimulationReport run(int games) {
+        int[] wins = new int[numberOfPlayers];
+        int finished = 0;
+        long rounds = 0;
+        long moves = 0;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < games; i++) {
+            GameResult result = playGame();
+            if (result.winner >= 0) {
+                wins[result.winner]++;
+                finished++;
+            }
+            rounds += result.rounds;
+            moves += result.moves;
+        }
+        long elapsed = System.nanoTime() - start;
+
+        return new SimulationReport(games, finished, wins, rounds, moves, elapsed);
+    }
+
+    /**
+     * Runs a simulation from the command line. The optional arguments are the
+     * board name, the number of players, the number of games and the seed.
+     *
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        String boardName = args.length > 0 ? args[0] : "advanced";
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+
+        SimulationEngine engine = new SimulationEngine(boardName, players, DEFAULT_MAX_ROUNDS, seed);
+        SimulationReport report = engine.run(games);
+        System.out.println("Board '" + boardName + "' with " + players + " players (seed " + seed + "):");
+        System.out.println(report);
+    }
+
+}
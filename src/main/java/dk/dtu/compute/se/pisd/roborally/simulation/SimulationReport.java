@@ -0,0 +1,47 @@
+package dk.dtu.compute.se.pisd.roborally.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Summarises a batch of simulated games, including the throughput
+ * of the simulation in games per second.
+ */
+public class SimulationReport {
+
+    final public int games;
+
+    final public int finished;
+
+    final private int[] wins;
+
+    final public long rounds;
+
+    final public long moves;
+
+    final public long elapsedNanos;
+
+    public SimulationReport(int games, int finished, int[] wins, long rounds, long moves, long elapsedNanos) {
+        this.games = games;
+        this.finished = finished;
+        this.wins = wins.clone();
+        this.rounds = rounds;
+        this.moves = moves;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getWins(int player) {
+        return wins[player];
+    }
+
+    public double getGamesPerSecond() {
+        return elapsedNanos > 0 ? games * 1_000_000_000.0 / elapsedNanos : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return games + " games (" + finished + " won) in " + (elapsedNanos / 1_000_000) + " ms, " +
+                String.format("%.1f", getGamesPerSecond()) + " games/s, " +
+                rounds + " rounds, " + moves + " moves, wins per player: " + Arrays.toString(wins);
+    }
+
+}
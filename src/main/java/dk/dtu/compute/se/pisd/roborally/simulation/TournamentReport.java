@@ -0,0 +1,76 @@
+package dk.dtu.compute.se.pisd.roborally.simulation;
+
+/**
+ * Summarises a tournament of simulated games. In addition to the
+ * {@link SimulationReport}, it tells how many threads played the games,
+ * and when the checkpoints of the board were reached on average.
+ */
+public class TournamentReport extends SimulationReport {
+
+    final public int parallelism;
+
+    final private long[] checkpointGames;
+    final private long[] checkpointRounds;
+
+    TournamentReport(TournamentStats stats, int parallelism, long elapsedNanos) {
+        super(stats.games, stats.finished, stats.wins, stats.rounds, stats.moves, elapsedNanos);
+        this.parallelism = parallelism;
+        this.checkpointGames = stats.checkpointGames.clone();
+        this.checkpointRounds = stats.checkpointRounds.clone();
+    }
+
+    /**
+     * Returns the win rate of the given player, i.e. the fraction of all
+     * games which the player won.
+     *
+     * @param player the number of the player
+     * @return the win rate of the player
+     */
+    public double getWinRate(int player) {
+        return games > 0 ? (double) getWins(player) / games : 0.0;
+    }
+
+    /**
+     * Returns the number of checkpoints which were reached in some game.
+     *
+     * @return the number of checkpoints
+     */
+    public int getCheckpoints() {
+        return checkpointGames.length;
+    }
+
+    /**
+     * Returns the number of games in which the checkpoint with the given
+     * number was reached by some player.
+     *
+     * @param checkpoint the number of the checkpoint, starting from 1
+     * @return the number of games
+     */
+    public long getCheckpointGames(int checkpoint) {
+        return checkpoint <= checkpointGames.length ? checkpointGames[checkpoint - 1] : 0;
+    }
+
+    /**
+     * Returns the average round in which the checkpoint with the given
+     * number was reached first, over the games in which it was reached.
+     *
+     * @param checkpoint the number of the checkpoint, starting from 1
+     * @return the average round, or 0 if the checkpoint was never reached
+     */
+    public double getAverageCheckpointRound(int checkpoint) {
+        long count = getCheckpointGames(checkpoint);
+        return count > 0 ? (double) checkpointRounds[checkpoint - 1] / count : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder(super.toString());
+        result.append(" on ").append(parallelism).append(" threads");
+        for (int i = 1; i <= getCheckpoints(); i++) {
+            result.append(String.format("%n  checkpoint %d: reached in %d games, first in round %.1f on average",
+                    i, getCheckpointGames(i), getAverageCheckpointRound(i)));
+        }
+        return result.toString();
+    }
+
+}
@@ -0,0 +1,99 @@
+package dk.dtu.compute.se.pisd.roborally.simulation;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Plays a tournament of many independent games with random programs in
+ * parallel, in order to balance boards. Each game has its own board, game
+ * controller and {@link SplittableRandom}, so that the games share no mutable
+ * state and the tournament scales with the number of cores. The seeds of the
+ * games are derived from the seed of the tournament up front, so that the
+ * results do not depend on the number of threads or on the order in which
+ * the games are played.
+ */
+public class TournamentRunner {
+
+    final private String boardName;
+    final private int numberOfPlayers;
+    final private int maxRounds;
+    final private long seed;
+    final private int parallelism;
+
+    /**
+     * Creates a tournament runner.
+     *
+     * @param boardName the name of the board as known by the {@link dk.dtu.compute.se.pisd.roborally.controller.BoardFactory}
+     * @param numberOfPlayers the number of players (robots) in each game
+     * @param maxRounds the number of rounds after which a game without winner is stopped
+     * @param seed the seed of the tournament
+     * @param parallelism the number of threads playing games
+     */
+    public TournamentRunner(String boardName, int numberOfPlayers, int maxRounds, long seed, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        // checks the arguments in the same way as the games later on
+        new SimulationEngine(boardName, numberOfPlayers, maxRounds, seed);
+        this.boardName = boardName;
+        this.numberOfPlayers = numberOfPlayers;
+        this.maxRounds = maxRounds;
+        this.seed = seed;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Plays the given number of games on a fork/join pool with the configured
+     * parallelism and collects their results.
+     *
+     * @param games the number of games to be played
+     * @return the report on the tournament
+     */
+    public TournamentReport run(int games) {
+        long[] seeds = new SplittableRandom(seed).longs(games).toArray();
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            long start = System.nanoTime();
+            TournamentStats stats = pool.submit(() -> IntStream.range(0, games).parallel().
+                    mapToObj(i -> new SimulationEngine(boardName, numberOfPlayers, maxRounds, seeds[i]).playGame()).
+                    collect(() -> new TournamentStats(numberOfPlayers), TournamentStats::add, TournamentStats::combine)).
+                    get();
+            long elapsed = System.nanoTime() - start;
+            return new TournamentReport(stats, parallelism, elapsed);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tournament was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A game of the tournament failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Runs a tournament from the command line. The optional arguments are the
+     * board name, the number of players, the number of games, the seed and the
+     * number of threads (by default, the number of available processors).
+     *
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        String boardName = args.length > 0 ? args[0] : "advanced";
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        TournamentRunner runner = new TournamentRunner(boardName, players, SimulationEngine.DEFAULT_MAX_ROUNDS, seed, threads);
+        TournamentReport report = runner.run(games);
+        System.out.println("Board '" + boardName + "' with " + players + " players (seed " + seed + "):");
+        System.out.println(report);
+        for (int i = 0; i < players; i++) {
+            System.out.println(String.format("  player %d: win rate %.3f", i + 1, report.getWinRate(i)));
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+package dk.dtu.compute.se.pisd.roborally.simulation;
+
+import java.util.Arrays;
+
+/**
+ * The mutable container for collecting the results of the games of a
+ * tournament. Each worker thread collects into its own container, and the
+ * containers are combined at the end, so that the workers do not share
+ * any state while playing.
+ */
+class TournamentStats {
+
+    int games;
+    int finished;
+    final int[] wins;
+    long rounds;
+    long moves;
+
+    // for checkpoint i+1: the number of games in which it was reached
+    // and the sum of the rounds in which it was reached first
+    long[] checkpointGames = new long[0];
+    long[] checkpointRounds = new long[0];
+
+    TournamentStats(int numberOfPlayers) {
+        wins = new int[numberOfPlayers];
+    }
+
+    void add(GameResult result) {
+        games++;
+        if (result.winner >= 0) {
+            wins[result.winner]++;
+            finished++;
+        }
+        rounds += result.rounds;
+        moves += result.moves;
+
+        ensureCheckpoints(result.getCheckpointsReached());
+        for (int i = 1; i <= result.getCheckpointsReached(); i++) {
+            checkpointGames[i - 1]++;
+            checkpointRounds[i - 1] += result.getCheckpointRound(i);
+        }
+    }
+
+    void combine(TournamentStats other) {
+        games += other.games;
+        finished += other.finished;
+        for (int i = 0; i < wins.length; i++) {
+            wins[i] += other.wins[i];
+        }
+        rounds += other.rounds;
+        moves += other.moves;
+
+        ensureCheckpoints(other.checkpointGames.length);
+        for (int i = 0; i < other.checkpointGames.length; i++) {
+            checkpointGames[i] += other.checkpointGames[i];
+            checkpointRounds[i] += other.checkpointRounds[i];
+        }
+    }
+
+    private void ensureCheckpoints(int checkpoints) {
+        if (checkpoints > checkpointGames.length) {
+            checkpointGames = Arrays.copyOf(checkpointGames, checkpoints);
+            checkpointRounds = Arrays.copyOf(checkpointRounds, checkpoints);
+        }
+    }
+
+}
@@ -0,0 +1,331 @@
+package dk.dtu.compute.se.pisd.roborally.view;
+
+import dk.dtu.compute.se.pisd.roborally.controller.CheckPoint;
+import dk.dtu.compute.se.pisd.roborally.controller.ConveyorBelt;
+import dk.dtu.compute.se.pisd.roborally.controller.FieldAction;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Heading;
+import dk.dtu.compute.se.pisd.roborally.model.ModelChange;
+import dk.dtu.compute.se.pisd.roborally.model.ModelChangeListener;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import dk.dtu.compute.se.pisd.roborally.model.Space;
+import javafx.application.Platform;
+import javafx.geometry.VPos;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.ref.WeakReference;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import static dk.dtu.compute.se.pisd.roborally.view.SpaceView.SPACE_HEIGHT;
+import static dk.dtu.compute.se.pisd.roborally.view.SpaceView.SPACE_WIDTH;
+
+/**
+ * Draws a complete board on a few canvases, as an alternative to the grid of
+ * {@link SpaceView}s for large boards, where one node (and observer) per
+ * space makes the scene graph slow. The spaces look the same as with the
+ * space views.
+ *
+ * Since a canvas is a texture on the graphics card, and textures larger
+ * than some limit cannot be created, the board is split into canvases of at
+ * most {@link #MAX_CANVAS_SIZE} pixels in each direction, each of which
+ * shows a rectangle of whole spaces.
+ *
+ * The static part of a space (background, walls, conveyor belts and
+ * checkpoints) is pre-rendered once into a small image, shared by all spaces
+ * which look the same. The canvas listens to the {@link ModelChange}s of
+ * the board, marks the spaces of the robots which moved or turned as dirty,
+ * and redraws only these spaces (their image and the robot on top) in the
+ * next pulse of the JavaFX application thread. When the walls or actions of
+ * a space change, its image is rendered again before it is redrawn.
+ */
+public class BoardCanvas extends Pane {
+
+    /**
+     * The maximal width and height of one canvas in pixels.
+     */
+    final public static int MAX_CANVAS_SIZE = 2048;
+
+    // the number of columns and rows of spaces on one canvas
+    final private static int CANVAS_COLUMNS = MAX_CANVAS_SIZE / SPACE_WIDTH;
+    final private static int CANVAS_ROWS = MAX_CANVAS_SIZE / SPACE_HEIGHT;
+
+    final private Board board;
+
+    // the pre-rendered image of the static part of each space
+    final private Image[][] images;
+
+    // the pre-rendered images by their key, shared by the spaces which look
+    // the same, and the canvas they are rendered on
+    final private Map<String, Image> staticImages = new HashMap<>();
+    final private Canvas scratch = new Canvas(SPACE_WIDTH, SPACE_HEIGHT);
+
+    // the canvases, each showing CANVAS_COLUMNS x CANVAS_ROWS spaces (or
+    // less at the right and bottom of the board)
+    final private Canvas[][] canvases;
+
+    // the spaces to be redrawn, and the spaces among them whose image needs
+    // to be rendered again; guarded by the lock of dirty
+    final private BitSet dirty = new BitSet();
+    final private BitSet stale = new BitSet();
+    private boolean redrawScheduled = false;
+
+    final private Map<String, Paint> colors = new HashMap<>();
+
+    public BoardCanvas(@NotNull Board board) {
+        this.board = board;
+        this.images = new Image[board.width][board.height];
+        for (int x = 0; x < board.width; x++) {
+            for (int y = 0; y < board.height; y++) {
+                images[x][y] = renderStatic(board.getSpace(x, y));
+            }
+        }
+
+        canvases = new Canvas[(board.width + CANVAS_COLUMNS - 1) / CANVAS_COLUMNS]
+                [(board.height + CANVAS_ROWS - 1) / CANVAS_ROWS];
+        for (int i = 0; i < canvases.length; i++) {
+            for (int j = 0; j < canvases[i].length; j++) {
+                int columns = Math.min(CANVAS_COLUMNS, board.width - i * CANVAS_COLUMNS);
+                int rows = Math.min(CANVAS_ROWS, board.height - j * CANVAS_ROWS);
+                Canvas canvas = new Canvas(columns * SPACE_WIDTH, rows * SPACE_HEIGHT);
+                canvas.relocate(i * CANVAS_COLUMNS * SPACE_WIDTH, j * CANVAS_ROWS * SPACE_HEIGHT);
+                canvases[i][j] = canvas;
+                getChildren().add(canvas);
+            }
+        }
+        setPrefSize(board.width * SPACE_WIDTH, board.height * SPACE_HEIGHT);
+        setMinSize(USE_PREF_SIZE, USE_PREF_SIZE);
+        setMaxSize(USE_PREF_SIZE, USE_PREF_SIZE);
+
+        board.addChangeListener(new ChangeListener(this, board));
+        for (int x = 0; x < board.width; x++) {
+            for (int y = 0; y < board.height; y++) {
+                drawSpace(x, y);
+            }
+        }
+    }
+
+    /**
+     * Returns the space at the given coordinates of this view (over all its
+     * canvases), or {@code null} if there is none.
+     *
+     * @param x the x coordinate in pixels
+     * @param y the y coordinate in pixels
+     * @return the space at the coordinates
+     */
+    public Space getSpace(double x, double y) {
+        if (x < 0 || y < 0) {
+            return null;
+        }
+        return board.getSpace((int) (x / SPACE_WIDTH), (int) (y / SPACE_HEIGHT));
+    }
+
+    /**
+     * Two spaces look the same if they have the same colour, walls and
+     * actions; the key describes exactly these.
+     */
+    private static String imageKey(Space space) {
+        StringBuilder key = new StringBuilder();
+        key.append((space.x + space.y) % 2);
+        for (Heading wall : space.getWalls()) {
+            key.append('W').append(wall.ordinal());
+        }
+        for (FieldAction action : space.getActions()) {
+            if (action instanceof ConveyorBelt) {
+                key.append('C').append(((ConveyorBelt) action).getHeading().ordinal());
+            } else if (action instanceof CheckPoint) {
+                key.append('P').append(((CheckPoint) action).getNumber());
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Returns the image of the static part of the space, which is rendered
+     * only if no space looked like this before.
+     */
+    private Image renderStatic(Space space) {
+        return staticImages.computeIfAbsent(imageKey(space), key -> {
+            drawStatic(scratch.getGraphicsContext2D(), space);
+            return scratch.snapshot(new SnapshotParameters(), null);
+        });
+    }
+
+    private static void drawStatic(GraphicsContext gc, Space space) {
+        gc.setFill((space.x + space.y) % 2 == 0 ? Color.WHITE : Color.BLACK);
+        gc.fillRect(0, 0, SPACE_WIDTH, SPACE_HEIGHT);
+
+        // Draw walls; the canvas clips them to the space like the space view
+        gc.setStroke(Color.RED);
+        gc.setLineWidth(6);
+        for (Heading wall : space.getWalls()) {
+            switch (wall) {
+                case NORTH:
+                    gc.strokeLine(0, 0, SPACE_WIDTH, 0);
+                    break;
+                case SOUTH:
+                    gc.strokeLine(0, SPACE_HEIGHT, SPACE_WIDTH, SPACE_HEIGHT);
+                    break;
+                case EAST:
+                    gc.strokeLine(SPACE_WIDTH, 0, SPACE_WIDTH, SPACE_HEIGHT);
+                    break;
+                case WEST:
+                    gc.strokeLine(0, 0, 0, SPACE_HEIGHT);
+                    break;
+            }
+        }
+
+        // Draw field actions, centred and rotated around their own centre
+        for (FieldAction action : space.getActions()) {
+            if (action instanceof ConveyorBelt) {
+                gc.save();
+                gc.translate(SPACE_WIDTH / 2.0, SPACE_HEIGHT / 2.0);
+                gc.rotate((90 * ((ConveyorBelt) action).getHeading().ordinal()) % 360);
+                gc.setFill(Color.LIGHTBLUE);
+                gc.fillPolygon(new double[] { -10, 10, 0 }, new double[] { -7.5, -7.5, 7.5 }, 3);
+                gc.restore();
+            } else if (action instanceof CheckPoint) {
+                double radius = SPACE_WIDTH / 3;
+                gc.setStroke(Color.GREEN);
+                gc.setLineWidth(2);
+                gc.strokeOval(SPACE_WIDTH / 2.0 - radius, SPACE_HEIGHT / 2.0 - radius, 2 * radius, 2 * radius);
+
+                gc.setFill(Color.GREEN);
+                gc.setFont(Font.font(16));
+                gc.setTextAlign(TextAlignment.CENTER);
+                gc.setTextBaseline(VPos.CENTER);
+                gc.fillText(String.valueOf(((CheckPoint) action).getNumber()), SPACE_WIDTH / 2.0, SPACE_HEIGHT / 2.0);
+            }
+        }
+    }
+
+    /**
+     * Draws a space on the canvas showing it.
+     */
+    private void drawSpace(int x, int y) {
+        GraphicsContext gc = canvases[x / CANVAS_COLUMNS][y / CANVAS_ROWS].getGraphicsContext2D();
+        double left = (x % CANVAS_COLUMNS) * SPACE_WIDTH;
+        double top = (y % CANVAS_ROWS) * SPACE_HEIGHT;
+        gc.drawImage(images[x][y], left, top);
+
+        Player player = board.getSpace(x, y).getPlayer();
+        if (player != null) {
+            gc.save();
+            gc.translate(left + SPACE_WIDTH / 2.0, top + SPACE_HEIGHT / 2.0);
+            gc.rotate((90 * player.getHeading().ordinal()) % 360);
+            gc.setFill(getColor(player.getColor()));
+            gc.fillPolygon(new double[] { -10, 0, 10 }, new double[] { -10, 10, -10 }, 3);
+            gc.restore();
+        }
+    }
+
+    private Paint getColor(String color) {
+        return colors.computeIfAbsent(String.valueOf(color), name -> {
+            try {
+                return Color.valueOf(name);
+            } catch (Exception e) {
+                return Color.MEDIUMPURPLE;
+            }
+        });
+    }
+
+    /**
+     * Marks a space as dirty and makes sure that the dirty spaces are
+     * redrawn in the JavaFX application thread.
+     */
+    private void markDirty(Space space) {
+        markDirty(space, false);
+    }
+
+    /**
+     * Marks a space as dirty; if its layout changed, its image is rendered
+     * again before it is redrawn.
+     */
+    private void markDirty(Space space, boolean layout) {
+        if (space == null) {
+            return;
+        }
+        synchronized (dirty) {
+            int cell = space.y * board.width + space.x;
+            dirty.set(cell);
+            if (layout) {
+                stale.set(cell);
+            }
+            if (redrawScheduled) {
+                return;
+            }
+            redrawScheduled = true;
+        }
+        Platform.runLater(this::redrawDirty);
+    }
+
+    private void redrawDirty() {
+        BitSet cells;
+        BitSet layouts;
+        synchronized (dirty) {
+            cells = (BitSet) dirty.clone();
+            dirty.clear();
+            layouts = (BitSet) stale.clone();
+            stale.clear();
+            redrawScheduled = false;
+        }
+        // rendering needs the JavaFX application thread, so it is done here
+        for (int cell = layouts.nextSetBit(0); cell >= 0; cell = layouts.nextSetBit(cell + 1)) {
+            int x = cell % board.width;
+            int y = cell / board.width;
+            images[x][y] = renderStatic(board.getSpace(x, y));
+        }
+        for (int cell = cells.nextSetBit(0); cell >= 0; cell = cells.nextSetBit(cell + 1)) {
+            drawSpace(cell % board.width, cell / board.width);
+        }
+    }
+
+    /**
+     * Forwards the changes of the board to the canvas. Like the observers of
+     * subjects, the canvas is referenced weakly only, so that it can be
+     * garbage collected when it is not shown anymore; then the listener
+     * removes itself from the board.
+     */
+    private static class ChangeListener implements ModelChangeListener {
+
+        final private WeakReference<BoardCanvas> canvas;
+
+        final private Board board;
+
+        ChangeListener(BoardCanvas canvas, Board board) {
+            this.canvas = new WeakReference<>(canvas);
+            this.board = board;
+        }
+
+        @Override
+        public void onChange(ModelChange change) {
+            BoardCanvas view = canvas.get();
+            if (view == null) {
+                board.removeChangeListener(this);
+            } else if (change instanceof ModelChange.PlayerMoved) {
+                ModelChange.PlayerMoved moved = (ModelChange.PlayerMoved) change;
+                view.markDirty(moved.from());
+                view.markDirty(moved.to());
+            } else if (change instanceof ModelChange.HeadingChanged) {
+                view.markDirty(((ModelChange.HeadingChanged) change).player().getSpace());
+            } else if (change instanceof ModelChange.PlayerChanged) {
+                view.markDirty(((ModelChange.PlayerChanged) change).player().getSpace());
+            } else if (change instanceof ModelChange.WallsChanged) {
+                view.markDirty(((ModelChange.WallsChanged) change).space(), true);
+            } else if (change instanceof ModelChange.ActionsChanged) {
+                view.markDirty(((ModelChange.ActionsChanged) change).space(), true);
+            }
+        }
+    }
+
+}
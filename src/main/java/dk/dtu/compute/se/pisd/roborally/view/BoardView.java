@@ -49,6 +49,8 @@ public class BoardView extends VBox implements ViewObserver {
     private GridPane mainBoardPane;
     private SpaceView[][] spaces;
 
+    private BoardCanvas boardCanvas;
+
     private PlayersView playersView;
 
     private Label statusLabel;
@@ -56,29 +58,45 @@ public class BoardView extends VBox implements ViewObserver {
     private SpaceEventHandler spaceEventHandler;
 
     public BoardView(@NotNull GameController gameController) {
+        this(gameController, false);
+    }
+
+    /**
+     * Creates the view of the board of the game.
+     *
+     * @param gameController the game controller of the game
+     * @param singleCanvas whether the board is drawn on one {@link BoardCanvas}
+     *                     instead of one {@link SpaceView} per space, which
+     *                     is better for large boards
+     */
+    public BoardView(@NotNull GameController gameController, boolean singleCanvas) {
         board = gameController.board;
 
-        mainBoardPane = new GridPane();
         playersView = new PlayersView(gameController);
         statusLabel = new Label("<no status>");
 
-        this.getChildren().add(mainBoardPane);
-        this.getChildren().add(playersView);
-        this.getChildren().add(statusLabel);
-
-        spaces = new SpaceView[board.width][board.height];
-
         spaceEventHandler = new SpaceEventHandler(gameController);
 
-        for (int x = 0; x < board.width; x++) {
-            for (int y = 0; y < board.height; y++) {
-                Space space = board.getSpace(x, y);
-                SpaceView spaceView = new SpaceView(space);
-                spaces[x][y] = spaceView;
-                mainBoardPane.add(spaceView, x, y);
-                spaceView.setOnMouseClicked(spaceEventHandler);
+        if (singleCanvas) {
+            boardCanvas = new BoardCanvas(board);
+            boardCanvas.setOnMouseClicked(spaceEventHandler);
+            this.getChildren().add(boardCanvas);
+        } else {
+            mainBoardPane = new GridPane();
+            spaces = new SpaceView[board.width][board.height];
+            for (int x = 0; x < board.width; x++) {
+                for (int y = 0; y < board.height; y++) {
+                    Space space = board.getSpace(x, y);
+                    SpaceView spaceView = new SpaceView(space);
+                    spaces[x][y] = spaceView;
+                    mainBoardPane.add(spaceView, x, y);
+                    spaceView.setOnMouseClicked(spaceEventHandler);
+                }
             }
+            this.getChildren().add(mainBoardPane);
         }
+        this.getChildren().add(playersView);
+        this.getChildren().add(statusLabel);
 
         board.attach(this);
         update(board);
@@ -102,13 +120,17 @@ public class BoardView extends VBox implements ViewObserver {
         @Override
         public void handle(MouseEvent event) {
             Object source = event.getSource();
+            Space space = null;
             if (source instanceof SpaceView) {
-                SpaceView spaceView = (SpaceView) source;
-                Space space = spaceView.space;
+                space = ((SpaceView) source).space;
+            } else if (source instanceof BoardCanvas) {
+                space = ((BoardCanvas) source).getSpace(event.getX(), event.getY());
+            }
+            if (space != null) {
                 Board board = space.board;
 
                 if (board == gameController.board) {
-                    gameController.moveCurrentPlayerToSpace(space);
+                    gameController.getGameLoop().moveCurrentPlayerToSpace(space);
                     event.consume();
                 }
             }
@@ -23,7 +23,6 @@ package dk.dtu.compute.se.pisd.roborally.view;
 
 import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
 import dk.dtu.compute.se.pisd.roborally.controller.GameController;
-import dk.dtu.compute.se.pisd.roborally.model.Command;
 import dk.dtu.compute.se.pisd.roborally.model.CommandCard;
 import dk.dtu.compute.se.pisd.roborally.model.CommandCardField;
 import dk.dtu.compute.se.pisd.roborally.model.Phase;
@@ -243,16 +242,14 @@ public class CardFieldView extends GridPane implements ViewObserver {
                         cardField.player.board != null) {
                     if (event.getGestureSource() != target &&
                             db.hasContent(ROBO_RALLY_CARD)) {
-                        Object object = db.getContent(ROBO_RALLY_CARD);
-                        if (object instanceof Integer) {
-                            int number = (Integer) object;
-                            if (number < Command.values().length) {
-                                Command command = Command.values()[number];
-                                cardField.setCard(new CommandCard(command));
-                                event.setDropCompleted(true);
-                                event.consume();
-                                return;
-                            }
+                        Object source = event.getGestureSource();
+                        if (source instanceof CardFieldView) {
+                            // the card is moved by the game loop; the views of
+                            // both fields are updated with its next snapshot
+                            gameController.getGameLoop().moveCards(((CardFieldView) source).field, cardField);
+                            event.setDropCompleted(true);
+                            event.consume();
+                            return;
                         }
                     }
                 }
@@ -272,8 +269,8 @@ public class CardFieldView extends GridPane implements ViewObserver {
             if (t instanceof CardFieldView) {
                 CardFieldView source = (CardFieldView) t;
                 if (event.isAccepted()) {
-                    source.field.setCard(null);
-                    // the view will update automatically since the field changed
+                    // the card was moved by the game loop already; the view
+                    // will update automatically since the field changes
                     // source.setBackground(BG_NONE);
                 } else {
                     // leave the card on the field, since drag and drop was cancelled
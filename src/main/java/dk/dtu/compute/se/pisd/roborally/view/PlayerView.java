@@ -89,13 +89,15 @@ public class PlayerView extends Tab implements ViewObserver {
             }
         }
         finishButton = new Button("Finish Programming");
-        finishButton.setOnAction( e -> gameController.finishProgrammingPhase());
+        // the game is played by the game loop in a thread of its own; the
+        // buttons only submit commands to it
+        finishButton.setOnAction( e -> gameController.getGameLoop().finishProgrammingPhase());
 
         executeButton = new Button("Execute Program");
-        executeButton.setOnAction( e-> gameController.executePrograms());
+        executeButton.setOnAction( e-> gameController.getGameLoop().executePrograms());
 
         stepButton = new Button("Execute Current Register");
-        stepButton.setOnAction( e-> gameController.executeStep());
+        stepButton.setOnAction( e-> gameController.getGameLoop().executeStep());
 
         buttonPanel = new VBox(finishButton, executeButton, stepButton);
         buttonPanel.setAlignment(Pos.CENTER_LEFT);
@@ -204,14 +206,14 @@ public class PlayerView extends Tab implements ViewObserver {
                     // Show turn options for LEFT_OR_RIGHT card
                     Button turnLeftButton = new Button("Turn Left");
                     turnLeftButton.setOnAction(e -> {
-                        gameController.handleInteractiveCommand(Command.LEFT);
+                        gameController.getGameLoop().handleInteractiveCommand(Command.LEFT);
                     });
                     turnLeftButton.setDisable(false);
                     playerInteractionPanel.getChildren().add(turnLeftButton);
 
                     Button turnRightButton = new Button("Turn Right");
                     turnRightButton.setOnAction(e -> {
-                        gameController.handleInteractiveCommand(Command.RIGHT);
+                        gameController.getGameLoop().handleInteractiveCommand(Command.RIGHT);
                     });
                     turnRightButton.setDisable(false);
                     playerInteractionPanel.getChildren().add(turnRightButton);
@@ -37,6 +37,8 @@ import javafx.scene.shape.Polygon;
 import javafx.scene.text.Text;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
+
 /**
  * ...
  *
@@ -50,6 +52,17 @@ public class SpaceView extends StackPane implements ViewObserver {
 
     public final Space space;
 
+    // the robot is drawn by this one polygon, which is updated in place;
+    // it is the topmost child and hidden when there is no player on the space
+    final private Polygon robot = new Polygon(0.0, 0.0,
+            10.0, 20.0,
+            20.0, 0.0 );
+
+    private String robotColor;
+
+    // copies of the walls and actions the static layer was built for
+    private List<Heading> layoutWalls = null;
+    private List<FieldAction> layoutActions = null;
 
     public SpaceView(@NotNull Space space) {
         this.space = space;
@@ -68,7 +81,7 @@ public class SpaceView extends StackPane implements ViewObserver {
             this.setStyle("-fx-background-color: black;");
         }
 
-        // updatePlayer();
+        robot.setVisible(false);
 
         // This space view should listen to changes of the space
         space.attach(this);
@@ -78,31 +91,50 @@ public class SpaceView extends StackPane implements ViewObserver {
     private void updatePlayer() {
         Player player = space.getPlayer();
         if (player != null) {
-            Polygon arrow = new Polygon(0.0, 0.0,
-                    10.0, 20.0,
-                    20.0, 0.0 );
-            try {
-                arrow.setFill(Color.valueOf(player.getColor()));
-            } catch (Exception e) {
-                arrow.setFill(Color.MEDIUMPURPLE);
+            String color = player.getColor();
+            if (color == null || !color.equals(robotColor)) {
+                try {
+                    robot.setFill(Color.valueOf(color));
+                } catch (Exception e) {
+                    robot.setFill(Color.MEDIUMPURPLE);
+                }
+                robotColor = color;
             }
-
-            arrow.setRotate((90*player.getHeading().ordinal())%360);
-            this.getChildren().add(arrow);
+            robot.setRotate((90*player.getHeading().ordinal())%360);
+            robot.setVisible(true);
+        } else {
+            robot.setVisible(false);
         }
     }
 
     @Override
     public void updateView(Subject subject) {
         if (subject == this.space) {
-            this.getChildren().clear();
+            // the walls and actions are set up with the board and do not
+            // change during the game; so most updates change the robot only.
+            // The contents are compared, since a wall or action could be
+            // replaced by another one
+            if (!space.getWalls().equals(layoutWalls) || !space.getActions().equals(layoutActions)) {
+                buildLayout();
+            }
+            updatePlayer();
+        }
+    }
+
+    /**
+     * Builds the static layer of the space: walls, conveyor belts and
+     * checkpoints, with the robot on top.
+     */
+    private void buildLayout() {
+        this.getChildren().clear();
 
-            // Draw walls
+        // Draw walls
+        if (!space.getWalls().isEmpty()) {
             Canvas canvas = new Canvas(SPACE_WIDTH, SPACE_HEIGHT);
             GraphicsContext gc = canvas.getGraphicsContext2D();
             gc.setStroke(Color.RED);
             gc.setLineWidth(6);
-            
+
             for (Heading wall : space.getWalls()) {
                 switch (wall) {
                     case NORTH:
@@ -120,40 +152,41 @@ public class SpaceView extends StackPane implements ViewObserver {
                 }
             }
             this.getChildren().add(canvas);
+        }
 
-            // Draw field actions
-            for (FieldAction action : space.getActions()) {
-                if (action instanceof ConveyorBelt) {
-                    ConveyorBelt belt = (ConveyorBelt) action;
-                    Polygon arrow = new Polygon(
-                        SPACE_WIDTH/2 - 10, SPACE_HEIGHT/2 - 20,
-                        SPACE_WIDTH/2 + 10, SPACE_HEIGHT/2 - 20,
-                        SPACE_WIDTH/2, SPACE_HEIGHT/2 - 5
-                    );
-                    arrow.setFill(Color.LIGHTBLUE);
-                    arrow.setRotate((90 * belt.getHeading().ordinal()) % 360);
-                    this.getChildren().add(arrow);
-                } else if (action instanceof CheckPoint) {
-                    CheckPoint checkPoint = (CheckPoint) action;
-                    
-                    // Create checkpoint circle
-                    Circle circle = new Circle(SPACE_WIDTH/3);
-                    circle.setFill(Color.TRANSPARENT);
-                    circle.setStroke(Color.GREEN);
-                    circle.setStrokeWidth(2);
-                    
-                    // Add checkpoint number
-                    Text number = new Text(String.valueOf(checkPoint.getNumber()));
-                    number.setFill(Color.GREEN);
-                    number.setStyle("-fx-font-size: 16;");
-                    
-                    this.getChildren().addAll(circle, number);
-                }
+        // Draw field actions
+        for (FieldAction action : space.getActions()) {
+            if (action instanceof ConveyorBelt) {
+                ConveyorBelt belt = (ConveyorBelt) action;
+                Polygon arrow = new Polygon(
+                    SPACE_WIDTH/2 - 10, SPACE_HEIGHT/2 - 20,
+                    SPACE_WIDTH/2 + 10, SPACE_HEIGHT/2 - 20,
+                    SPACE_WIDTH/2, SPACE_HEIGHT/2 - 5
+                );
+                arrow.setFill(Color.LIGHTBLUE);
+                arrow.setRotate((90 * belt.getHeading().ordinal()) % 360);
+                this.getChildren().add(arrow);
+            } else if (action instanceof CheckPoint) {
+                CheckPoint checkPoint = (CheckPoint) action;
+
+                // Create checkpoint circle
+                Circle circle = new Circle(SPACE_WIDTH/3);
+                circle.setFill(Color.TRANSPARENT);
+                circle.setStroke(Color.GREEN);
+                circle.setStrokeWidth(2);
+
+                // Add checkpoint number
+                Text number = new Text(String.valueOf(checkPoint.getNumber()));
+                number.setFill(Color.GREEN);
+                number.setStyle("-fx-font-size: 16;");
+
+                this.getChildren().addAll(circle, number);
             }
-
-            // Draw player
-            updatePlayer();
         }
+
+        this.getChildren().add(robot);
+        layoutWalls = List.copyOf(space.getWalls());
+        layoutActions = List.copyOf(space.getActions());
     }
 
 }
@@ -0,0 +1,160 @@
+package dk.dtu.compute.se.pisd.roborally.view;
+
+import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Forwards the updates of {@link ViewObserver}s, which are notified outside
+ * the JavaFX application thread, to that thread (see
+ * {@link ViewObserver#update(Subject)}).
+ *
+ * Instead of one {@link Platform#runLater(Runnable)} per notification, the
+ * pending updates are collected, and an update of the same observer for the
+ * same subject is pending at most once. An {@link AnimationTimer} executes
+ * all pending updates once per pulse, right before the scene is rendered;
+ * the timer runs only while there are updates, so a burst of changes from a
+ * game played in the background costs one update per view and pulse, no
+ * matter how many notifications there were.
+ *
+ * A game run by a {@link dk.dtu.compute.se.pisd.roborally.controller.GameLoop}
+ * does not go through the dispatcher: the loop applies its snapshots to the
+ * board shown in the JavaFX application thread, where the views are updated
+ * directly. The dispatcher only covers the subjects which are changed by
+ * other threads, outside of a game loop.
+ */
+public final class ViewUpdateDispatcher {
+
+    final private static ViewUpdateDispatcher instance = new ViewUpdateDispatcher();
+
+    // the pending updates in the order of their first notification;
+    // guarded by the lock of the map
+    private Map<ViewObserver, Set<Subject>> pending = new LinkedHashMap<>();
+    private boolean scheduled = false;
+
+    // makes sure that the pending updates are executed, called when the
+    // first update is pending
+    final private Runnable schedule;
+
+    final private LongAdder enqueued = new LongAdder();
+    final private LongAdder executed = new LongAdder();
+
+    private AnimationTimer timer;
+
+    private ViewUpdateDispatcher() {
+        this.schedule = () -> Platform.runLater(this::startTimer);
+    }
+
+    /**
+     * Creates a dispatcher which calls the given runnable when updates are
+     * pending; the updates are then executed by {@link #drain()}. This is
+     * used where there is no JavaFX application thread, e.g. in tests.
+     */
+    ViewUpdateDispatcher(@NotNull Runnable schedule) {
+        this.schedule = schedule;
+    }
+
+    /**
+     * Returns the dispatcher used by all view observers.
+     *
+     * @return the dispatcher
+     */
+    public static ViewUpdateDispatcher getInstance() {
+        return instance;
+    }
+
+    /**
+     * Makes sure that the observer is updated for the subject in the JavaFX
+     * application thread with the next pulse, unless this update is pending
+     * already. May be called from any thread.
+     *
+     * @param observer the observer to be updated
+     * @param subject the subject which changed
+     */
+    public void dispatch(@NotNull ViewObserver observer, Subject subject) {
+        enqueued.increment();
+        boolean start;
+        synchronized (this) {
+            pending.computeIfAbsent(observer, key -> new LinkedHashSet<>()).add(subject);
+            start = !scheduled;
+            scheduled = true;
+        }
+        if (start) {
+            schedule.run();
+        }
+    }
+
+    /**
+     * Executes all pending updates; runs in the JavaFX application thread.
+     * An update which fails is reported, and the remaining updates are
+     * executed anyway.
+     *
+     * @return false if there were no pending updates
+     */
+    boolean drain() {
+        Map<ViewObserver, Set<Subject>> updates;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                scheduled = false;
+                return false;
+            }
+            updates = pending;
+            pending = new LinkedHashMap<>();
+        }
+        for (Map.Entry<ViewObserver, Set<Subject>> entry : updates.entrySet()) {
+            for (Subject subject : entry.getValue()) {
+                executed.increment();
+                try {
+                    entry.getKey().updateView(subject);
+                } catch (RuntimeException e) {
+                    System.err.println("An update of a view failed: " + e);
+                }
+            }
+        }
+        return true;
+    }
+
+    private void startTimer() {
+        if (timer == null) {
+            timer = new AnimationTimer() {
+                @Override
+                public void handle(long now) {
+                    // when nothing is pending anymore, the timer stops; the
+                    // next update starts it again
+                    if (!drain()) {
+                        stop();
+                    }
+                }
+            };
+        }
+        timer.start();
+    }
+
+    /**
+     * Returns the number of updates which were dispatched so far.
+     *
+     * @return the number of dispatched updates
+     */
+    public long getEnqueued() {
+        return enqueued.sum();
+    }
+
+    /**
+     * Returns the number of updates which were executed so far; the
+     * difference to {@link #getEnqueued()} is the number of updates which
+     * were saved (or are still pending).
+     *
+     * @return the number of executed updates
+     */
+    public long getExecuted() {
+        return executed.sum();
+    }
+
+}
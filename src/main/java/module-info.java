@@ -29,6 +29,10 @@ module roborally {
 
     exports dk.dtu.compute.se.pisd.roborally.dal;
     exports dk.dtu.compute.se.pisd.roborally.fileaccess;
+    exports dk.dtu.compute.se.pisd.roborally.simulation;
+    exports dk.dtu.compute.se.pisd.roborally.planner;
+    exports dk.dtu.compute.se.pisd.roborally.server;
+    exports dk.dtu.compute.se.pisd.roborally.net;
 
     exports dk.dtu.compute.se.pisd.designpatterns.observer;
 
@@ -9,6 +9,12 @@ CREATE TABLE IF NOT EXISTS Game (
   phase tinyint,
   step tinyint,
   currentPlayer tinyint NULL,
+
+  eventSeq int NOT NULL DEFAULT 0,
+
+  dealerSeed bigint NOT NULL DEFAULT 0,
+  dealerDeck tinyint NOT NULL DEFAULT 0,
+  dealerDealt bigint NOT NULL DEFAULT 0,
   
   PRIMARY KEY (gameID),
   FOREIGN KEY (gameID, currentPlayer) REFERENCES Player(gameID, playerID)
@@ -24,11 +30,41 @@ CREATE TABLE IF NOT EXISTS Player (
   positionX int,
   positionY int,
   heading tinyint,
+  checkpoints tinyint NOT NULL DEFAULT 0,
   
   PRIMARY KEY (gameID, playerID),
   FOREIGN KEY (gameID) REFERENCES Game(gameID)
 );;
 
-SET FOREIGN_KEY_CHECKS = 1;;
+CREATE TABLE IF NOT EXISTS GameEvent (
+  gameID int NOT NULL,
+  seq int NOT NULL,
 
-// TODO still some stuff missing here
\ No newline at end of file
+  type tinyint NOT NULL,
+  playerID tinyint NULL,
+  command tinyint NULL,
+
+  positionX int NULL,
+  positionY int NULL,
+  heading tinyint NULL,
+  checkpoints tinyint NOT NULL DEFAULT 0,
+
+  phase tinyint,
+  step tinyint,
+  currentPlayer tinyint NULL,
+  dealerDealt bigint NOT NULL DEFAULT 0,
+
+  PRIMARY KEY (gameID, seq),
+  FOREIGN KEY (gameID) REFERENCES Game(gameID)
+);;
+
+/* Databases created before the event log was added: these fail harmlessly
+   if the columns exist already */
+ALTER TABLE Game ADD COLUMN eventSeq int NOT NULL DEFAULT 0;;
+ALTER TABLE Player ADD COLUMN checkpoints tinyint NOT NULL DEFAULT 0;;
+ALTER TABLE Game ADD COLUMN dealerSeed bigint NOT NULL DEFAULT 0;;
+ALTER TABLE Game ADD COLUMN dealerDeck tinyint NOT NULL DEFAULT 0;;
+ALTER TABLE Game ADD COLUMN dealerDealt bigint NOT NULL DEFAULT 0;;
+ALTER TABLE GameEvent ADD COLUMN dealerDealt bigint NOT NULL DEFAULT 0;;
+
+SET FOREIGN_KEY_CHECKS = 1;;
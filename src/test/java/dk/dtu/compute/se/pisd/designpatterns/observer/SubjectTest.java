@@ -0,0 +1,74 @@
+package dk.dtu.compute.se.pisd.designpatterns.observer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubjectTest {
+
+    private static class TestSubject extends Subject {
+        void change() {
+            notifyChange();
+        }
+    }
+
+    private final List<Subject> updates = new ArrayList<>();
+
+    private final Observer observer = updates::add;
+
+    private TestSubject first;
+    private TestSubject second;
+
+    @BeforeEach
+    void setUp() {
+        first = new TestSubject();
+        second = new TestSubject();
+        first.attach(observer);
+        second.attach(observer);
+    }
+
+    @Test
+    void testNotifyWithoutBatch() {
+        first.change();
+        first.change();
+
+        assertEquals(List.of(first, first), updates, "Every change should be notified immediately");
+    }
+
+    @Test
+    void testBatchCoalescesChanges() {
+        Subject.beginBatch();
+        try {
+            first.change();
+            second.change();
+            first.change();
+            assertTrue(updates.isEmpty(), "No notifications should be sent during a batch");
+        } finally {
+            Subject.endBatch();
+        }
+
+        assertEquals(List.of(first, second), updates, "Each subject should be notified once, in order of the first change");
+    }
+
+    @Test
+    void testNestedBatchesFlushAtOutermostEnd() {
+        Subject.beginBatch();
+        Subject.beginBatch();
+        first.change();
+        Subject.endBatch();
+        assertTrue(updates.isEmpty(), "Inner batch should not flush");
+        Subject.endBatch();
+
+        assertEquals(List.of(first), updates, "Outer batch should flush");
+    }
+
+    @Test
+    void testUnmatchedEndBatch() {
+        assertThrows(IllegalStateException.class, Subject::endBatch);
+    }
+
+}
@@ -0,0 +1,66 @@
+package dk.dtu.compute.se.pisd.roborally.controller;
+
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.Phase;
+import dk.dtu.compute.se.pisd.roborally.planner.GameState;
+import dk.dtu.compute.se.pisd.roborally.simulation.SimulationEngine;
+import dk.dtu.compute.se.pisd.roborally.simulation.TestPrograms;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutionSchedulerTest {
+
+    private static final Command[] PROGRAM = {
+            Command.FORWARD, Command.RIGHT, Command.FORWARD, Command.LEFT, Command.FAST_FORWARD };
+
+    private GameController createGame() {
+        GameController gameController = new SimulationEngine("advanced", 3, 1, 4711L).createGame();
+        Board board = gameController.board;
+        gameController.startProgrammingPhase();
+        for (int i = 0; i < board.getPlayersNumber(); i++) {
+            TestPrograms.setProgram(board.getPlayer(i), PROGRAM);
+        }
+        gameController.finishProgrammingPhase();
+        return gameController;
+    }
+
+    @Test
+    void testStateIsPublishedAfterEachRegister() throws InterruptedException {
+        GameController gameController = createGame();
+        Board board = gameController.board;
+        List<Integer> steps = new ArrayList<>();
+        ExecutionScheduler scheduler = new ExecutionScheduler(gameController, () -> {
+            assertEquals(Phase.ACTIVATION, board.getPhase());
+            steps.add(board.getStep());
+        });
+        scheduler.setRegisterMillis(0);
+        scheduler.executePrograms();
+
+        assertEquals(List.of(1, 2, 3, 4), steps,
+                "The state should have been published before each register but the first");
+        assertEquals(Phase.PROGRAMMING, board.getPhase());
+
+        GameController expected = createGame();
+        expected.executePrograms();
+        assertEquals(GameState.of(expected.board), GameState.of(board),
+                "The result should be the same as of executing all registers at once");
+    }
+
+    @Test
+    void testInterruptStopsExecution() {
+        GameController gameController = createGame();
+        ExecutionScheduler scheduler = new ExecutionScheduler(gameController, () -> {});
+        scheduler.setRegisterMillis(10);
+        Thread.currentThread().interrupt();
+        assertThrows(InterruptedException.class, scheduler::executePrograms);
+        assertEquals(Phase.ACTIVATION, gameController.board.getPhase(),
+                "The remaining registers should not be executed");
+        assertEquals(1, gameController.board.getStep());
+    }
+
+}
@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -226,6 +227,35 @@ class GameControllerTest {
         assertEquals(board.getSpace(2, 0), pusher.getSpace(), "Pusher should be at (2,0)");
     }
 
+    @Test
+    void testEventsOfPushingCommand() {
+        Board board = gameController.board;
+        Player pusher = board.getPlayer(0);
+        Player pushed = board.getPlayer(1);
+        pusher.setSpace(board.getSpace(2, 0));
+        pushed.setSpace(board.getSpace(3, 0));
+        pusher.setHeading(Heading.EAST);
+
+        List<GameEvent> events = new ArrayList<>();
+        gameController.addEventListener(events::add);
+
+        pusher.getProgramField(0).setCard(new CommandCard(Command.FORWARD));
+        board.setPhase(Phase.ACTIVATION);
+        board.setStep(0);
+        board.setCurrentPlayer(pusher);
+        gameController.executeNextStep(null);
+
+        assertEquals(2, events.size(), "A push and a command event should have been reported");
+        GameEvent push = events.get(0);
+        assertEquals(GameEvent.Type.PUSH, push.type, "The pushed player moves first");
+        assertEquals(pushed, push.player);
+        assertEquals(4, push.x, "The event should carry the resulting position");
+        GameEvent command = events.get(1);
+        assertEquals(GameEvent.Type.COMMAND, command.type);
+        assertEquals(Command.FORWARD, command.command);
+        assertEquals(3, command.x, "The event should carry the resulting position");
+    }
+
     @Test
     void testPushBlockedByWall() {
         Board board = gameController.board;
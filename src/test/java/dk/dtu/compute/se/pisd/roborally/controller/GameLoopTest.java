@@ -0,0 +1,176 @@
+package dk.dtu.compute.se.pisd.roborally.controller;
+
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.CardDealer;
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.CommandCard;
+import dk.dtu.compute.se.pisd.roborally.model.CommandCardField;
+import dk.dtu.compute.se.pisd.roborally.model.Phase;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import dk.dtu.compute.se.pisd.roborally.planner.GameState;
+import dk.dtu.compute.se.pisd.roborally.simulation.SimulationEngine;
+import dk.dtu.compute.se.pisd.roborally.simulation.TestPrograms;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameLoopTest {
+
+    private GameController createGame(long seed) {
+        GameController gameController = new SimulationEngine("advanced", 4, 1, seed).createGame();
+        Board board = gameController.board;
+        board.setCardDealer(new CardDealer(seed));
+        gameController.startProgrammingPhase();
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < board.getPlayersNumber(); i++) {
+            TestPrograms.setProgram(board.getPlayer(i), TestPrograms.randomProgram(random));
+        }
+        gameController.finishProgrammingPhase();
+        return gameController;
+    }
+
+    private void assertSameGame(Board expected, Board actual) {
+        assertEquals(GameState.of(expected), GameState.of(actual), "The robots should be the same");
+        assertEquals(expected.getPhase(), actual.getPhase());
+        assertEquals(expected.getStep(), actual.getStep());
+        assertEquals(expected.getPlayerNumber(expected.getCurrentPlayer()),
+                actual.getPlayerNumber(actual.getCurrentPlayer()));
+        for (int i = 0; i < expected.getPlayersNumber(); i++) {
+            for (int j = 0; j < Player.NO_CARDS; j++) {
+                CommandCard card = expected.getPlayer(i).getCardField(j).getCard();
+                CommandCard other = actual.getPlayer(i).getCardField(j).getCard();
+                assertEquals(card != null ? card.command : null, other != null ? other.command : null,
+                        "Card " + j + " of player " + i);
+            }
+        }
+        assertEquals(expected.getCardDealer().getDealt(), actual.getCardDealer().getDealt());
+    }
+
+    @Test
+    void testExecutionInLoopEndsInSameState() throws InterruptedException {
+        GameController expected = createGame(4711L);
+        expected.executePrograms();
+
+        GameController gameController = createGame(4711L);
+        GameLoop loop = new GameLoop(gameController, false);
+        loop.setRegisterMillis(0);
+        loop.executePrograms();
+        assertTrue(loop.await(5000), "The execution should be finished");
+
+        assertTrue(loop.showSnapshot());
+        assertFalse(loop.showSnapshot(), "There should be no newer snapshot");
+        assertEquals(Phase.PROGRAMMING, gameController.board.getPhase());
+        assertSameGame(expected.board, gameController.board);
+        loop.close();
+    }
+
+    @Test
+    void testSnapshotsShowRegistersWhileExecuting() throws InterruptedException {
+        GameController gameController = createGame(42L);
+        Board board = gameController.board;
+        GameState start = GameState.of(board);
+        GameLoop loop = new GameLoop(gameController, false);
+        loop.setRegisterMillis(100);
+        loop.executePrograms();
+
+        int snapshots = 0;
+        boolean changed = false;
+        long deadline = System.currentTimeMillis() + 10000;
+        while (loop.isBusy() && System.currentTimeMillis() < deadline) {
+            if (loop.showSnapshot() && loop.isBusy()) {
+                snapshots++;
+                changed |= !GameState.of(board).equals(start);
+                assertEquals(Phase.ACTIVATION, board.getPhase(),
+                        "The board shown should stay in the activation phase until the end");
+            }
+            Thread.sleep(20);
+        }
+        assertFalse(loop.isBusy(), "The execution should be finished");
+        assertTrue(snapshots > 0 && changed, "The robots should have moved before the end of the execution");
+        loop.showSnapshot();
+
+        GameController expected = createGame(42L);
+        expected.executePrograms();
+        assertSameGame(expected.board, board);
+        loop.close();
+    }
+
+    @Test
+    void testCommandsChangeOnlyTheBoardOfTheLoop() throws InterruptedException {
+        GameController gameController = createGame(7L);
+        Board board = gameController.board;
+        gameController.startProgrammingPhase();
+        Player player = board.getPlayer(1);
+        CommandCardField source = player.getCardField(2);
+        CommandCardField target = player.getProgramField(0);
+        Command command = source.getCard().command;
+
+        GameLoop loop = new GameLoop(gameController, false);
+        loop.moveCards(source, target);
+        loop.finishProgrammingPhase();
+        assertTrue(loop.await(5000));
+        assertNotNull(source.getCard(), "The board shown should not change before the snapshot is shown");
+        assertEquals(Phase.PROGRAMMING, board.getPhase());
+
+        assertTrue(loop.showSnapshot());
+        assertNull(source.getCard());
+        assertEquals(command, target.getCard().command);
+        assertEquals(Phase.ACTIVATION, board.getPhase());
+        loop.close();
+    }
+
+    @Test
+    void testFailedCommandIsReportedAndGameGoesOn() throws InterruptedException {
+        GameController gameController = createGame(11L);
+        GameLoop loop = new GameLoop(gameController, false);
+        loop.submit(owner -> {
+            throw new IllegalStateException("broken command");
+        });
+        loop.executeStep();
+        assertTrue(loop.await(5000), "The loop should go on after a failed command");
+        assertTrue(loop.getFailure() instanceof IllegalStateException);
+        assertFalse(loop.isClosed());
+        assertTrue(loop.showSnapshot());
+        loop.close();
+    }
+
+    @Test
+    void testErrorClosesLoop() throws InterruptedException {
+        GameController gameController = createGame(12L);
+        GameLoop loop = new GameLoop(gameController, false);
+        loop.submit(owner -> {
+            throw new AssertionError("broken game");
+        });
+        loop.executeStep();
+        assertTrue(loop.await(5000), "The dropped commands should not be pending");
+        assertTrue(loop.getFailure() instanceof AssertionError);
+        assertTrue(loop.isClosed());
+
+        loop.executeStep();
+        assertFalse(loop.isBusy(), "A closed loop should not accept commands");
+        loop.close();
+    }
+
+    @Test
+    void testEventsReachListenersOfBoardShown() throws InterruptedException {
+        GameController gameController = createGame(13L);
+        List<GameEvent> events = new ArrayList<>();
+        gameController.addEventListener(events::add);
+
+        GameLoop loop = new GameLoop(gameController, false);
+        loop.setRegisterMillis(0);
+        loop.executePrograms();
+        assertTrue(loop.await(5000));
+
+        long registers = events.stream().filter(event -> event.type == GameEvent.Type.REGISTER).count();
+        assertEquals(Player.NO_REGISTERS, registers, "Each register should have been reported");
+        assertTrue(events.stream().allMatch(event -> event.board != gameController.board),
+                "The events should happen on the board of the loop");
+        loop.close();
+    }
+
+}
@@ -0,0 +1,282 @@
+package dk.dtu.compute.se.pisd.roborally.dal;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindRepositoryTest {
+
+    /**
+     * A writer which records the batches it gets and which blocks
+     * on its first batch until it is released.
+     */
+    private static class RecordingWriter implements GameWriter {
+
+        final List<List<GameSnapshot>> batches = new ArrayList<>();
+        final List<EventBatch> events = new ArrayList<>();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public boolean updateGamesInDB(Collection<GameSnapshot> snapshots) {
+            synchronized (this) {
+                batches.add(new ArrayList<>(snapshots));
+            }
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        }
+
+        @Override
+        public synchronized boolean appendEventsInDB(Collection<EventBatch> batches) {
+            events.addAll(batches);
+            return true;
+        }
+
+        @Override
+        public long getLastEventSeqInDB(int gameId) {
+            return 0;
+        }
+    }
+
+    private Board createGame(int id) {
+        Board board = new Board(8, 8);
+        board.setGameId(id);
+        Player player = new Player(board, "red", "Player 1");
+        board.addPlayer(player);
+        player.setSpace(board.getSpace(0, 0));
+        board.setCurrentPlayer(player);
+        return board;
+    }
+
+    @Test
+    void testUpdatesOfSameGameAreCoalesced() throws InterruptedException {
+        RecordingWriter writer = new RecordingWriter();
+        WriteBehindRepository repository = new WriteBehindRepository(null, writer);
+
+        Board game1 = createGame(1);
+        Board game2 = createGame(2);
+
+        repository.updateGameInDB(game1);
+        assertTrue(writer.started.await(5, TimeUnit.SECONDS), "The writer should have started");
+
+        // while the writer is busy, three updates pile up for two games
+        game1.getPlayer(0).setSpace(game1.getSpace(1, 0));
+        repository.updateGameInDB(game1);
+        repository.updateGameInDB(game2);
+        game1.getPlayer(0).setSpace(game1.getSpace(2, 0));
+        repository.updateGameInDB(game1);
+
+        assertFalse(repository.awaitFlush(50), "Flush should not complete while the writer is blocked");
+        writer.release.countDown();
+        assertTrue(repository.awaitFlush(5000), "Flush should complete once the writer is released");
+
+        synchronized (writer) {
+            assertEquals(2, writer.batches.size(), "Pending updates should be written in one batch");
+            List<GameSnapshot> second = writer.batches.get(1);
+            assertEquals(2, second.size(), "Each game should be written only once");
+            assertEquals(2, second.get(0).gameId, "Game 1 was re-enqueued after game 2");
+            assertEquals(1, second.get(1).gameId);
+            assertEquals(2, second.get(1).getPositionX(0), "Only the latest state should be written");
+        }
+    }
+
+    @Test
+    void testSnapshotIsTakenWhenEnqueued() throws InterruptedException {
+        RecordingWriter writer = new RecordingWriter();
+        writer.release.countDown();
+        WriteBehindRepository repository = new WriteBehindRepository(null, writer);
+
+        Board game = createGame(1);
+        repository.updateGameInDB(game);
+        game.getPlayer(0).setSpace(game.getSpace(5, 5));
+        assertTrue(repository.awaitFlush(5000));
+
+        synchronized (writer) {
+            assertEquals(0, writer.batches.get(0).get(0).getPositionX(0),
+                    "Later changes of the game should not show up in the enqueued update");
+        }
+    }
+
+    @Test
+    void testEventLogTakesSnapshots() {
+        RecordingWriter writer = new RecordingWriter();
+        writer.release.countDown();
+        WriteBehindRepository repository = new WriteBehindRepository(null, writer);
+
+        Board game = createGame(1);
+        GameController gameController = new GameController(game);
+        GameEventLog log = repository.openEventLog(game);
+        gameController.addEventListener(log);
+
+        int turns = GameEventLog.SNAPSHOT_INTERVAL + 3;
+        for (int i = 0; i < turns; i++) {
+            gameController.moveCurrentPlayerToSpace(game.getSpace(i % 2, 1));
+        }
+        log.flush();
+        repository.flush();
+
+        synchronized (writer) {
+            long seq = 0;
+            int snapshots = 0;
+            for (EventBatch batch: writer.events) {
+                for (EventRecord event: batch.events) {
+                    assertEquals(++seq, event.seq, "Events should be appended in order");
+                }
+                if (batch.snapshot != null) {
+                    assertEquals(seq, batch.snapshot.eventSeq, "The snapshot should follow the last event of its batch");
+                    snapshots++;
+                }
+            }
+            assertEquals(turns, seq, "All events should have been appended");
+            assertEquals(1, snapshots, "One snapshot should have been taken");
+        }
+    }
+
+    /**
+     * A writer whose first writes of games fail, the first one by throwing
+     * an error instead of returning false.
+     */
+    private static class FailingWriter implements GameWriter {
+
+        int failures;
+        int attempts = 0;
+
+        FailingWriter(int failures) {
+            this.failures = failures;
+        }
+
+        @Override
+        public synchronized boolean updateGamesInDB(Collection<GameSnapshot> snapshots) {
+            attempts++;
+            if (attempts == 1) {
+                throw new AssertionError("broken driver");
+            }
+            return attempts > failures;
+        }
+
+        @Override
+        public boolean appendEventsInDB(Collection<EventBatch> batches) {
+            return true;
+        }
+
+        @Override
+        public long getLastEventSeqInDB(int gameId) {
+            return 0;
+        }
+    }
+
+    @Test
+    void testFailedWritesAreRetried() throws InterruptedException {
+        FailingWriter writer = new FailingWriter(WriteBehindRepository.MAX_ATTEMPTS - 1);
+        WriteBehindRepository repository = new WriteBehindRepository(null, writer);
+
+        Board game = createGame(1);
+        assertTrue(repository.updateGameInDB(game));
+        assertTrue(repository.awaitFlush(5000), "The error should not stop the writer thread");
+        assertEquals(WriteBehindRepository.MAX_ATTEMPTS, writer.attempts);
+        assertEquals(0, repository.getFailedWrites(), "The last attempt should have succeeded");
+        assertTrue(repository.updateGameInDB(game));
+    }
+
+    @Test
+    void testGivenUpWritesAreReported() throws InterruptedException {
+        FailingWriter writer = new FailingWriter(WriteBehindRepository.MAX_ATTEMPTS);
+        WriteBehindRepository repository = new WriteBehindRepository(null, writer);
+
+        Board game = createGame(1);
+        assertTrue(repository.updateGameInDB(game));
+        assertTrue(repository.awaitFlush(5000), "A given up write should not block flushing");
+        assertEquals(1, repository.getFailedWrites());
+        assertFalse(repository.updateGameInDB(game), "The failed write of the game should be reported");
+
+        // the next attempt succeeds, so the game is fine again
+        assertTrue(repository.awaitFlush(5000));
+        assertEquals(1, repository.getFailedWrites());
+        assertTrue(repository.updateGameInDB(game));
+        assertTrue(repository.awaitFlush(5000));
+    }
+
+    /**
+     * A writer whose first appends of events fail, and which records the
+     * batches of events appended successfully.
+     */
+    private static class LosingWriter implements GameWriter {
+
+        final List<EventBatch> events = new ArrayList<>();
+        int failures;
+
+        LosingWriter(int failures) {
+            this.failures = failures;
+        }
+
+        @Override
+        public boolean updateGamesInDB(Collection<GameSnapshot> snapshots) {
+            return true;
+        }
+
+        @Override
+        public synchronized boolean appendEventsInDB(Collection<EventBatch> batches) {
+            if (failures > 0) {
+                failures--;
+                return false;
+            }
+            events.addAll(batches);
+            return true;
+        }
+
+        @Override
+        public long getLastEventSeqInDB(int gameId) {
+            return 0;
+        }
+    }
+
+    @Test
+    void testLostEventsAreReportedUntilSnapshotIsWritten() {
+        LosingWriter writer = new LosingWriter(WriteBehindRepository.MAX_ATTEMPTS);
+        WriteBehindRepository repository = new WriteBehindRepository(null, writer);
+
+        Board game = createGame(1);
+        GameController gameController = new GameController(game);
+        GameEventLog log = repository.openEventLog(game);
+        gameController.addEventListener(log);
+
+        for (int i = 0; i < GameEventLog.BATCH_SIZE; i++) {
+            gameController.moveCurrentPlayerToSpace(game.getSpace(i % 2, 1));
+        }
+        repository.flush();
+        assertEquals(1, repository.getFailedWrites());
+
+        // a written update of the game does not make up for the lost events
+        assertFalse(repository.updateGameInDB(game), "The lost events should be reported");
+        repository.flush();
+        assertFalse(repository.updateGameInDB(game), "The lost events should still be reported");
+
+        for (int i = 0; i < GameEventLog.BATCH_SIZE; i++) {
+            gameController.moveCurrentPlayerToSpace(game.getSpace(i % 2, 2));
+        }
+        repository.flush();
+        synchronized (writer) {
+            assertEquals(1, writer.events.size());
+            EventBatch batch = writer.events.get(0);
+            assertNotNull(batch.snapshot, "The next batch should come with a snapshot");
+            assertEquals(2L * GameEventLog.BATCH_SIZE, batch.snapshot.eventSeq);
+        }
+        assertTrue(repository.updateGameInDB(game), "The snapshot should cover the lost events");
+        repository.flush();
+    }
+
+}
@@ -0,0 +1,142 @@
+package dk.dtu.compute.se.pisd.roborally.fileaccess;
+
+import dk.dtu.compute.se.pisd.roborally.controller.CheckPoint;
+import dk.dtu.compute.se.pisd.roborally.controller.ConveyorBelt;
+import dk.dtu.compute.se.pisd.roborally.controller.FieldAction;
+import dk.dtu.compute.se.pisd.roborally.fileaccess.model.BoardTemplate;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Heading;
+import dk.dtu.compute.se.pisd.roborally.model.Space;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryBoardFormatTest {
+
+    /**
+     * Describes the walls and actions of all spaces of a board, so that
+     * boards can be compared.
+     */
+    private String describe(Board board) {
+        StringBuilder result = new StringBuilder(board.width + "x" + board.height + "\n");
+        for (int y = 0; y < board.height; y++) {
+            for (int x = 0; x < board.width; x++) {
+                Space space = board.getSpace(x, y);
+                if (space.getWalls().isEmpty() && space.getActions().isEmpty()) {
+                    continue;
+                }
+                result.append(x).append(',').append(y).append(' ');
+                result.append(space.getWalls().isEmpty() ? "[]" : EnumSet.copyOf(space.getWalls()));
+                for (FieldAction action : space.getActions()) {
+                    if (action instanceof ConveyorBelt) {
+                        result.append(" conveyor ").append(((ConveyorBelt) action).getHeading());
+                    } else if (action instanceof CheckPoint) {
+                        CheckPoint checkPoint = (CheckPoint) action;
+                        result.append(" checkpoint ").append(checkPoint.getNumber()).append(checkPoint.isLast() ? " last" : "");
+                    }
+                }
+                result.append('\n');
+            }
+        }
+        return result.toString();
+    }
+
+    private Board roundTrip(Board board, String boardName) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryBoardFormat.write(LoadBoard.convertToTemplate(board), out);
+        BoardTemplate template = BinaryBoardFormat.read(new ByteArrayInputStream(out.toByteArray()));
+        return LoadBoard.convert(template, boardName);
+    }
+
+    @Test
+    void testDefaultBoardRoundTrip() throws IOException {
+        Board board = LoadBoard.loadBoard(null);
+        assertEquals(describe(board), describe(roundTrip(board, board.boardName)));
+    }
+
+    @Test
+    void testJsonAndBinaryFilesGiveSameBoard(@TempDir Path folder) throws IOException {
+        Board board = LoadBoard.loadBoard(null);
+        Path json = folder.resolve("board.json");
+        Path binary = folder.resolve("board.rrb");
+        LoadBoard.saveUserBoard(board, json);
+        LoadBoard.saveUserBoard(board, binary);
+
+        Board fromJson = LoadBoard.loadUserBoard(json);
+        Board fromBinary = LoadBoard.loadUserBoard(binary);
+        assertNotNull(fromJson);
+        assertNotNull(fromBinary);
+        assertEquals(describe(board), describe(fromJson));
+        assertEquals(describe(board), describe(fromBinary));
+        assertTrue(binary.toFile().length() * 10 < json.toFile().length(), "The binary file should be much smaller");
+    }
+
+    @Test
+    void testLargeGeneratedBoard() throws IOException {
+        Board board = new Board(500, 500, "generated");
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 5000; i++) {
+            Space space = board.getSpace(random.nextInt(500), random.nextInt(500));
+            if (random.nextBoolean()) {
+                space.getWalls().add(Heading.values()[random.nextInt(4)]);
+            } else {
+                ConveyorBelt belt = new ConveyorBelt();
+                belt.setHeading(Heading.values()[random.nextInt(4)]);
+                space.getActions().add(belt);
+            }
+        }
+        board.getSpace(499, 499).getActions().add(new CheckPoint(1, true));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryBoardFormat.write(LoadBoard.convertToTemplate(board), out);
+        assertTrue(out.size() < 5000 * 8, "Empty regions should not take up room, but the size is " + out.size());
+
+        assertEquals(describe(board), describe(roundTrip(board, "generated")));
+    }
+
+    @Test
+    void testVarints() throws IOException {
+        int[] values = { 0, 1, 127, 128, 300, 16383, 16384, Integer.MAX_VALUE };
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int value : values) {
+            BinaryBoardFormat.writeVarint(out, value);
+        }
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        for (int value : values) {
+            assertEquals(value, BinaryBoardFormat.readVarint(in));
+        }
+    }
+
+    @Test
+    void testBrokenDataIsRejected() throws IOException {
+        assertThrows(IOException.class, () -> BinaryBoardFormat.read(new ByteArrayInputStream("{}".getBytes())),
+                "Data without the magic number should be rejected");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(BinaryBoardFormat.MAGIC);
+        BinaryBoardFormat.writeVarint(out, BinaryBoardFormat.VERSION);
+        BinaryBoardFormat.writeVarint(out, 2); // width
+        BinaryBoardFormat.writeVarint(out, 2); // height
+        BinaryBoardFormat.writeVarint(out, 1); // one space
+        BinaryBoardFormat.writeVarint(out, 0); // skip
+        BinaryBoardFormat.writeVarint(out, 0); // no walls
+        BinaryBoardFormat.writeVarint(out, 1); // one action
+        byte[] truncated = out.toByteArray();
+        BinaryBoardFormat.writeVarint(out, 99); // unknown opcode
+        byte[] unknown = out.toByteArray();
+
+        assertThrows(IOException.class, () -> BinaryBoardFormat.read(new ByteArrayInputStream(truncated)),
+                "Truncated data should be rejected");
+        assertThrows(IOException.class, () -> BinaryBoardFormat.read(new ByteArrayInputStream(unknown)),
+                "Unknown opcodes should be rejected");
+    }
+
+}
@@ -0,0 +1,106 @@
+package dk.dtu.compute.se.pisd.roborally.fileaccess;
+
+import dk.dtu.compute.se.pisd.roborally.controller.ConveyorBelt;
+import dk.dtu.compute.se.pisd.roborally.fileaccess.model.ConveyorBeltTemplate;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Heading;
+import dk.dtu.compute.se.pisd.roborally.model.Space;
+import dk.dtu.compute.se.pisd.roborally.planner.DistanceFields;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadBoardTest {
+
+    @BeforeEach
+    void setUp() {
+        LoadBoard.clearCache();
+    }
+
+    private int countActions(Board board) {
+        int count = 0;
+        for (int x = 0; x < board.width; x++) {
+            for (int y = 0; y < board.height; y++) {
+                count += board.getSpace(x, y).getActions().size();
+            }
+        }
+        return count;
+    }
+
+    @Test
+    void testCachedBoardsAreIndependent() {
+        Board first = LoadBoard.loadBoard(null);
+        int actions = countActions(first);
+        assertTrue(actions > 0, "The default board should have some actions");
+
+        // changes of one board must not show up in boards loaded later
+        first.getSpace(0, 0).getActions().clear();
+        first.getSpace(0, 0).getWalls().add(Heading.NORTH);
+
+        Board second = LoadBoard.loadBoard(null);
+        assertNotSame(first, second);
+        assertEquals(actions, countActions(second), "The cached board should not have been changed");
+        assertFalse(second.getSpace(0, 0).getWalls().contains(Heading.NORTH), "The cached board should not have been changed");
+    }
+
+    @Test
+    void testUnknownBoardIsCreatedByFactory() {
+        Board board = LoadBoard.loadBoard("no such board");
+        assertNotNull(board);
+        assertEquals("no such board", board.boardName);
+    }
+
+    @Test
+    void testDistanceFieldsAreSharedByLoadedBoards() {
+        DistanceFields fields = LoadBoard.getDistanceFields(null);
+        assertNotNull(fields);
+        assertSame(fields, LoadBoard.getDistanceFields(null), "The fields should be kept with the parsed board");
+        assertSame(fields, DistanceFields.of(LoadBoard.loadBoard(null)), "Loaded boards should use the same fields");
+
+        DistanceFields created = DistanceFields.of(LoadBoard.loadBoard("no such board"));
+        assertSame(created, LoadBoard.getDistanceFields("no such board"), "Boards of the factory should use the same fields");
+    }
+
+    @Test
+    void testUserBoardIsParsedAgainWhenModified(@TempDir Path folder) throws IOException {
+        Path file = folder.resolve("mine.json");
+        Files.writeString(file, "{\"width\":5,\"height\":4,\"spaces\":[{\"x\":1,\"y\":2,\"walls\":[\"EAST\"],\"actions\":[" +
+                "{\"CLASSNAME\":\"" + ConveyorBeltTemplate.class.getName() +
+                "\",\"INSTANCE\":{\"heading\":\"SOUTH\"}}]}]}");
+
+        Board board = LoadBoard.loadUserBoard(file);
+        assertNotNull(board);
+        assertEquals("mine", board.boardName);
+        assertEquals(5, board.width);
+        Space space = board.getSpace(1, 2);
+        assertTrue(space.getWalls().contains(Heading.EAST));
+        assertEquals(Heading.SOUTH, ((ConveyorBelt) space.getActions().get(0)).getHeading());
+
+        Files.writeString(file, "{\"width\":6,\"height\":4,\"spaces\":[]}");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1000));
+
+        board = LoadBoard.loadUserBoard(file);
+        assertEquals(6, board.width, "The modified file should have been parsed again");
+    }
+
+    @Test
+    void testBrokenUserBoardIsReported(@TempDir Path folder) throws IOException {
+        Path empty = folder.resolve("empty.json");
+        Files.writeString(empty, "");
+        assertThrows(IOException.class, () -> LoadBoard.loadUserBoard(empty));
+
+        Path broken = folder.resolve("broken.json");
+        Files.writeString(broken, "{\"width\":5,\"height\":");
+        assertThrows(IOException.class, () -> LoadBoard.loadUserBoard(broken));
+
+        assertThrows(IOException.class, () -> LoadBoard.loadUserBoard(folder.resolve("missing.json")));
+    }
+
+}
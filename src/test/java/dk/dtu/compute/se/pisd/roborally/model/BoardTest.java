@@ -0,0 +1,138 @@
+package dk.dtu.compute.se.pisd.roborally.model;
+
+import dk.dtu.compute.se.pisd.roborally.controller.CheckPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardTest {
+
+    private Board board;
+
+    @BeforeEach
+    void setUp() {
+        board = new Board(70, 3);
+    }
+
+    @Test
+    void testWallBitsFollowWallList() {
+        Space space = board.getSpace(65, 1);
+
+        space.getWalls().add(Heading.EAST);
+        assertTrue(board.hasWall(space, Heading.EAST), "Wall EAST should be set");
+        assertTrue(board.hasWall(65, 1, Heading.EAST), "Wall EAST should be set");
+        assertFalse(board.hasWall(space, Heading.WEST), "Wall WEST should not be set");
+
+        space.getWalls().remove(Heading.EAST);
+        assertFalse(board.hasWall(space, Heading.EAST), "Wall EAST should have been removed");
+
+        space.getWalls().add(Heading.NORTH);
+        space.getWalls().add(Heading.NORTH);
+        space.getWalls().remove(Heading.NORTH);
+        assertTrue(space.getWalls().contains(Heading.NORTH), "One of the two NORTH walls should remain");
+
+        space.getWalls().clear();
+        assertFalse(board.hasWall(space, Heading.NORTH), "All walls should have been cleared");
+    }
+
+    @Test
+    void testOccupancyFollowsPlayers() {
+        Player player = new Player(board, "red", "Player 1");
+        board.addPlayer(player);
+
+        player.setSpace(board.getSpace(64, 2));
+        assertTrue(board.isOccupied(64, 2), "Space (64,2) should be occupied");
+
+        player.setSpace(board.getSpace(1, 0));
+        assertFalse(board.isOccupied(64, 2), "Space (64,2) should be free again");
+        assertTrue(board.isOccupied(1, 0), "Space (1,0) should be occupied");
+
+        player.setSpace(null);
+        assertFalse(board.isOccupied(1, 0), "Space (1,0) should be free");
+        assertFalse(board.isOccupied(-1, 0), "Spaces outside the board are never occupied");
+    }
+
+    @Test
+    void testChangesAreReportedOncePerChange() {
+        Player player = new Player(board, "red", "Player 1");
+        List<ModelChange> changes = new ArrayList<>();
+        board.addChangeListener(changes::add);
+
+        board.addPlayer(player);
+        player.setSpace(board.getSpace(3, 1));
+        player.setSpace(board.getSpace(4, 1));
+        board.getSpace(4, 1).setPlayer(null);
+        player.setHeading(Heading.EAST);
+        player.getCardField(2).setCard(new CommandCard(Command.FORWARD));
+        board.setPhase(Phase.ACTIVATION);
+        board.getSpace(0, 0).getWalls().add(Heading.NORTH);
+        board.getSpace(0, 0).getActions().add(new CheckPoint(1, true));
+
+        Space from = board.getSpace(3, 1);
+        Space to = board.getSpace(4, 1);
+        assertEquals(List.of(
+                new ModelChange.PlayerAdded(board, player),
+                new ModelChange.OccupantChanged(from, null, player),
+                new ModelChange.PlayerMoved(player, null, from),
+                new ModelChange.OccupantChanged(from, player, null),
+                new ModelChange.OccupantChanged(to, null, player),
+                new ModelChange.PlayerMoved(player, from, to),
+                new ModelChange.PlayerMoved(player, to, null),
+                new ModelChange.OccupantChanged(to, player, null),
+                new ModelChange.HeadingChanged(player, Heading.SOUTH, Heading.EAST),
+                new ModelChange.CardSet(player.getCardField(2), null, player.getCardField(2).getCard()),
+                new ModelChange.PhaseChanged(board, Phase.INITIALISATION, Phase.ACTIVATION),
+                new ModelChange.WallsChanged(board.getSpace(0, 0)),
+                new ModelChange.ActionsChanged(board.getSpace(0, 0))), changes);
+        assertNull(board.getSpace(3, 1).getPlayer(), "The player should have left (3,1)");
+        assertNull(player.getSpace(), "The player should have been removed from the board");
+    }
+
+    @Test
+    void testNeighbourBlockedByWallOnEitherSpace() {
+        Space space = board.getSpace(63, 1);
+        Space east = board.getSpace(64, 1);
+
+        assertEquals(east, board.getNeighbour(space, Heading.EAST), "Neighbour should be (64,1)");
+
+        east.getWalls().add(Heading.WEST);
+        assertEquals(space, board.getNeighbour(space, Heading.EAST), "Wall on the neighbour should block");
+
+        east.getWalls().clear();
+        space.getWalls().add(Heading.EAST);
+        assertEquals(space, board.getNeighbour(space, Heading.EAST), "Wall on the space should block");
+    }
+
+    @Test
+    void testNeighbourAtBoardEdge() {
+        Space corner = board.getSpace(69, 2);
+
+        assertEquals(corner, board.getNeighbour(corner, Heading.EAST), "Moving off the board should not be possible");
+        assertEquals(corner, board.getNeighbour(corner, Heading.SOUTH), "Moving off the board should not be possible");
+        assertEquals(board.getSpace(69, 1), board.getNeighbour(corner, Heading.NORTH), "Neighbour should be (69,1)");
+    }
+
+    @Test
+    void testNeighbourTableFollowsWalls() {
+        Space space = board.getSpace(10, 1);
+        Space east = board.getSpace(11, 1);
+
+        assertEquals(east, board.getNeighbour(space, Heading.EAST), "Neighbour should be reachable");
+
+        east.getWalls().add(Heading.WEST);
+        assertEquals(space, board.getNeighbour(space, Heading.EAST), "Wall on the neighbour should block the move");
+        assertEquals(east, board.getNeighbour(east, Heading.WEST), "Wall should block the move back too");
+
+        east.getWalls().clear();
+        assertEquals(east, board.getNeighbour(space, Heading.EAST), "Removed wall should not block anymore");
+
+        Space corner = board.getSpace(0, 0);
+        assertEquals(corner, board.getNeighbour(corner, Heading.NORTH), "Moves off the board should stay on the space");
+        assertEquals(corner, board.getNeighbour(corner, Heading.WEST), "Moves off the board should stay on the space");
+    }
+
+}
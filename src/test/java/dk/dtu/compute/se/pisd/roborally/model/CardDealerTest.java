@@ -0,0 +1,75 @@
+package dk.dtu.compute.se.pisd.roborally.model;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardDealerTest {
+
+    @Test
+    void testSameSeedDealsSameCards() {
+        CardDealer first = new CardDealer(123L);
+        CardDealer second = new CardDealer(123L);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(first.next(), second.next(), "Card " + i + " should be the same");
+        }
+        assertEquals(100, first.getDealt());
+    }
+
+    @Test
+    void testRestoredDealerContinues() {
+        for (boolean deck : new boolean[] { false, true }) {
+            CardDealer dealer = new CardDealer(99L, deck);
+            dealer.skip(77);
+            CardDealer restored = CardDealer.restore(99L, deck, 77);
+            assertEquals(77, restored.getDealt());
+            for (int i = 0; i < 200; i++) {
+                assertEquals(dealer.next(), restored.next(), "Card " + i + " after restoring should be the same");
+            }
+        }
+    }
+
+    @Test
+    void testDeckContainsEachCommandEquallyOften() {
+        CardDealer dealer = new CardDealer(7L, true);
+        int size = Command.values().length * CardDealer.DECK_COPIES;
+        for (int round = 0; round < 3; round++) {
+            Map<Command, Integer> counts = new EnumMap<>(Command.class);
+            for (int i = 0; i < size; i++) {
+                counts.merge(dealer.next(), 1, Integer::sum);
+            }
+            for (Command command : Command.values()) {
+                assertEquals(CardDealer.DECK_COPIES, counts.get(command), command + " in deck " + round);
+            }
+        }
+    }
+
+    @Test
+    void testProgrammingPhaseDealsFromBoard() {
+        Board[] boards = new Board[2];
+        for (int b = 0; b < boards.length; b++) {
+            boards[b] = new Board(8, 8);
+            boards[b].setCardDealer(new CardDealer(2024L));
+            for (int i = 0; i < 2; i++) {
+                Player player = new Player(boards[b], "red", "Player " + i);
+                boards[b].addPlayer(player);
+                player.setSpace(boards[b].getSpace(i, i));
+            }
+            new GameController(boards[b]).startProgrammingPhase();
+        }
+
+        for (int i = 0; i < 2; i++) {
+            for (int j = 0; j < Player.NO_CARDS; j++) {
+                assertEquals(boards[0].getPlayer(i).getCardField(j).getCard().command,
+                        boards[1].getPlayer(i).getCardField(j).getCard().command,
+                        "Boards with the same seed should get the same cards");
+            }
+        }
+        assertEquals(2L * Player.NO_CARDS, boards[0].getCardDealer().getDealt());
+    }
+
+}
@@ -0,0 +1,154 @@
+package dk.dtu.compute.se.pisd.roborally.net;
+
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import dk.dtu.compute.se.pisd.roborally.planner.BoardGraph;
+import dk.dtu.compute.se.pisd.roborally.planner.GameState;
+import dk.dtu.compute.se.pisd.roborally.server.GameServer;
+import dk.dtu.compute.se.pisd.roborally.server.GameSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NetLoopbackTest {
+
+    private static final int PLAYERS = 4;
+    private static final int ROUNDS = 4;
+
+    private GameServer server;
+    private NetServer netServer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new GameServer();
+        netServer = new NetServer(server, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        netServer.close();
+        server.close();
+    }
+
+    @Test
+    void testRemotePlayersPlayAndMirrorTheGame() throws Exception {
+        GameSession session = server.createGame("advanced", PLAYERS, 4711L);
+        List<NetClient> clients = new ArrayList<>();
+        List<CompletableFuture<Integer>> bots = new ArrayList<>();
+        for (int p = 0; p < PLAYERS; p++) {
+            NetClient client = new NetClient("localhost", netServer.getPort());
+            client.join(session.getId(), p);
+            clients.add(client);
+            int player = p;
+            bots.add(CompletableFuture.supplyAsync(() -> play(client, player, new SplittableRandom(player))));
+        }
+        int rounds = Integer.MAX_VALUE;
+        for (CompletableFuture<Integer> bot : bots) {
+            rounds = Math.min(rounds, bot.get());
+        }
+        assertTrue(rounds > 0, "Some rounds should have been played");
+
+        GameState state = session.getState().join().state;
+        BoardGraph graph = state.getGraph();
+        for (NetClient client : clients) {
+            assertEquals(PLAYERS, client.getRobots());
+            for (int p = 0; p < PLAYERS; p++) {
+                int cell = state.getCell(p);
+                assertEquals(cell >= 0 ? graph.x(cell) : -1, client.getX(p), "x of robot " + p);
+                assertEquals(cell >= 0 ? graph.y(cell) : -1, client.getY(p), "y of robot " + p);
+                assertEquals(state.getHeading(p), client.getHeading(p).ordinal(), "heading of robot " + p);
+                assertEquals(state.getCheckpoints(p), client.getCheckpoints(p), "checkpoints of robot " + p);
+            }
+            // JOINED, HAND and ACCEPTED messages included, a register costs
+            // a few bytes per robot only
+            long perRegister = client.getBytesReceived() / ((long) rounds * Player.NO_REGISTERS);
+            assertTrue(perRegister <= 64, "Too many bytes per register: " + perRegister);
+            client.close();
+        }
+    }
+
+    @Test
+    void testInvalidRequestsAreRejected() throws Exception {
+        GameSession session = server.createGame("simple", 1, 1L);
+        try (NetClient client = new NetClient("localhost", netServer.getPort())) {
+            client.submitProgram(0, 1, 2);
+            Message message = client.nextMessage(5000);
+            assertNotNull(message);
+            assertEquals(Message.Type.ERROR, message.type, "Programs need a joined session");
+
+            client.join(session.getId() + 1, 0);
+            message = client.nextMessage(5000);
+            assertNotNull(message);
+            assertEquals(Message.Type.ERROR, message.type, "The session does not exist");
+
+            client.join(session.getId(), 0);
+            assertEquals(Message.Type.JOINED, client.nextMessage(5000).type);
+            assertEquals(Message.Type.HAND, client.nextMessage(5000).type);
+            client.submitProgram(0, 0);
+            message = client.nextMessage(5000);
+            assertEquals(Message.Type.ERROR, message.type, "A card cannot be used twice");
+            assertEquals(Protocol.PROGRAM, message.request);
+        }
+    }
+
+    /**
+     * Plays random programs until the given number of rounds was played or
+     * the game is over; returns the number of completed rounds.
+     */
+    private static int play(NetClient client, int player, SplittableRandom random) {
+        int round = 0;
+        try {
+            while (true) {
+                Message message = client.nextMessage(10000);
+                assertNotNull(message, "Player " + player + " got no message");
+                switch (message.type) {
+                    case HAND:
+                        round = message.round;
+                        if (round >= ROUNDS) {
+                            return round;
+                        }
+                        client.submitProgram(program(message.hand, random));
+                        break;
+                    case WAITING:
+                        if (message.player == player) {
+                            client.chooseOption(random.nextBoolean() ? Command.LEFT : Command.RIGHT);
+                        }
+                        break;
+                    case FINISHED:
+                        // the round of the winner counts as played
+                        return round + 1;
+                    case ERROR:
+                        fail("Player " + player + ": " + message.error);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static int[] program(Command[] hand, SplittableRandom random) {
+        List<Integer> cards = new ArrayList<>();
+        for (int i = 0; i < hand.length; i++) {
+            if (hand[i] != null) {
+                cards.add(i);
+            }
+        }
+        int[] program = new int[Math.min(Player.NO_REGISTERS, cards.size())];
+        for (int i = 0; i < program.length; i++) {
+            program[i] = cards.remove(random.nextInt(cards.size()));
+        }
+        return program;
+    }
+
+}
@@ -0,0 +1,84 @@
+package dk.dtu.compute.se.pisd.roborally.planner;
+
+import dk.dtu.compute.se.pisd.roborally.controller.CheckPoint;
+import dk.dtu.compute.se.pisd.roborally.controller.ConveyorBelt;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Heading;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistanceFieldsTest {
+
+    private Board board;
+
+    @BeforeEach
+    void setUp() {
+        board = new Board(6, 6);
+        board.getSpace(4, 4).getActions().add(new CheckPoint(1, false));
+        board.getSpace(0, 5).getActions().add(new CheckPoint(2, true));
+        board.getSpace(2, 2).getWalls().add(Heading.EAST);
+        board.getSpace(3, 3).getWalls().add(Heading.SOUTH);
+        ConveyorBelt belt = new ConveyorBelt();
+        belt.setHeading(Heading.WEST);
+        board.getSpace(3, 5).getActions().add(belt);
+    }
+
+    @Test
+    void testDistancesMatchPlanner() {
+        DistanceFields fields = DistanceFields.of(board);
+        BoardGraph graph = fields.getGraph();
+        Planner planner = new Planner(graph);
+
+        for (int checkpoint = 1; checkpoint <= 2; checkpoint++) {
+            for (int cell = 0; cell < graph.getCells(); cell++) {
+                for (int heading = 0; heading < BoardGraph.HEADINGS; heading++) {
+                    int distance = fields.distance(checkpoint, cell * BoardGraph.HEADINGS + heading);
+                    Plan plan = planner.plan(cell, heading, checkpoint - 1, new int[0]);
+                    if (plan.reachesCheckpoint) {
+                        assertEquals(plan.getCommands().size(), distance,
+                                "Distance of cell " + cell + " and heading " + heading + " should match the plan");
+                    } else {
+                        assertTrue(distance > Player.NO_REGISTERS,
+                                "Distance of cell " + cell + " and heading " + heading + " should exceed a program");
+                    }
+                }
+            }
+        }
+        assertEquals(1, fields.distance(1, 4, 2, Heading.SOUTH), "Fast forward should reach the checkpoint");
+    }
+
+    @Test
+    void testEnclosedCheckpointIsUnreachable() {
+        for (Heading heading : Heading.values()) {
+            board.getSpace(4, 4).getWalls().add(heading);
+        }
+        DistanceFields fields = DistanceFields.of(board);
+
+        assertEquals(DistanceFields.UNREACHABLE, fields.distance(1, 0, 0, Heading.SOUTH));
+        assertTrue(fields.distance(2, 0, 0, Heading.SOUTH) < DistanceFields.UNREACHABLE,
+                "Checkpoint 2 should still be reachable");
+    }
+
+    @Test
+    void testFieldsAreCachedByLayout() {
+        DistanceFields fields = DistanceFields.of(board);
+        assertSame(fields, DistanceFields.of(board), "The fields should be cached");
+
+        Board copy = new Board(6, 6);
+        copy.getSpace(4, 4).getActions().add(new CheckPoint(1, false));
+        copy.getSpace(0, 5).getActions().add(new CheckPoint(2, true));
+        copy.getSpace(2, 2).getWalls().add(Heading.EAST);
+        copy.getSpace(3, 3).getWalls().add(Heading.SOUTH);
+        ConveyorBelt belt = new ConveyorBelt();
+        belt.setHeading(Heading.WEST);
+        copy.getSpace(3, 5).getActions().add(belt);
+        assertSame(fields, DistanceFields.of(copy), "Boards with the same layout should share the fields");
+
+        board.getSpace(1, 1).getWalls().add(Heading.NORTH);
+        assertNotSame(fields, DistanceFields.of(board), "Changing the layout should give new fields");
+    }
+
+}
@@ -0,0 +1,93 @@
+package dk.dtu.compute.se.pisd.roborally.planner;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.Heading;
+import dk.dtu.compute.se.pisd.roborally.model.Phase;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import dk.dtu.compute.se.pisd.roborally.simulation.SimulationEngine;
+import dk.dtu.compute.se.pisd.roborally.simulation.TestPrograms;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameStateTest {
+
+    private GameController createGame(int players) {
+        return new SimulationEngine("advanced", players, 1, 42L).createGame();
+    }
+
+    @Test
+    void testTransitionsFollowGameController() {
+        GameController gameController = createGame(4);
+        Board board = gameController.board;
+        GameState state = GameState.of(board);
+        SplittableRandom random = new SplittableRandom(4711L);
+
+        for (int round = 0; round < 100 && gameController.getWinner() == null; round++) {
+            gameController.startProgrammingPhase();
+            Command[][] programs = new Command[board.getPlayersNumber()][Player.NO_REGISTERS];
+            for (int i = 0; i < board.getPlayersNumber(); i++) {
+                programs[i] = TestPrograms.randomProgram(random);
+                TestPrograms.setProgram(board.getPlayer(i), programs[i]);
+            }
+            gameController.finishProgrammingPhase();
+            gameController.executePrograms();
+
+            for (int j = 0; j < Player.NO_REGISTERS; j++) {
+                for (int i = 0; i < board.getPlayersNumber(); i++) {
+                    state = state.apply(i, programs[i][j]);
+                }
+                state = state.endRegister();
+            }
+
+            GameState expected = GameState.of(state.getGraph(), board);
+            for (int i = 0; i < board.getPlayersNumber(); i++) {
+                assertEquals(expected.getCell(i), state.getCell(i), "Cell of robot " + i + " in round " + round);
+                assertEquals(expected.getHeading(i), state.getHeading(i), "Heading of robot " + i + " in round " + round);
+                assertEquals(expected.getCheckpoints(i), state.getCheckpoints(i),
+                        "Checkpoints of robot " + i + " in round " + round);
+            }
+            Player winner = gameController.getWinner();
+            assertEquals(winner != null ? board.getPlayerNumber(winner) : -1, state.getWinner());
+        }
+    }
+
+    @Test
+    void testBlockedTransitionsReturnSameState() {
+        GameController gameController = createGame(2);
+        Board board = gameController.board;
+        board.getPlayer(0).setSpace(board.getSpace(0, 0));
+        board.getPlayer(0).setHeading(Heading.NORTH);
+        board.getPlayer(1).setSpace(board.getSpace(0, 1));
+        board.getPlayer(1).setHeading(Heading.NORTH);
+        GameState state = GameState.of(board);
+
+        assertSame(state, state.apply(0, Command.FORWARD), "Moving off the board should not change anything");
+        assertSame(state, state.apply(1, Command.FORWARD), "Pushing against the edge should not change anything");
+        assertSame(state, state.apply(0, Command.LEFT_OR_RIGHT), "Interactive commands do nothing");
+        assertNotSame(state, state.apply(1, Command.RIGHT));
+    }
+
+    @Test
+    void testApplyToRestoresBoard() {
+        GameController gameController = createGame(3);
+        Board board = gameController.board;
+        GameState saved = GameState.of(board);
+
+        gameController.fastForward(board.getPlayer(0));
+        gameController.turnRight(board.getPlayer(1));
+        board.getPlayer(2).setCheckpointsReached(2);
+        assertNotEquals(saved, GameState.of(saved.getGraph(), board));
+
+        saved.applyTo(board);
+        assertEquals(saved, GameState.of(saved.getGraph(), board), "The board should be restored");
+        for (int i = 0; i < 3; i++) {
+            assertEquals(board.getSpace(i % board.width, i), board.getPlayer(i).getSpace());
+        }
+    }
+
+}
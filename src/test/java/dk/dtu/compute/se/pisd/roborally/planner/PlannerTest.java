@@ -0,0 +1,127 @@
+package dk.dtu.compute.se.pisd.roborally.planner;
+
+import dk.dtu.compute.se.pisd.roborally.controller.CheckPoint;
+import dk.dtu.compute.se.pisd.roborally.controller.ConveyorBelt;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.Heading;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlannerTest {
+
+    private Board board;
+
+    private Player player;
+
+    @BeforeEach
+    void setUp() {
+        board = new Board(8, 8);
+        player = new Player(board, "red", "Player 1");
+        board.addPlayer(player);
+        player.setSpace(board.getSpace(0, 0));
+        player.setHeading(Heading.SOUTH);
+    }
+
+    @Test
+    void testStraightPath() {
+        board.getSpace(0, 2).getActions().add(new CheckPoint(1, true));
+
+        Plan plan = new Planner(BoardGraph.of(board)).plan(player);
+
+        assertTrue(plan.reachesCheckpoint, "Checkpoint 1 should be reached");
+        assertEquals(1, plan.checkpoint);
+        assertEquals(List.of(Command.FAST_FORWARD), plan.getCommands());
+    }
+
+    @Test
+    void testWallForcesDetour() {
+        board.getSpace(0, 2).getActions().add(new CheckPoint(1, true));
+        board.getSpace(0, 1).getWalls().add(Heading.SOUTH);
+        player.setHeading(Heading.EAST);
+
+        Plan plan = new Planner(BoardGraph.of(board)).plan(player);
+
+        assertTrue(plan.reachesCheckpoint, "Checkpoint 1 should be reached around the wall");
+        assertTrue(plan.getCommands().size() > 1, "The wall should need a detour");
+        assertTrue(plan.getCommands().size() <= Player.NO_REGISTERS);
+    }
+
+    @Test
+    void testConveyorBeltIsUsed() {
+        // the conveyor belts take the robot one space further east in the
+        // first two registers, so three registers suffice instead of four
+        for (int x : new int[] { 2, 5 }) {
+            ConveyorBelt belt = new ConveyorBelt();
+            belt.setHeading(Heading.EAST);
+            board.getSpace(x, 0).getActions().add(belt);
+        }
+        board.getSpace(7, 0).getActions().add(new CheckPoint(1, true));
+        player.setHeading(Heading.EAST);
+
+        Plan plan = new Planner(BoardGraph.of(board)).plan(player);
+
+        assertTrue(plan.reachesCheckpoint, "Checkpoint 1 should be reached");
+        assertEquals(List.of(Command.FAST_FORWARD, Command.FAST_FORWARD, Command.FORWARD), plan.getCommands(),
+                "The conveyor belts should be used");
+    }
+
+    @Test
+    void testCheckpointAfterConveyorBeltCountsInNextRegister() {
+        // field actions are executed once per register, so a robot moved onto
+        // the checkpoint by a conveyor belt reaches it in the next register only
+        ConveyorBelt belt = new ConveyorBelt();
+        belt.setHeading(Heading.SOUTH);
+        board.getSpace(0, 1).getActions().add(belt);
+        board.getSpace(0, 2).getActions().add(new CheckPoint(1, true));
+        player.setHeading(Heading.WEST);
+
+        Plan plan = new Planner(BoardGraph.of(board)).plan(player);
+
+        assertTrue(plan.reachesCheckpoint, "Checkpoint 1 should be reached");
+        assertEquals(2, plan.getCommands().size());
+    }
+
+    @Test
+    void testOtherRobotIsPushed() {
+        board.getSpace(0, 1).getActions().add(new CheckPoint(1, true));
+        Player other = new Player(board, "blue", "Player 2");
+        board.addPlayer(other);
+        other.setSpace(board.getSpace(0, 1));
+
+        Plan plan = new Planner(BoardGraph.of(board)).plan(player);
+        assertEquals(List.of(Command.FORWARD), plan.getCommands(), "The other robot should be pushed away");
+
+        board.getSpace(0, 1).getWalls().add(Heading.SOUTH);
+        plan = new Planner(BoardGraph.of(board)).plan(player);
+        assertNotEquals(List.of(Command.FORWARD), plan.getCommands(), "The other robot cannot be pushed through a wall");
+    }
+
+    @Test
+    void testUnreachableCheckpointIsApproached() {
+        board.getSpace(7, 7).getActions().add(new CheckPoint(1, true));
+
+        Plan plan = new Planner(BoardGraph.of(board)).plan(player);
+
+        assertFalse(plan.reachesCheckpoint, "Checkpoint 1 is too far away for one program");
+        assertEquals(6, plan.distance, "The closest state should be chosen");
+    }
+
+    @Test
+    void testNoCheckpointLeft() {
+        board.getSpace(0, 2).getActions().add(new CheckPoint(1, true));
+        player.setCheckpointsReached(1);
+
+        Plan plan = new Planner(BoardGraph.of(board)).plan(player);
+
+        assertFalse(plan.reachesCheckpoint);
+        assertEquals(0, plan.checkpoint);
+        assertTrue(plan.getCommands().isEmpty());
+    }
+
+}
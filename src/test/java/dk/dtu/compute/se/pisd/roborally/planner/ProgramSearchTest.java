@@ -0,0 +1,153 @@
+package dk.dtu.compute.se.pisd.roborally.planner;
+
+import dk.dtu.compute.se.pisd.roborally.controller.CheckPoint;
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.CommandCard;
+import dk.dtu.compute.se.pisd.roborally.model.Heading;
+import dk.dtu.compute.se.pisd.roborally.model.Phase;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import dk.dtu.compute.se.pisd.roborally.simulation.SimulationEngine;
+import dk.dtu.compute.se.pisd.roborally.simulation.SimulationReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProgramSearchTest {
+
+    private GameController gameController;
+
+    private Board board;
+
+    @BeforeEach
+    void setUp() {
+        board = new Board(8, 8);
+        board.getSpace(3, 2).getActions().add(new CheckPoint(1, false));
+        board.getSpace(1, 6).getActions().add(new CheckPoint(2, true));
+        gameController = new GameController(board);
+        for (int i = 0; i < 3; i++) {
+            Player player = new Player(board, "red", "Player " + (i + 1));
+            board.addPlayer(player);
+            player.setSpace(board.getSpace(i, 0));
+            player.setHeading(Heading.SOUTH);
+        }
+        gameController.startProgrammingPhase();
+    }
+
+    private void setHand(Player player, Command... commands) {
+        for (int i = 0; i < Player.NO_CARDS; i++) {
+            player.getCardField(i).setCard(new CommandCard(commands[i]));
+        }
+    }
+
+    @Test
+    void testProgramReachesCheckpoint() {
+        Player player = board.getPlayer(0);
+        setHand(player, Command.U_TURN, Command.FAST_FORWARD, Command.BACKWARDS, Command.LEFT_OR_RIGHT,
+                Command.FAST_FORWARD, Command.U_TURN, Command.FORWARD, Command.LEFT);
+
+        Program program = new ProgramSearch(DistanceFields.of(board)).search(player);
+        assertEquals(Player.NO_REGISTERS, program.getRegisters());
+
+        // play the program with the game controller, the other robots do nothing
+        for (int i = 0; i < program.getRegisters(); i++) {
+            assertTrue(gameController.moveCards(player.getCardField(program.getCard(i)), player.getProgramField(i)),
+                    "Each card should be used once");
+        }
+        for (int i = 1; i < board.getPlayersNumber(); i++) {
+            for (int j = 0; j < Player.NO_REGISTERS; j++) {
+                board.getPlayer(i).getProgramField(j).setCard(null);
+            }
+        }
+        gameController.finishProgrammingPhase();
+        gameController.executePrograms();
+        while (board.getPhase() == Phase.PLAYER_INTERACTION) {
+            gameController.handleInteractiveCommand(program.getOption(board.getStep()));
+            gameController.executePrograms();
+        }
+
+        assertEquals(1, player.getCheckpointsReached(), "The program should reach checkpoint 1");
+    }
+
+    @Test
+    void testDuplicateCardsAreEnumeratedOnce() {
+        Player player = board.getPlayer(0);
+        ProgramSearch search = new ProgramSearch(DistanceFields.of(board), ForkJoinPool.commonPool(), null);
+
+        setHand(player, Command.FORWARD, Command.FORWARD, Command.FORWARD, Command.FORWARD,
+                Command.FORWARD, Command.FORWARD, Command.FORWARD, Command.FORWARD);
+        assertEquals(1, search.search(player).evaluated);
+
+        // all sequences of five out of two commands, except the ones with five of one
+        setHand(player, Command.FORWARD, Command.RIGHT, Command.FORWARD, Command.RIGHT,
+                Command.FORWARD, Command.RIGHT, Command.FORWARD, Command.RIGHT);
+        assertEquals(30, search.search(player).evaluated);
+    }
+
+    @Test
+    void testResultDoesNotDependOnParallelism() {
+        Player player = board.getPlayer(1);
+        setHand(player, Command.FORWARD, Command.RIGHT, Command.LEFT, Command.FAST_FORWARD,
+                Command.U_TURN, Command.BACKWARDS, Command.LEFT_OR_RIGHT, Command.FORWARD);
+        DistanceFields fields = DistanceFields.of(board);
+
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Program sequential;
+        Program parallel;
+        try {
+            sequential = new ProgramSearch(fields, single, null).search(player);
+            parallel = new ProgramSearch(fields, pool, null).search(player);
+        } finally {
+            single.shutdown();
+            pool.shutdown();
+        }
+
+        assertEquals(sequential.score, parallel.score);
+        assertEquals(sequential.evaluated, parallel.evaluated);
+        for (int i = 0; i < Player.NO_REGISTERS; i++) {
+            assertEquals(sequential.getCard(i), parallel.getCard(i));
+            assertEquals(sequential.getOption(i), parallel.getOption(i));
+        }
+    }
+
+    @Test
+    void testTranspositionTableFindsSameProgram() {
+        SimulationEngine engine = new SimulationEngine("advanced", 4, 100, 99L);
+        GameController game = engine.createGame();
+        game.startProgrammingPhase();
+        DistanceFields fields = DistanceFields.of(game.board);
+        ProgramSearch exhaustive = new ProgramSearch(fields, ForkJoinPool.commonPool(), null);
+        ProgramSearch cached = new ProgramSearch(fields, ForkJoinPool.commonPool(), new TranspositionTable(1 << 12));
+
+        long all = 0;
+        long searched = 0;
+        for (int i = 0; i < game.board.getPlayersNumber(); i++) {
+            Player player = game.board.getPlayer(i);
+            Program expected = exhaustive.search(player);
+            Program program = cached.search(player);
+            assertEquals(expected.score, program.score, "The score of player " + i + " should be the same");
+            for (int j = 0; j < Player.NO_REGISTERS; j++) {
+                assertEquals(expected.getCommand(j), program.getCommand(j));
+                assertEquals(expected.getOption(j), program.getOption(j));
+            }
+            all += expected.evaluated;
+            searched += program.evaluated;
+        }
+        assertTrue(searched < all, "The table should save simulations: " + searched + " of " + all);
+    }
+
+    @Test
+    void testSearchBeatsRandomPrograms() {
+        SimulationEngine engine = new SimulationEngine("advanced", 2, 100, 17L);
+        engine.setAiPlayers(1);
+        SimulationReport report = engine.run(10);
+
+        assertTrue(report.getWins(0) > report.getWins(1), "The AI player should win more often: " + report);
+    }
+
+}
@@ -0,0 +1,91 @@
+package dk.dtu.compute.se.pisd.roborally.server;
+
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.Phase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameServerTest {
+
+    private GameServer server;
+
+    @BeforeEach
+    void setUp() {
+        server = new GameServer();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testRoundIsExecutedWhenAllProgramsAreSubmitted() throws InterruptedException {
+        GameSession session = server.createGame("advanced", 2, 42L);
+        LocalClient first = new LocalClient(session, 0);
+        LocalClient second = new LocalClient(session, 1);
+
+        TurnResult result = first.submitProgram(0, 1, 2, 3, 4).join();
+        assertEquals(Phase.PROGRAMMING, result.phase, "The round should wait for the second player");
+        assertEquals(0, result.round);
+
+        CompletionException e = assertThrows(CompletionException.class, () -> first.submitProgram(5).join());
+        assertInstanceOf(IllegalStateException.class, e.getCause(), "A second program should be rejected");
+        e = assertThrows(CompletionException.class, () -> second.submitProgram(0, 0).join());
+        assertInstanceOf(IllegalArgumentException.class, e.getCause(), "A card cannot be used twice");
+
+        second.submitProgram(7, 6, 5, 4, 3).join();
+        TurnResult update = second.nextUpdate(5000);
+        while (update != null && update.round == 0) {
+            if (update.isWaitingFor(0)) {
+                first.chooseOption(Command.LEFT).join();
+            } else if (update.isWaitingFor(1)) {
+                second.chooseOption(Command.RIGHT).join();
+            }
+            update = second.nextUpdate(5000);
+        }
+        assertNotNull(update, "The round should have been executed");
+        assertEquals(1, update.round);
+        assertEquals(Phase.PROGRAMMING, update.phase);
+    }
+
+    @Test
+    void testClosedSessionRejectsCommands() {
+        GameSession session = server.createGame("simple", 1, 1L);
+        server.closeSession(session);
+
+        assertNull(server.getSession(session.getId()));
+        CompletionException e = assertThrows(CompletionException.class, () -> session.getState().join());
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    @Test
+    void testErrorInSessionFailsCommandsAndClosesSession() {
+        GameSession session = server.createGame("simple", 1, 1L);
+        session.addEventListener(event -> {
+            throw new AssertionError("broken listener");
+        }).join();
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> session.submitProgram(0, new int[] { 0, 1, 2, 3, 4 }).join());
+        assertInstanceOf(AssertionError.class, e.getCause(), "The error should complete the future");
+        e = assertThrows(CompletionException.class, () -> session.getState().join());
+        assertInstanceOf(IllegalStateException.class, e.getCause(), "The session should be closed");
+    }
+
+    @Test
+    void testLoadGeneratorPlaysAllGames() throws InterruptedException {
+        LoadReport report = new LoadGenerator("advanced", 20, 3, 5, 4711L).run();
+
+        assertEquals(0, report.failures, "No bot should fail");
+        assertTrue(report.rounds > 20, "Each game should have played some rounds");
+        assertTrue(report.getTurns() >= report.rounds * 3, "Each player should have a turn in each round");
+        assertTrue(report.getLatencyPercentile(99) >= report.getLatencyPercentile(50));
+    }
+
+}
@@ -0,0 +1,58 @@
+package dk.dtu.compute.se.pisd.roborally.simulation;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.CardDealer;
+import dk.dtu.compute.se.pisd.roborally.model.Phase;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationEngineTest {
+
+    @Test
+    void testPlayRoundReturnsToProgrammingPhase() {
+        SimulationEngine engine = new SimulationEngine("advanced", 4, 10, 42);
+        GameController gameController = engine.createGame();
+        Board board = gameController.board;
+        board.setCardDealer(new CardDealer(4711L));
+
+        gameController.startProgrammingPhase();
+        engine.playRound(gameController);
+
+        assertEquals(Phase.PROGRAMMING, board.getPhase(), "After the round, the game should be programming again");
+        assertNull(gameController.getWinner());
+        assertEquals(4, board.getPlayersNumber(), "All players should still be on the board");
+    }
+
+    @Test
+    void testPlayGameStopsAfterMaxRounds() {
+        SimulationEngine engine = new SimulationEngine("simple", 2, 5, 42);
+        GameResult result = engine.playGame();
+
+        assertEquals(5, result.rounds, "Game should stop after 5 rounds");
+        assertEquals(-1, result.winner, "No player should have won");
+    }
+
+    @Test
+    void testPlayGameStopsWithWinner() {
+        SimulationEngine engine = new SimulationEngine("simple", 2, 60, 5);
+        GameResult result = engine.playGame();
+
+        assertEquals(0, result.winner, "The first player should have won");
+        assertEquals(11, result.rounds, "Game should stop in the round the player won");
+
+        GameResult again = new SimulationEngine("simple", 2, 60, 5).playGame();
+        assertEquals(result.toString(), again.toString(), "The game should be the same with the same seed");
+    }
+
+    @Test
+    void testRunReportsThroughput() {
+        SimulationEngine engine = new SimulationEngine("advanced", 3, 20, 7);
+        SimulationReport report = engine.run(10);
+
+        assertEquals(10, report.games, "All games should be played");
+        assertTrue(report.getGamesPerSecond() > 0, "Throughput should be measured");
+    }
+
+}
@@ -0,0 +1,52 @@
+package dk.dtu.compute.se.pisd.roborally.simulation;
+
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.CommandCard;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+
+import java.util.SplittableRandom;
+
+/**
+ * Programs for the robots of the games created by a {@link SimulationEngine}
+ * in tests, which are set directly instead of being chosen from the dealt
+ * cards.
+ */
+public final class TestPrograms {
+
+    /**
+     * The commands of random programs; the interactive command is left out,
+     * so that the programs are executed without interaction.
+     */
+    private static final Command[] COMMANDS = {
+            Command.FORWARD, Command.RIGHT, Command.LEFT, Command.FAST_FORWARD, Command.U_TURN, Command.BACKWARDS };
+
+    private TestPrograms() {
+    }
+
+    /**
+     * Returns a program of random non-interactive commands for all registers.
+     *
+     * @param random the random generator
+     * @return the commands of the program
+     */
+    public static Command[] randomProgram(SplittableRandom random) {
+        Command[] program = new Command[Player.NO_REGISTERS];
+        for (int i = 0; i < program.length; i++) {
+            program[i] = COMMANDS[random.nextInt(COMMANDS.length)];
+        }
+        return program;
+    }
+
+    /**
+     * Puts new cards with the given commands into the registers of the player.
+     *
+     * @param player the player
+     * @param program the commands of the registers
+     */
+    public static void setProgram(Player player, Command... program) {
+        for (int i = 0; i < program.length; i++) {
+            player.getProgramField(i).setCard(new CommandCard(program[i]));
+        }
+    }
+
+}
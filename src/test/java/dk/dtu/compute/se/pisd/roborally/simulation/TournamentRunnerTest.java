@@ -0,0 +1,40 @@
+package dk.dtu.compute.se.pisd.roborally.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TournamentRunnerTest {
+
+    @Test
+    void testResultsDoNotDependOnParallelism() {
+        TournamentReport sequential = new TournamentRunner("advanced", 3, 50, 4711L, 1).run(40);
+        TournamentReport parallel = new TournamentRunner("advanced", 3, 50, 4711L, 4).run(40);
+
+        assertEquals(40, sequential.games);
+        assertEquals(sequential.finished, parallel.finished);
+        assertEquals(sequential.rounds, parallel.rounds);
+        assertEquals(sequential.moves, parallel.moves);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(sequential.getWins(i), parallel.getWins(i), "Wins of player " + i + " should be the same");
+        }
+        assertEquals(sequential.getCheckpoints(), parallel.getCheckpoints());
+        for (int i = 1; i <= sequential.getCheckpoints(); i++) {
+            assertEquals(sequential.getCheckpointGames(i), parallel.getCheckpointGames(i));
+            assertEquals(sequential.getAverageCheckpointRound(i), parallel.getAverageCheckpointRound(i));
+        }
+    }
+
+    @Test
+    void testCheckpointsAreReachedInOrder() {
+        TournamentReport report = new TournamentRunner("advanced", 4, 100, 42L, 2).run(20);
+
+        assertTrue(report.getCheckpoints() > 0, "Some checkpoint should have been reached");
+        for (int i = 2; i <= report.getCheckpoints(); i++) {
+            assertTrue(report.getCheckpointGames(i) <= report.getCheckpointGames(i - 1),
+                    "A checkpoint cannot be reached in more games than the one before");
+        }
+        assertEquals(report.finished, report.getCheckpointGames(4), "Games are won by reaching the last checkpoint");
+    }
+
+}
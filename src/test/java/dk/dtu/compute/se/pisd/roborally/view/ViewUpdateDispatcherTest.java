@@ -0,0 +1,113 @@
+package dk.dtu.compute.se.pisd.roborally.view;
+
+import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ViewUpdateDispatcherTest {
+
+    private static class RecordingView implements ViewObserver {
+
+        final List<Subject> updates = new ArrayList<>();
+
+        @Override
+        public void updateView(Subject subject) {
+            updates.add(subject);
+        }
+    }
+
+    @Test
+    void testUpdatesAreCoalescedPerObserverAndSubject() {
+        AtomicInteger scheduled = new AtomicInteger();
+        ViewUpdateDispatcher dispatcher = new ViewUpdateDispatcher(scheduled::incrementAndGet);
+        Board board = new Board(8, 8);
+        Player player = new Player(board, "red", "Player 1");
+        RecordingView first = new RecordingView();
+        RecordingView second = new RecordingView();
+
+        for (int i = 0; i < 1000; i++) {
+            dispatcher.dispatch(first, board);
+            dispatcher.dispatch(second, board);
+            dispatcher.dispatch(first, player);
+        }
+        assertEquals(1, scheduled.get(), "The updates should be scheduled only once");
+        assertEquals(3000, dispatcher.getEnqueued());
+        assertEquals(0, dispatcher.getExecuted());
+
+        assertTrue(dispatcher.drain());
+        assertEquals(List.of(board, player), first.updates);
+        assertEquals(List.of(board), second.updates);
+        assertEquals(3, dispatcher.getExecuted());
+
+        // while the pulses go on, new updates do not need to be scheduled
+        dispatcher.dispatch(second, board);
+        assertEquals(1, scheduled.get());
+        assertTrue(dispatcher.drain());
+        assertEquals(2, second.updates.size());
+
+        // once nothing is pending anymore, the next update is scheduled again
+        assertFalse(dispatcher.drain());
+        dispatcher.dispatch(first, board);
+        assertEquals(2, scheduled.get());
+    }
+
+    @Test
+    void testChangesFromOtherThreadAreUpdatedOncePerSubject() throws InterruptedException {
+        AtomicInteger scheduled = new AtomicInteger();
+        ViewUpdateDispatcher dispatcher = new ViewUpdateDispatcher(scheduled::incrementAndGet);
+        Board board = new Board(8, 8);
+        Player player = new Player(board, "red", "Player 1");
+        board.addPlayer(player);
+        // stands in for the default update of a view observer, which is not
+        // in the JavaFX application thread here
+        RecordingView view = new RecordingView() {
+            @Override
+            public void update(Subject subject) {
+                dispatcher.dispatch(this, subject);
+            }
+        };
+        board.attach(view);
+        player.attach(view);
+
+        // a mutator outside of a game loop, e.g. a controller used by some
+        // other thread, changes the board shown
+        Thread mutator = new Thread(() -> {
+            for (int i = 0; i < 100; i++) {
+                player.setSpace(board.getSpace(i % board.width, 0));
+                board.setStep(i % Player.NO_REGISTERS);
+            }
+        });
+        mutator.start();
+        mutator.join();
+
+        assertEquals(1, scheduled.get(), "The updates should be scheduled only once");
+        assertTrue(dispatcher.drain());
+        assertEquals(2, view.updates.size(), "Each subject should be updated once");
+        assertTrue(view.updates.containsAll(List.of(board, player)));
+        assertFalse(dispatcher.drain());
+    }
+
+    @Test
+    void testFailedUpdateDoesNotStopOtherUpdates() {
+        ViewUpdateDispatcher dispatcher = new ViewUpdateDispatcher(() -> {});
+        Board board = new Board(8, 8);
+        ViewObserver broken = subject -> {
+            throw new IllegalStateException("broken view");
+        };
+        RecordingView view = new RecordingView();
+
+        dispatcher.dispatch(broken, board);
+        dispatcher.dispatch(view, board);
+        assertTrue(dispatcher.drain());
+        assertEquals(List.of(board), view.updates, "The update after the failed one should be executed");
+        assertEquals(2, dispatcher.getExecuted());
+    }
+
+}